@@ -0,0 +1,251 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Long-term scheduler in front of one of the schedulers: caps the number of active processes (the multiprogramming
+ * level) and decides, through an AdmissionPolicy, what happens to processes that arrive while the cap is reached.
+ *
+ * When the clock reaches a process' arrival time it is admitted to the scheduler if a slot is free, otherwise the
+ * policy holds it until a process finishes or rejects it.  Time held counts as waiting time, as it does for the
+ * user who submitted the process, so waiting, turnaround and response times include it.  Rejected processes never
+ * run.
+ *
+ * Usage:
+ * <pre>
+ *     AdmissionController controller = new AdmissionController(new RR(5), 20, AdmissionPolicy.delay(100));
+ *     for (Process proc : workload.instantiate()) controller.addProcess(proc);
+ *     controller.process();
+ *     System.out.println(controller.getRejectedCount() + " rejected");
+ * </pre>
+ *
+ * @author agent
+ */
+public class AdmissionController implements ScheduleInterface {
+    // the scheduler admitted processes run on
+    private final SchedulerEngine scheduler;
+    // most processes admitted and not finished at any time
+    private final int limit;
+    private final AdmissionPolicy policy;
+    // processes added, and how many of them have arrived
+    private final List<Process> arrivals = new ArrayList<>();
+    private int arrived;
+    // processes waiting for a slot, admitted from the front
+    private final Deque<Process> held = new ArrayDeque<>();
+    private final List<Process> rejected = new ArrayList<>();
+    private int admitted;
+    // time admitted processes spent held, in total and the longest
+    private long totalAdmissionWait;
+    private int maxAdmissionWait;
+    private int timer;
+
+    /**
+     * Constructor.
+     * @param scheduler - the scheduler to admit processes to, with no processes of its own.
+     * @param limit - most active processes, at least 1.
+     * @param policy - AdmissionPolicy for processes arriving while the limit is reached.
+     */
+    public AdmissionController(SchedulerEngine scheduler, int limit, AdmissionPolicy policy) {
+        if (limit < 1) throw new IllegalArgumentException("Limit must be at least 1: " + limit);
+        this.scheduler = scheduler;
+        this.limit = limit;
+        this.policy = policy;
+    }
+
+    /**
+     * Add a process, to arrive at its arrival time.
+     * @param proc - Process.
+     */
+    public void addProcess(Process proc) {
+        arrivals.add(proc);
+    }
+
+    /**
+     * Runs until every process has arrived and been either rejected or run to completion.
+     * @return - the finished processes, in the order of completion.
+     */
+    @Override
+    public List<Process> process() {
+        // stable, so processes arriving together are offered in the order they were added
+        arrivals.subList(arrived, arrivals.size()).sort(Comparator.comparingInt(Process::getArrivalTime));
+        while (true) {
+            // slots freed by the processes that just finished go to the held ones first
+            while (!held.isEmpty() && hasFreeSlot()) admit(held.pollFirst());
+            while (arrived < arrivals.size() && arrivals.get(arrived).getArrivalTime() <= timer) {
+                offer(arrivals.get(arrived++));
+            }
+            int stop = arrived < arrivals.size() ? arrivals.get(arrived).getArrivalTime() : Integer.MAX_VALUE;
+            if (stop == Integer.MAX_VALUE && held.isEmpty()) {
+                // nothing more to admit, so the scheduler just finishes its processes
+                scheduler.process();
+                timer = Math.max(timer, scheduler.getTotalElapsedTime());
+                break;
+            }
+            if (scheduler.getUnfinishedProcessCount() == 0) {
+                scheduler.runUntil(stop);
+            } else {
+                scheduler.runUntilCompletion(stop);
+            }
+            timer = scheduler.getTotalElapsedTime();
+        }
+        return scheduler.getFinishedProcesses();
+    }
+
+    private boolean hasFreeSlot() {
+        return scheduler.getUnfinishedProcessCount() < limit;
+    }
+
+    /**
+     * Admit an arriving process if a slot is free, otherwise let the policy hold or reject it.
+     * @param proc - Process.
+     */
+    private void offer(Process proc) {
+        if (held.isEmpty() && hasFreeSlot()) {
+            admit(proc);
+            return;
+        }
+        Process shed = policy.onFull(proc, held);
+        if (shed != null) rejected.add(shed);
+    }
+
+    private void admit(Process proc) {
+        int wait = timer - proc.getArrivalTime();
+        if (wait > 0) {
+            proc.wait(wait);
+            totalAdmissionWait += wait;
+            maxAdmissionWait = Math.max(maxAdmissionWait, wait);
+        }
+        admitted++;
+        scheduler.addProcess(proc);
+    }
+
+    /**
+     * Get the scheduler the admitted processes run on.
+     * @return - SchedulerEngine.
+     */
+    public SchedulerEngine getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Get the number of processes admitted so far.
+     * @return - int.
+     */
+    public int getAdmittedCount() {
+        return admitted;
+    }
+
+    /**
+     * Get the number of processes rejected so far.
+     * @return - int.
+     */
+    public int getRejectedCount() {
+        return rejected.size();
+    }
+
+    /**
+     * Get the processes rejected so far.
+     * @return - List of Processes, in the order they were rejected.
+     */
+    public List<Process> getRejectedProcesses() {
+        return new ArrayList<>(rejected);
+    }
+
+    /**
+     * Get the number of processes admitted per clock tick.
+     * @return - double.
+     */
+    public double getAdmittedThroughput() {
+        return timer == 0 ? 0 : 1.0 * admitted / timer;
+    }
+
+    /**
+     * Get the number of processes rejected per clock tick.
+     * @return - double.
+     */
+    public double getRejectedThroughput() {
+        return timer == 0 ? 0 : 1.0 * rejected.size() / timer;
+    }
+
+    /**
+     * Get the number of processes finished per clock tick.
+     * @return - double.
+     */
+    public double getThroughput() {
+        return timer == 0 ? 0 : 1.0 * scheduler.getFinishedProcesses().size() / timer;
+    }
+
+    /**
+     * Get the average time admitted processes were held before admission.
+     * @return - double.
+     */
+    public double getAverageAdmissionWait() {
+        return admitted == 0 ? 0 : 1.0 * totalAdmissionWait / admitted;
+    }
+
+    /**
+     * Get the longest time an admitted process was held before admission.
+     * @return - int.
+     */
+    public int getMaxAdmissionWait() {
+        return maxAdmissionWait;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void displayState(boolean writeToFile, boolean writeToScreen) {
+        scheduler.displayState(writeToFile, writeToScreen);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getDisplayMode() {
+        return scheduler.getDisplayMode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDisplayMode(boolean displayMode) {
+        scheduler.setDisplayMode(displayMode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTotalElapsedTime() {
+        return timer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTotalIdleCPUTime() {
+        return scheduler.getTotalIdleCPUTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCPUCount() {
+        return scheduler.getCPUCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIdleCPUTime(int cpu) {
+        return scheduler.getIdleCPUTime(cpu);
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Decides what an AdmissionController does with a process that arrives while the limit of active processes is
+ * reached: hold it until a process finishes, or reject it, or reject a held process to make room for it.
+ *
+ * @author agent
+ */
+public interface AdmissionPolicy {
+    /**
+     * Handle a process arriving while every slot is taken.
+     * @param proc - the arriving Process.
+     * @param held - processes waiting for admission, admitted from the front; the policy may add proc to it and
+     *             take out the process it rejects.
+     * @return - the rejected Process, either proc or one taken out of held, or null if none is rejected.
+     */
+    public Process onFull(Process proc, Deque<Process> held);
+
+    /**
+     * Reject every process that arrives while the limit is reached.
+     */
+    public static final AdmissionPolicy DROP = (proc, held) -> proc;
+
+    /**
+     * Hold arriving processes first come, first served, rejecting those that arrive while the queue is full.
+     * @param capacity - most processes held, at least 1; Integer.MAX_VALUE for no limit.
+     * @return - AdmissionPolicy.
+     */
+    public static AdmissionPolicy delay(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        return (proc, held) -> {
+            if (held.size() >= capacity) return proc;
+            held.addLast(proc);
+            return null;
+        };
+    }
+
+    /**
+     * Hold arriving processes first come, first served, and while the queue is full reject the least important
+     * process, held or arriving: the one with the largest priority number, as Priority orders them, and of those the
+     * one that arrived last.
+     * @param capacity - most processes held, at least 1.
+     * @return - AdmissionPolicy.
+     */
+    public static AdmissionPolicy shedByPriority(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        return (proc, held) -> {
+            if (held.size() < capacity) {
+                held.addLast(proc);
+                return null;
+            }
+            // the held process to shed, the last one on a tie since it arrived latest
+            Process worst = null;
+            for (Process p : held) {
+                if (worst == null || p.getPriority() >= worst.getPriority()) worst = p;
+            }
+            if (worst == null || proc.getPriority() >= worst.getPriority()) return proc;
+            for (Iterator<Process> it = held.descendingIterator(); it.hasNext(); ) {
+                if (it.next() == worst) {
+                    it.remove();
+                    break;
+                }
+            }
+            held.addLast(proc);
+            return worst;
+        };
+    }
+}
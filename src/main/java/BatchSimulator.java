@@ -0,0 +1,563 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Simulates many small independent workloads at once, in lockstep, with the same results FCFS, RR and SJF give for
+ * each workload on its own.  It is meant for runs over hundreds of thousands of workloads the size of the default
+ * test data, where running each through its own engine spends most of the time creating objects.
+ *
+ * The workloads are split into batches.  Every column of a batch is an int array laid out process by process, with
+ * one entry per workload, so each tick charges the same process of every workload in one loop over consecutive
+ * entries.  That loop is branch-free so the JIT compiles it to vector instructions.  The scheduling decisions and the
+ * end of bursts are handled per workload, and only for the workloads where something happened.
+ *
+ * Usage:
+ * <pre>
+ *     List&lt;BatchSimulator.Result&gt; results = new BatchSimulator(workloads).runRR(5);
+ * </pre>
+ *
+ * @author agent
+ */
+public class BatchSimulator {
+    // process states, the same ordinals as ProcessTable
+    private static final int RUNNING = 0;
+    private static final int WAITING = 1;
+    private static final int IO = 2;
+    private static final int FINISHED = 3;
+
+    // how the ready queue is ordered
+    private static final int FIFO = 0;
+    private static final int SHORTEST_BURST = 1;
+
+    private final List<WorkloadSpec> workloads;
+    // number of workloads simulated together
+    private int batchSize = 256;
+
+    /**
+     * Results of one workload.
+     */
+    public static class Result {
+        private final int[] waitingTimes;
+        private final int[] turnaroundTimes;
+        private final int[] responseTimes;
+        private final int totalTime;
+        private final int idleTime;
+
+        Result(int[] waitingTimes, int[] turnaroundTimes, int[] responseTimes, int totalTime, int idleTime) {
+            this.waitingTimes = waitingTimes;
+            this.turnaroundTimes = turnaroundTimes;
+            this.responseTimes = responseTimes;
+            this.totalTime = totalTime;
+            this.idleTime = idleTime;
+        }
+
+        /**
+         * Get the number of processes in the workload.
+         * @return - int.
+         */
+        public int getProcessCount() {
+            return waitingTimes.length;
+        }
+
+        /**
+         * Get the waiting time of a process.
+         * @param process - index of the process in the workload.
+         * @return - int.
+         */
+        public int getWaitingTime(int process) {
+            return waitingTimes[process];
+        }
+
+        /**
+         * Get the turnaround time of a process.
+         * @param process - index of the process in the workload.
+         * @return - int.
+         */
+        public int getTurnaroundTime(int process) {
+            return turnaroundTimes[process];
+        }
+
+        /**
+         * Get the response time of a process.
+         * @param process - index of the process in the workload.
+         * @return - int.
+         */
+        public int getResponseTime(int process) {
+            return responseTimes[process];
+        }
+
+        public double getAverageWait() {
+            return average(waitingTimes);
+        }
+
+        public double getAverageTurnaround() {
+            return average(turnaroundTimes);
+        }
+
+        public double getAverageResponse() {
+            return average(responseTimes);
+        }
+
+        /**
+         * Get the time the last process finished.
+         * @return - int.
+         */
+        public int getTotalTime() {
+            return totalTime;
+        }
+
+        public int getIdleTime() {
+            return idleTime;
+        }
+
+        /**
+         * Get the fraction of CPU time that was not idle, from 0 to 1.
+         * @return - double.
+         */
+        public double getCPUUtilization() {
+            return totalTime == 0 ? 0 : 1.0 * (totalTime - idleTime) / totalTime;
+        }
+
+        private static double average(int[] values) {
+            long total = 0;
+            for (int value : values) total += value;
+            return values.length == 0 ? 0 : 1.0 * total / values.length;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param workloads - the workloads; every process needs at least one burst, starting with a CPU burst.
+     */
+    public BatchSimulator(List<WorkloadSpec> workloads) {
+        for (WorkloadSpec workload : workloads) {
+            for (ProcessSpec spec : workload.getProcesses()) {
+                if (spec.getBurstCount() == 0 || spec.getBurstType(0) != Process.BurstType.CPU) {
+                    throw new IllegalArgumentException("Processes must start with a CPU burst: " + spec);
+                }
+            }
+        }
+        this.workloads = List.copyOf(workloads);
+    }
+
+    /**
+     * Set the number of workloads simulated together.  Large enough batches keep the vector units busy, small enough
+     * ones keep the columns in cache.
+     * @param batchSize - int, at least 1.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Simulate every workload with first come, first served scheduling.
+     * @return - one Result per workload, in order.
+     */
+    public List<Result> runFCFS() {
+        return run(FIFO, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Simulate every workload with round robin scheduling.
+     * @param quantum - time quantum.
+     * @return - one Result per workload, in order.
+     */
+    public List<Result> runRR(int quantum) {
+        return run(FIFO, quantum, null);
+    }
+
+    /**
+     * Simulate every workload with shortest job first scheduling.
+     * @return - one Result per workload, in order.
+     */
+    public List<Result> runSJF() {
+        return run(SHORTEST_BURST, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Simulate every workload with first come, first served scheduling, running the batches in parallel on a pool.
+     * @param pool - ForkJoinPool.
+     * @return - one Result per workload, in order.
+     */
+    public List<Result> runFCFS(ForkJoinPool pool) {
+        return run(FIFO, Integer.MAX_VALUE, pool);
+    }
+
+    /**
+     * Simulate every workload with round robin scheduling, running the batches in parallel on a pool.
+     * @param quantum - time quantum.
+     * @param pool - ForkJoinPool.
+     * @return - one Result per workload, in order.
+     */
+    public List<Result> runRR(int quantum, ForkJoinPool pool) {
+        return run(FIFO, quantum, pool);
+    }
+
+    /**
+     * Simulate every workload with shortest job first scheduling, running the batches in parallel on a pool.
+     * @param pool - ForkJoinPool.
+     * @return - one Result per workload, in order.
+     */
+    public List<Result> runSJF(ForkJoinPool pool) {
+        return run(SHORTEST_BURST, Integer.MAX_VALUE, pool);
+    }
+
+    private List<Result> run(int order, int timeSlice, ForkJoinPool pool) {
+        List<Callable<List<Result>>> batches = new ArrayList<>();
+        for (int from = 0; from < workloads.size(); from += batchSize) {
+            List<WorkloadSpec> batch = workloads.subList(from, Math.min(from + batchSize, workloads.size()));
+            batches.add(() -> new Batch(batch, order, timeSlice).run());
+        }
+        List<Result> results = new ArrayList<>(workloads.size());
+        if (pool == null) {
+            for (Callable<List<Result>> batch : batches) {
+                try {
+                    results.addAll(batch.call());
+                } catch (Exception e) {
+                    throw new IllegalStateException("A batch failed", e);
+                }
+            }
+            return results;
+        }
+        for (Future<List<Result>> future : pool.invokeAll(batches)) {
+            try {
+                results.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the batches", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A batch failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Workloads simulated together.  Per-process columns are indexed [process * lanes + workload], per-workload ones
+     * by workload.
+     */
+    private static final class Batch {
+        private final int lanes;
+        // most processes and bursts of any workload in the batch
+        private final int processes;
+        private final int maxBursts;
+        private final int order;
+        private final int timeSlice;
+
+        private final int[] state;
+        // what is left of the current burst
+        private final int[] remaining;
+        private final int[] cursor;
+        private final int[] burstCount;
+        private final int[] waitingTime;
+        private final int[] cpuTime;
+        private final int[] ioTime;
+        private final int[] firstRun;
+        // bursts, indexed [(workload * processes + process) * maxBursts + burst]
+        private final int[] bursts;
+        private final int[] arrivalTime;
+        // processes of each workload in the order they arrive, indexed [workload * processes + i], and how many of
+        // them have arrived; a process that hasn't arrived is FINISHED, so charge() leaves it alone
+        private final int[] arrivalOrder;
+        private final int[] arrived;
+        // time of each workload's next arrival, Integer.MAX_VALUE once they have all arrived
+        private final int[] nextArrival;
+
+        private final int[] processCount;
+        private final int[] unfinished;
+        // 1 while a workload has unfinished processes
+        private final int[] live;
+        // process on the CPU, -1 while idle
+        private final int[] running;
+        // time at which the running process' time quantum is up, Integer.MAX_VALUE while the CPU is idle
+        private final int[] quantumEnd;
+        private final int[] idleTime;
+        private final int[] totalTime;
+        // 1 if a burst ended on the last tick
+        private final int[] changed;
+        // ready queue of each workload, indexed [workload * processes + i]: a ring for FIFO, a binary heap otherwise
+        private final int[] queue;
+        private final int[] queueHead;
+        private final int[] queueSize;
+
+        Batch(List<WorkloadSpec> workloads, int order, int timeSlice) {
+            this.lanes = workloads.size();
+            this.order = order;
+            this.timeSlice = timeSlice;
+            int mostProcesses = 0, mostBursts = 0;
+            for (WorkloadSpec workload : workloads) {
+                mostProcesses = Math.max(mostProcesses, workload.size());
+                for (ProcessSpec spec : workload.getProcesses()) mostBursts = Math.max(mostBursts, spec.getBurstCount());
+            }
+            processes = mostProcesses;
+            maxBursts = mostBursts;
+            int cells = processes * lanes;
+            state = new int[cells];
+            remaining = new int[cells];
+            cursor = new int[cells];
+            burstCount = new int[cells];
+            waitingTime = new int[cells];
+            cpuTime = new int[cells];
+            ioTime = new int[cells];
+            firstRun = new int[cells];
+            arrivalTime = new int[cells];
+            bursts = new int[cells * maxBursts];
+            arrivalOrder = new int[cells];
+            arrived = new int[lanes];
+            nextArrival = new int[lanes];
+            processCount = new int[lanes];
+            unfinished = new int[lanes];
+            live = new int[lanes];
+            running = new int[lanes];
+            quantumEnd = new int[lanes];
+            idleTime = new int[lanes];
+            totalTime = new int[lanes];
+            changed = new int[lanes];
+            queue = new int[cells];
+            queueHead = new int[lanes];
+            queueSize = new int[lanes];
+
+            Arrays.fill(state, FINISHED);
+            for (int w = 0; w < lanes; w++) {
+                List<ProcessSpec> specs = workloads.get(w).getProcesses();
+                processCount[w] = specs.size();
+                unfinished[w] = specs.size();
+                live[w] = specs.isEmpty() ? 0 : 1;
+                running[w] = -1;
+                for (int p = 0; p < specs.size(); p++) {
+                    ProcessSpec spec = specs.get(p);
+                    int cell = p * lanes + w;
+                    int base = (w * processes + p) * maxBursts;
+                    for (int b = 0; b < spec.getBurstCount(); b++) bursts[base + b] = spec.getBurst(b);
+                    burstCount[cell] = spec.getBurstCount();
+                    arrivalTime[cell] = spec.getArrivalTime();
+                    firstRun[cell] = -1;
+                    remaining[cell] = spec.getBurst(0);
+                }
+                // stable, so processes arriving together arrive in the order of the workload, as in SchedulerEngine
+                Integer[] byArrival = new Integer[specs.size()];
+                for (int p = 0; p < byArrival.length; p++) byArrival[p] = p;
+                Arrays.sort(byArrival, (a, b) -> Integer.compare(specs.get(a).getArrivalTime(),
+                        specs.get(b).getArrivalTime()));
+                for (int i = 0; i < byArrival.length; i++) arrivalOrder[w * processes + i] = byArrival[i];
+                nextArrival[w] = byArrival.length == 0 ? Integer.MAX_VALUE : specs.get(byArrival[0]).getArrivalTime();
+                admit(w, 0);
+            }
+        }
+
+        /**
+         * Put the processes of a workload whose arrival time has come in its ready queue, in arrival order.
+         */
+        private void admit(int w, int timer) {
+            int base = w * processes;
+            while (nextArrival[w] <= timer) {
+                int proc = arrivalOrder[base + arrived[w]++];
+                state[proc * lanes + w] = WAITING;
+                enqueue(w, proc);
+                nextArrival[w] = arrived[w] == processCount[w] ? Integer.MAX_VALUE
+                        : arrivalTime[arrivalOrder[base + arrived[w]] * lanes + w];
+            }
+        }
+
+        List<Result> run() {
+            int active = 0;
+            for (int w = 0; w < lanes; w++) {
+                active += live[w];
+                if (live[w] == 1) schedule(w, 0);
+            }
+            int timer = 0;
+            while (active > 0) {
+                charge();
+                for (int w = 0; w < lanes; w++) idleTime[w] += (running[w] >>> 31) & live[w];
+                timer++;
+                // the CPU decision only changes when a burst ended, a process arrived or a time quantum is up
+                for (int w = 0; w < lanes; w++) {
+                    if (changed[w] != 0) {
+                        changed[w] = 0;
+                        endBursts(w);
+                        if (unfinished[w] == 0) {
+                            totalTime[w] = timer;
+                            live[w] = 0;
+                            active--;
+                            continue;
+                        }
+                        admit(w, timer);
+                        schedule(w, timer);
+                    } else if (nextArrival[w] <= timer) {
+                        admit(w, timer);
+                        schedule(w, timer);
+                    } else if (timer >= quantumEnd[w]) {
+                        schedule(w, timer);
+                    }
+                }
+            }
+            List<Result> results = new ArrayList<>(lanes);
+            for (int w = 0; w < lanes; w++) {
+                int count = processCount[w];
+                int[] waits = new int[count], turnarounds = new int[count], responses = new int[count];
+                for (int p = 0; p < count; p++) {
+                    int cell = p * lanes + w;
+                    waits[p] = waitingTime[cell];
+                    turnarounds[p] = waitingTime[cell] + cpuTime[cell] + ioTime[cell];
+                    responses[p] = firstRun[cell] - arrivalTime[cell];
+                }
+                results.add(new Result(waits, turnarounds, responses, totalTime[w], idleTime[w]));
+            }
+            return results;
+        }
+
+        /**
+         * Make the CPU decision of a workload for the next tick, as SchedulerEngine does for one CPU.  The engine
+         * makes it every tick, but it can only change after a burst ended, a process arrived or the time quantum is
+         * up.
+         */
+        private void schedule(int w, int timer) {
+            int proc = running[w];
+            if (proc >= 0) {
+                int cell = proc * lanes + w;
+                if (state[cell] != RUNNING) {
+                    // the CPU burst finished on the last tick
+                    running[w] = -1;
+                } else if (timer >= quantumEnd[w]) {
+                    running[w] = -1;
+                    state[cell] = WAITING;
+                    enqueue(w, proc);
+                }
+            }
+            if (running[w] < 0) {
+                int next = dequeue(w);
+                if (next >= 0) {
+                    int cell = next * lanes + w;
+                    running[w] = next;
+                    state[cell] = RUNNING;
+                    if (firstRun[cell] == -1) firstRun[cell] = timer;
+                    quantumEnd[w] = timeSlice >= Integer.MAX_VALUE - timer ? Integer.MAX_VALUE : timer + timeSlice;
+                } else {
+                    quantumEnd[w] = Integer.MAX_VALUE;
+                }
+            }
+        }
+
+        /**
+         * Charge one tick to every process of every workload.  Branch-free, so it compiles to vector instructions:
+         * the state masks come from the state ordinals, as in VectorTickKernel.
+         */
+        private void charge() {
+            for (int p = 0; p < processes; p++) {
+                int base = p * lanes;
+                for (int w = 0; w < lanes; w++) {
+                    int cell = base + w;
+                    int s = state[cell];
+                    // RUNNING = 0 and IO = 2 are the states without the low bit, WAITING = 1 the one without the high
+                    int busy = ~s & 1;
+                    int high = (s >> 1) & 1;
+                    int r = remaining[cell];
+                    // 1 if the burst has time left, which is charged
+                    int left = (-r) >>> 31;
+                    waitingTime[cell] += s & 1 & (high ^ 1);
+                    cpuTime[cell] += busy & (high ^ 1) & left;
+                    ioTime[cell] += busy & high & left;
+                    r -= busy;
+                    remaining[cell] = r;
+                    changed[w] |= busy & ((r - 1) >>> 31);
+                }
+            }
+        }
+
+        /**
+         * Move the processes of a workload whose burst ended on the last tick on to their next burst, in the order
+         * they arrived: to IO after a CPU burst, back to the ready queue after an IO burst, or finished.
+         */
+        private void endBursts(int w) {
+            int base = w * processes;
+            for (int i = 0; i < arrived[w]; i++) {
+                int p = arrivalOrder[base + i];
+                int cell = p * lanes + w;
+                int s = state[cell];
+                if ((s == RUNNING || s == IO) && remaining[cell] <= 0) {
+                    int next = ++cursor[cell];
+                    if (next == burstCount[cell]) {
+                        state[cell] = FINISHED;
+                        unfinished[w]--;
+                        continue;
+                    }
+                    remaining[cell] = bursts[(w * processes + p) * maxBursts + next];
+                    if (s == RUNNING) {
+                        state[cell] = IO;
+                    } else {
+                        state[cell] = WAITING;
+                        enqueue(w, p);
+                    }
+                }
+            }
+        }
+
+        private void enqueue(int w, int proc) {
+            int base = w * processes;
+            if (order == FIFO) {
+                queue[base + (queueHead[w] + queueSize[w]) % processes] = proc;
+                queueSize[w]++;
+            } else {
+                siftUp(w, queueSize[w]++, proc);
+            }
+        }
+
+        /**
+         * Take the next process out of a workload's ready queue.
+         * @return - process index, or -1 if the queue is empty.
+         */
+        private int dequeue(int w) {
+            if (queueSize[w] == 0) return -1;
+            int base = w * processes;
+            if (order == FIFO) {
+                int proc = queue[base + queueHead[w]];
+                queueHead[w] = (queueHead[w] + 1) % processes;
+                queueSize[w]--;
+                return proc;
+            }
+            // the same steps as ProcessHeap, so ties break the same way
+            int first = queue[base];
+            int last = --queueSize[w];
+            if (last > 0) siftDown(w, 0, queue[base + last]);
+            return first;
+        }
+
+        // compare the remaining CPU bursts of two processes, as OrderByCPUDuration does
+        private int compare(int w, int a, int b) {
+            return remaining[a * lanes + w] - remaining[b * lanes + w];
+        }
+
+        private void siftUp(int w, int index, int proc) {
+            int base = w * processes;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                int parentProc = queue[base + parent];
+                if (compare(w, proc, parentProc) >= 0) break;
+                queue[base + index] = parentProc;
+                index = parent;
+            }
+            queue[base + index] = proc;
+        }
+
+        private void siftDown(int w, int index, int proc) {
+            int base = w * processes;
+            int size = queueSize[w];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && compare(w, queue[base + child], queue[base + right]) > 0) child = right;
+                if (compare(w, proc, queue[base + child]) <= 0) break;
+                queue[base + index] = queue[base + child];
+                index = child;
+            }
+            queue[base + index] = proc;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Reports how much asymmetry-aware placement helps each algorithm on a big.LITTLE system: two fast CPUs and two slow
+ * ones, compared with speed-oblivious placement on the same CPUs.
+ * The workload is a seeded mix of CPU-bound processes (long CPU bursts, short IO) and IO-bound processes (short CPU
+ * bursts, long IO), so every run of the report gives the same numbers.
+ */
+public class BigLittleReport {
+    // speed of each CPU, in units of CPU burst per tick
+    private static final int[] SPEEDS = {2, 2, 1, 1};
+    // CPU bursts at least this long go to the fast CPUs
+    private static final int LONG_BURST = 10;
+    private static final int PROCESSES = 24;
+    private static final long SEED = 42;
+    private static final WorkloadSpec WORKLOAD = createWorkload();
+
+    /**
+     * Run every algorithm with speed-oblivious and asymmetry-aware placement and format the results.
+     * @return - the table, with the CPU speeds above it and a key below it.
+     */
+    public static String toTable() {
+        List<String> names = List.of("FCFS", "SJF", "RR", "Priority", "MLQ", "MLFQ");
+        List<Function<Process[], SchedulerEngine>> algorithms = List.of(
+                data -> new FCFS(Arrays.asList(data)),
+                data -> new SJF(data),
+                data -> new RR(Arrays.asList(data)),
+                data -> new Priority(Arrays.asList(data)),
+                data -> new MLQ(Arrays.asList(data).subList(0, PROCESSES / 2),
+                        Arrays.asList(data).subList(PROCESSES / 2, PROCESSES), 4),
+                data -> new MLFQ(Arrays.asList(data), 5, 10));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("CPU speeds: " + Arrays.toString(SPEEDS) + ", long bursts: >= " + LONG_BURST + "\n");
+        sb.append("\n");
+        sb.append(String.format("%-10s%14s%14s%10s%16s%16s%10s%n", "Algorithm", "TTr oblivious", "TTr aware", "Gain",
+                "Thru oblivious", "Thru aware", "Gain"));
+        for (int i = 0; i < algorithms.size(); i++) {
+            double[] oblivious = run(algorithms.get(i), PlacementPolicy.HOME);
+            double[] aware = run(algorithms.get(i), PlacementPolicy.bySpeed(LONG_BURST));
+            sb.append(String.format("%-10s%14.1f%14.1f%9.1f%%%16.2f%16.2f%9.1f%%%n", names.get(i),
+                    oblivious[0], aware[0], (oblivious[0] - aware[0]) / oblivious[0] * 100,
+                    oblivious[1], aware[1], (aware[1] - oblivious[1]) / oblivious[1] * 100));
+        }
+        sb.append("\n");
+        sb.append("TTr: average turnaround time, Thru: processes finished per 1000 ticks\n");
+        return sb.toString();
+    }
+
+    /**
+     * Run an algorithm on the big.LITTLE CPUs.
+     * @param algorithm - builds the algorithm from the processes.
+     * @param placement - PlacementPolicy.
+     * @return - average turnaround time and throughput.
+     */
+    private static double[] run(Function<Process[], SchedulerEngine> algorithm, PlacementPolicy placement) {
+        SchedulerEngine engine = algorithm.apply(WORKLOAD.instantiateArray());
+        engine.setCPUSpeeds(SPEEDS);
+        engine.setPlacementPolicy(placement);
+        List<Process> result = engine.process();
+        double turnaround = 0;
+        for (Process proc : result) turnaround += proc.getTurnaroundTime();
+        return new double[] {turnaround / result.size(), 1000.0 * result.size() / engine.getTotalElapsedTime()};
+    }
+
+    /**
+     * Create the workload: every third process is CPU-bound, the rest are IO-bound.
+     * @return - WorkloadSpec.
+     */
+    private static WorkloadSpec createWorkload() {
+        Random random = new Random(SEED);
+        List<ProcessSpec> processes = new ArrayList<>();
+        for (int i = 0; i < PROCESSES; i++) {
+            boolean cpuBound = i % 3 == 0;
+            List<Integer> bursts = new ArrayList<>();
+            for (int b = 0; b < 15; b++) {
+                if (b % 2 == 0) {
+                    bursts.add(cpuBound ? 15 + random.nextInt(30) : 1 + random.nextInt(5));
+                } else {
+                    bursts.add(cpuBound ? 2 + random.nextInt(6) : 10 + random.nextInt(30));
+                }
+            }
+            processes.add(new ProcessSpec("P" + (i + 1), 1 + random.nextInt(8), 0,
+                    bursts.stream().mapToInt(Integer::intValue).toArray()));
+        }
+        return new WorkloadSpec(processes);
+    }
+}
@@ -0,0 +1,472 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Workload trace in a compact binary format, read through memory mapping.  Opening a trace only maps the file and
+ * reads its header and index, whatever its size; processes are decoded one at a time as they are asked for, and the
+ * pages of the file are shared through the OS page cache by every JVM reading it.
+ *
+ * Format, version 1, all fixed-size fields big-endian:
+ * <pre>
+ *     header (32 bytes):  magic 0x89 'C' 'P' 'U', version (short), header size (short), block size (int),
+ *                         reserved (int), process count (long), index offset (long)
+ *     records:            one per process, in order
+ *     index:              per block of block size records, its offset (long) and first arrival time (int)
+ * </pre>
+ * A record is a flags byte (bit 0: the first burst is IO, bit 1: a name follows), the ID as a varint, the priority
+ * and the arrival time as zigzag varints, the arrival time as the difference from the record before in the same
+ * block, then the name (varint length and UTF-8 bytes) unless it is "P" and the ID, the number of bursts and the
+ * bursts, alternately CPU and IO, as varints.  Bursts aren't stored as differences: from one burst to the next they
+ * vary about as much as they are long, so the differences take as many bytes.
+ *
+ * Usage:
+ * <pre>
+ *     BinaryTrace.write(path, new WorkloadGenerator(42, 10_000_000));
+ *     RR rr = new RR(5);
+ *     rr.addArrivals(BinaryTrace.open(path).iterator());
+ *     rr.process();
+ * </pre>
+ *
+ * @author agent
+ */
+public final class BinaryTrace implements Iterable<ProcessSpec> {
+    // the first byte isn't valid at the start of UTF-8 text, so text traces can't be mistaken for binary ones
+    static final int MAGIC = 0x89435055;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int DEFAULT_BLOCK_SIZE = 1024;
+    private static final int INDEX_ENTRY_SIZE = 12;
+    private static final int FIRST_IO = 1;
+    private static final int NAMED = 2;
+    // largest part of the file mapped in one buffer
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final Path path;
+    private final MappedByteBuffer[] segments;
+    private final long processCount;
+    private final int blockSize;
+    // per block, the offset of its first record and that record's arrival time
+    private final long[] blockOffsets;
+    private final int[] blockArrivals;
+
+    private BinaryTrace(Path path, MappedByteBuffer[] segments, long processCount, int blockSize,
+                        long[] blockOffsets, int[] blockArrivals) {
+        this.path = path;
+        this.segments = segments;
+        this.processCount = processCount;
+        this.blockSize = blockSize;
+        this.blockOffsets = blockOffsets;
+        this.blockArrivals = blockArrivals;
+    }
+
+    /**
+     * Return true if a file starts like a binary trace.
+     * @param path - file.
+     * @return - boolean.
+     * @throws IOException - if the file can't be read.
+     */
+    public static boolean isBinaryTrace(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) { }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Open a trace by mapping it into memory.  Takes the same time for any size of trace, apart from reading the
+     * index, 12 bytes per block of processes.
+     * @param path - trace file.
+     * @return - BinaryTrace.
+     * @throws IOException - if the file can't be read or isn't a binary trace.
+     */
+    public static BinaryTrace open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) throw new IOException(path + ": too short for a binary trace");
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int s = 0; s < segments.length; s++) {
+                long from = s * SEGMENT_SIZE;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(SEGMENT_SIZE, size - from));
+            }
+            ByteBuffer header = segments[0].duplicate();
+            if (header.getInt(0) != MAGIC) throw new IOException(path + ": not a binary trace");
+            if (header.getShort(4) != VERSION) {
+                throw new IOException(path + ": unsupported binary trace version " + header.getShort(4));
+            }
+            int headerSize = header.getShort(6);
+            int blockSize = header.getInt(8);
+            long processCount = header.getLong(16);
+            long indexOffset = header.getLong(24);
+            long blocks = (processCount + blockSize - 1) / Math.max(blockSize, 1);
+            if (headerSize < HEADER_SIZE || blockSize < 1 || processCount < 0 || indexOffset < headerSize
+                    || indexOffset + blocks * INDEX_ENTRY_SIZE != size) {
+                throw new IOException(path + ": corrupt binary trace header");
+            }
+            long[] blockOffsets = new long[(int) blocks];
+            int[] blockArrivals = new int[(int) blocks];
+            Cursor index = new Cursor(segments, indexOffset);
+            for (int b = 0; b < blocks; b++) {
+                blockOffsets[b] = index.readLong();
+                blockArrivals[b] = index.readInt();
+            }
+            return new BinaryTrace(path, segments, processCount, blockSize, blockOffsets, blockArrivals);
+        }
+    }
+
+    /**
+     * Write a trace, streaming the processes to the file as they come.
+     * @param path - file to write, replaced if it exists.
+     * @param specs - the processes, in the order they are added to a scheduler.
+     * @return - the number of processes written.
+     * @throws IOException - if writing fails.
+     */
+    public static long write(Path path, Iterator<ProcessSpec> specs) throws IOException {
+        return write(path, specs, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Write a trace with a given number of processes per index block.
+     * @param path - file to write, replaced if it exists.
+     * @param specs - the processes, in the order they are added to a scheduler.
+     * @param blockSize - processes per index block, at least 1; smaller blocks make get() faster and the index
+     *                  larger.
+     * @return - the number of processes written.
+     * @throws IOException - if writing fails.
+     */
+    public static long write(Path path, Iterator<ProcessSpec> specs, int blockSize) throws IOException {
+        if (blockSize < 1) throw new IllegalArgumentException("Block size must be at least 1: " + blockSize);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.position(HEADER_SIZE);
+            List<long[]> index = new ArrayList<>();
+            long count = 0;
+            int previousArrival = 0;
+            while (specs.hasNext()) {
+                ProcessSpec spec = specs.next();
+                if (count % blockSize == 0) {
+                    index.add(new long[] {out.position(), spec.getArrivalTime()});
+                    previousArrival = 0;
+                }
+                writeRecord(out, spec, count, previousArrival);
+                previousArrival = spec.getArrivalTime();
+                count++;
+            }
+            long indexOffset = out.position();
+            for (long[] entry : index) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+            }
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) HEADER_SIZE).putInt(blockSize).putInt(0)
+                    .putLong(count).putLong(indexOffset).flip();
+            while (header.hasRemaining()) channel.write(header, header.position());
+            return count;
+        }
+    }
+
+    private static void writeRecord(Output out, ProcessSpec spec, long ordinal, int previousArrival)
+            throws IOException {
+        int id = idOf(spec.getName());
+        boolean named = id < 0;
+        if (named) id = (int) Math.min(ordinal + 1, Integer.MAX_VALUE);
+        int flags = (named ? NAMED : 0)
+                | (spec.getBurstCount() > 0 && spec.getBurstType(0) == Process.BurstType.IO ? FIRST_IO : 0);
+        out.writeByte(flags);
+        out.writeVarint(id);
+        out.writeVarint(zigzag(spec.getPriority()));
+        out.writeVarint(zigzag(spec.getArrivalTime() - previousArrival));
+        if (named) {
+            byte[] name = spec.getName().getBytes(StandardCharsets.UTF_8);
+            out.writeVarint(name.length);
+            for (byte b : name) out.writeByte(b);
+        }
+        out.writeVarint(spec.getBurstCount());
+        for (int b = 0; b < spec.getBurstCount(); b++) out.writeVarint(spec.getBurst(b));
+    }
+
+    /**
+     * Get the number in a name of the form "P" and a number without leading zeros, the names records leave out.
+     * @return - int, or -1 if the name isn't of that form.
+     */
+    private static int idOf(String name) {
+        if (name.length() < 2 || name.length() > 10 || name.charAt(0) != 'P' || name.charAt(1) == '0') return -1;
+        long id = 0;
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            id = id * 10 + (c - '0');
+        }
+        return id > Integer.MAX_VALUE ? -1 : (int) id;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Get the number of processes.
+     * @return - long.
+     */
+    public long size() {
+        return processCount;
+    }
+
+    /**
+     * Get the arrival time of the first process of every block of the index, e.g. to split a trace by time.
+     * @param block - index of the block.
+     * @return - int.
+     */
+    public int getBlockArrivalTime(int block) {
+        return blockArrivals[block];
+    }
+
+    /**
+     * Get the number of blocks in the index.
+     * @return - int.
+     */
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Get the number of processes in each block of the index.
+     * @return - int.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Decode one process, skipping to it through the index.
+     * @param index - position of the process in the trace.
+     * @return - ProcessSpec.
+     */
+    public ProcessSpec get(long index) {
+        return iterator(index).next();
+    }
+
+    /**
+     * Decode the processes in order.  Each iterator reads the mapped file on its own, so several can run at once
+     * on different threads.
+     * @return - Iterator of ProcessSpecs.
+     */
+    @Override
+    public Iterator<ProcessSpec> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * Decode the processes in order, starting at a given one.
+     * @param from - position of the first process to decode.
+     * @return - Iterator of ProcessSpecs.
+     */
+    public Iterator<ProcessSpec> iterator(long from) {
+        if (from < 0 || from > processCount) {
+            throw new IndexOutOfBoundsException("No process " + from + " of " + processCount);
+        }
+        Reader reader = new Reader(from / blockSize);
+        for (long skip = from % blockSize; skip > 0; skip--) reader.next();
+        return reader;
+    }
+
+    /**
+     * Get the processes as a sequential stream, decoded as it is consumed.
+     * @return - Stream of ProcessSpecs.
+     */
+    public Stream<ProcessSpec> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), processCount,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Create every process, all in one new ProcessTable, for any scheduler constructor.
+     * @return - List of Processes, in trace order.
+     */
+    public List<Process> instantiate() {
+        if (processCount > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many processes: " + processCount);
+        ProcessTable table = new ProcessTable((int) processCount);
+        List<Process> processes = new ArrayList<>((int) processCount);
+        for (ProcessSpec spec : this) processes.add(spec.instantiate(table));
+        return processes;
+    }
+
+    /**
+     * Decode every process into a WorkloadSpec, for traces small enough to hold in memory.
+     * @return - WorkloadSpec.
+     */
+    public WorkloadSpec toWorkload() {
+        List<ProcessSpec> specs = new ArrayList<>();
+        for (ProcessSpec spec : this) specs.add(spec);
+        return new WorkloadSpec(specs);
+    }
+
+    /**
+     * Decodes records from the start of a block on.
+     */
+    private final class Reader implements Iterator<ProcessSpec> {
+        private long next;
+        private final Cursor cursor;
+        private int previousArrival;
+
+        Reader(long block) {
+            next = block * blockSize;
+            cursor = new Cursor(segments, block < blockOffsets.length ? blockOffsets[(int) block] : HEADER_SIZE);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < processCount;
+        }
+
+        @Override
+        public ProcessSpec next() {
+            if (!hasNext()) throw new NoSuchElementException("All " + processCount + " processes read");
+            if (next % blockSize == 0) {
+                cursor.seek(blockOffsets[(int) (next / blockSize)]);
+                previousArrival = 0;
+            }
+            try {
+                int flags = cursor.readByte();
+                int id = cursor.readVarint();
+                int priority = unzigzag(cursor.readVarint());
+                int arrivalTime = previousArrival + unzigzag(cursor.readVarint());
+                String name;
+                if ((flags & NAMED) != 0) {
+                    byte[] bytes = new byte[cursor.readVarint()];
+                    for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) cursor.readByte();
+                    name = new String(bytes, StandardCharsets.UTF_8);
+                } else {
+                    name = "P" + id;
+                }
+                int[] bursts = new int[cursor.readVarint()];
+                for (int b = 0; b < bursts.length; b++) bursts[b] = cursor.readVarint();
+                previousArrival = arrivalTime;
+                next++;
+                return new ProcessSpec(name, priority, arrivalTime,
+                        (flags & FIRST_IO) != 0 ? Process.BurstType.IO : Process.BurstType.CPU, bursts);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(path + ": corrupt record " + next, e);
+            }
+        }
+    }
+
+    /**
+     * Reads the mapped segments as one stream of bytes.
+     */
+    private static final class Cursor {
+        private final MappedByteBuffer[] segments;
+        private int segment;
+        private ByteBuffer buffer;
+
+        Cursor(MappedByteBuffer[] segments, long offset) {
+            this.segments = segments;
+            seek(offset);
+        }
+
+        void seek(long offset) {
+            segment = (int) (offset / SEGMENT_SIZE);
+            // duplicates, so each cursor has its own position
+            buffer = segments[segment].duplicate();
+            buffer.position((int) (offset % SEGMENT_SIZE));
+        }
+
+        int readByte() {
+            if (!buffer.hasRemaining()) {
+                if (++segment == segments.length) throw new IllegalStateException("Read past the end of the trace");
+                buffer = segments[segment].duplicate();
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if (b < 0x80) return value;
+            }
+            throw new IllegalStateException("Varint longer than 5 bytes");
+        }
+
+        int readInt() {
+            return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+        }
+
+        long readLong() {
+            return (long) readInt() << 32 | (readInt() & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Buffered writes to a file channel, keeping track of the position.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.BIG_ENDIAN);
+        private long flushed;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void position(long position) throws IOException {
+            flush();
+            flushed = position;
+            channel.position(position);
+        }
+
+        void writeByte(int b) throws IOException {
+            if (!buffer.hasRemaining()) flush();
+            buffer.put((byte) b);
+        }
+
+        void writeVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeInt(int value) throws IOException {
+            if (buffer.remaining() < 4) flush();
+            buffer.putInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            if (buffer.remaining() < 8) flush();
+            buffer.putLong(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) flushed += channel.write(buffer);
+            buffer.clear();
+        }
+    }
+}
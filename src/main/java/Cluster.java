@@ -0,0 +1,344 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Simulation of a cluster of machines (nodes), each running one of the local schedulers, e.g. FCFS or MLFQ, with a
+ * global dispatcher placing processes on nodes as they arrive.
+ *
+ * All nodes run in step on one clock.  When the clock reaches a process' arrival time the DispatchPolicy picks its
+ * node, and the process joins that node's ready queue.  Optionally, waiting processes migrate from the node with the
+ * longest queue to the one with the shortest (see setMigration()); a migrating process is on no node for the cost of
+ * the migration, which counts as waiting time.
+ *
+ * Usage:
+ * <pre>
+ *     Cluster cluster = new Cluster(4, () -&gt; new RR(4, new ArrayList&lt;&gt;()));
+ *     cluster.setDispatchPolicy(DispatchPolicy.powerOfTwo(42));
+ *     for (Process proc : workload.instantiate()) cluster.addProcess(proc);
+ *     cluster.process();
+ *     System.out.print(cluster.toTable());
+ * </pre>
+ *
+ * @author agent
+ */
+public class Cluster {
+    // the nodes, each simulating one machine
+    private final List<SchedulerEngine> nodes;
+    // picks the node of each arriving process
+    private DispatchPolicy dispatcher = DispatchPolicy.roundRobin();
+    // processes added, and how many of them have arrived
+    private final List<Process> arrivals = new ArrayList<>();
+    private int arrived;
+    // smallest difference in queue length that makes a process migrate, 0 for no migration
+    private int migrationThreshold;
+    // ticks a migration takes
+    private int migrationCost;
+    // ticks between checks for migrations
+    private int rebalanceInterval = 1;
+    // processes migrating, in the order they arrive at their new node
+    private final ArrayDeque<Migration> inTransit = new ArrayDeque<>();
+    // number of processes migrating to each node
+    private final int[] inbound;
+    private int migrations;
+    // the cluster's clock
+    private int timer;
+
+    /**
+     * A process on its way to another node.
+     */
+    private static class Migration {
+        private final Process proc;
+        private final int target;
+        private final int arrivalTime;
+
+        Migration(Process proc, int target, int arrivalTime) {
+            this.proc = proc;
+            this.target = target;
+            this.arrivalTime = arrivalTime;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param nodeCount - number of nodes, at least 1.
+     * @param nodeFactory - creates the scheduler of each node, with no processes; set its CPU count to simulate
+     *                    multi-core nodes.
+     */
+    public Cluster(int nodeCount, Supplier<SchedulerEngine> nodeFactory) {
+        if (nodeCount < 1) throw new IllegalArgumentException("Need at least one node: " + nodeCount);
+        nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) nodes.add(nodeFactory.get());
+        inbound = new int[nodeCount];
+    }
+
+    /**
+     * Add a process, to arrive at its arrival time.
+     * @param proc - Process.
+     */
+    public void addProcess(Process proc) {
+        arrivals.add(proc);
+    }
+
+    /**
+     * Set the policy choosing the node of each arriving process.  Defaults to DispatchPolicy.roundRobin().
+     * @param dispatcher - DispatchPolicy.
+     */
+    public void setDispatchPolicy(DispatchPolicy dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Let waiting processes migrate.  Whenever the longest queue is at least threshold longer than the shortest, a
+     * waiting process moves from the node with the longest queue to the one with the shortest, and is on neither for
+     * cost ticks.
+     * @param threshold - smallest difference in queue length worth a migration, 0 for no migration; below 2 acts as
+     *                  2, since moving a process between queues 1 apart only swaps which one is longer.
+     * @param cost - ticks a migration takes, at least 0.
+     */
+    public void setMigration(int threshold, int cost) {
+        if (threshold < 0) throw new IllegalArgumentException("Negative migration threshold: " + threshold);
+        if (cost < 0) throw new IllegalArgumentException("Negative migration cost: " + cost);
+        migrationThreshold = threshold;
+        migrationCost = cost;
+    }
+
+    /**
+     * Set how often the queues are compared for migrations.  Checking less often than every tick lets the nodes
+     * skip over quiet ticks, at the price of reacting later.
+     * @param ticks - int, at least 1.
+     */
+    public void setRebalanceInterval(int ticks) {
+        if (ticks < 1) throw new IllegalArgumentException("Interval must be at least 1: " + ticks);
+        rebalanceInterval = ticks;
+    }
+
+    /**
+     * Get the number of nodes.
+     * @return - int.
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Get the scheduler of a node.
+     * @param node - index of the node.
+     * @return - SchedulerEngine.
+     */
+    public SchedulerEngine getNode(int node) {
+        return nodes.get(node);
+    }
+
+    /**
+     * Get the number of unfinished processes on a node or migrating to it, whether running, ready or doing IO.
+     * @param node - index of the node.
+     * @return - int.
+     */
+    public int getLoad(int node) {
+        return nodes.get(node).getUnfinishedProcessCount() + inbound[node];
+    }
+
+    /**
+     * Get the number of processes waiting for a CPU on a node or migrating to it.
+     * @param node - index of the node.
+     * @return - int.
+     */
+    public int getQueueLength(int node) {
+        return nodes.get(node).getReadyCount() + inbound[node];
+    }
+
+    /**
+     * Runs the cluster until every process has arrived and finished.
+     * @return - the finished processes, in the order of completion.
+     */
+    public List<Process> process() {
+        // stable, so processes arriving together are dispatched in the order they were added
+        arrivals.subList(arrived, arrivals.size()).sort(Comparator.comparingInt(Process::getArrivalTime));
+        while (true) {
+            while (!inTransit.isEmpty() && inTransit.peek().arrivalTime <= timer) deliver(inTransit.poll());
+            while (arrived < arrivals.size() && arrivals.get(arrived).getArrivalTime() <= timer) {
+                dispatch(arrivals.get(arrived++));
+            }
+            if (migrationThreshold > 0) rebalance();
+
+            int stop = Integer.MAX_VALUE;
+            if (arrived < arrivals.size()) stop = arrivals.get(arrived).getArrivalTime();
+            if (!inTransit.isEmpty()) stop = Math.min(stop, inTransit.peek().arrivalTime);
+            boolean busy = false;
+            for (SchedulerEngine node : nodes) {
+                if (node.getUnfinishedProcessCount() > 0) busy = true;
+            }
+            if (migrationThreshold > 0 && busy) stop = Math.min(stop, timer + rebalanceInterval);
+            if (stop == Integer.MAX_VALUE) {
+                // nothing more arrives, so each node just finishes its own processes
+                for (SchedulerEngine node : nodes) {
+                    node.process();
+                    timer = Math.max(timer, node.getTotalElapsedTime());
+                }
+                break;
+            }
+            for (SchedulerEngine node : nodes) node.runUntil(stop);
+            timer = stop;
+        }
+        List<Process> finished = new ArrayList<>();
+        for (SchedulerEngine node : nodes) finished.addAll(node.getFinishedProcesses());
+        finished.sort(Comparator.comparingInt(proc -> proc.getArrivalTime() + proc.getTurnaroundTime()));
+        return finished;
+    }
+
+    /**
+     * Put an arriving process on the node the dispatcher picks.
+     * @param proc - Process.
+     */
+    private void dispatch(Process proc) {
+        int node = dispatcher.dispatch(proc, this);
+        if (node < 0 || node >= nodes.size()) {
+            throw new IndexOutOfBoundsException("Dispatched to node " + node + " of " + nodes.size());
+        }
+        nodes.get(node).addProcess(proc);
+    }
+
+    /**
+     * Migrate waiting processes from the longest queue to the shortest until they are within the threshold.
+     */
+    private void rebalance() {
+        while (true) {
+            int longest = 0, shortest = 0;
+            for (int node = 1; node < nodes.size(); node++) {
+                if (getQueueLength(node) > getQueueLength(longest)) longest = node;
+                if (getQueueLength(node) < getQueueLength(shortest)) shortest = node;
+            }
+            if (getQueueLength(longest) - getQueueLength(shortest) < Math.max(migrationThreshold, 2)) return;
+            Process proc = nodes.get(longest).removeWaitingProcess();
+            if (proc == null) return;
+            migrations++;
+            // the time in transit is time spent waiting
+            if (migrationCost > 0) proc.wait(migrationCost);
+            Migration migration = new Migration(proc, shortest, timer + migrationCost);
+            if (migrationCost == 0) {
+                deliver(migration);
+            } else {
+                inbound[shortest]++;
+                inTransit.add(migration);
+            }
+        }
+    }
+
+    private void deliver(Migration migration) {
+        if (migrationCost > 0) inbound[migration.target]--;
+        nodes.get(migration.target).addProcess(migration.proc);
+    }
+
+    /**
+     * Get the time the last process finished.
+     * @return - int.
+     */
+    public int getTotalElapsedTime() {
+        return timer;
+    }
+
+    /**
+     * Get the number of migrations.
+     * @return - int.
+     */
+    public int getMigrations() {
+        return migrations;
+    }
+
+    /**
+     * Get the fraction of a node's CPU time that was not idle, from 0 to 1, over the whole run of the cluster.
+     * @param node - index of the node.
+     * @return - double.
+     */
+    public double getUtilization(int node) {
+        SchedulerEngine engine = nodes.get(node);
+        long cpuTicks = (long) timer * engine.getCPUCount();
+        return cpuTicks == 0 ? 0 : 1.0 * getBusyTime(engine) / cpuTicks;
+    }
+
+    /**
+     * Get the fraction of the CPU time of all nodes that was not idle, from 0 to 1.
+     * @return - double.
+     */
+    public double getUtilization() {
+        long busy = 0, cpuTicks = 0;
+        for (SchedulerEngine engine : nodes) {
+            busy += getBusyTime(engine);
+            cpuTicks += (long) timer * engine.getCPUCount();
+        }
+        return cpuTicks == 0 ? 0 : 1.0 * busy / cpuTicks;
+    }
+
+    // nodes that finish early stop their clocks, so count busy rather than idle time
+    private static long getBusyTime(SchedulerEngine engine) {
+        return (long) engine.getTotalElapsedTime() * engine.getCPUCount() - engine.getTotalIdleCPUTime();
+    }
+
+    /**
+     * Get a percentile of the waiting time of the processes that finished on a node, e.g. 99 for the tail.
+     * @param node - index of the node.
+     * @param percentile - between 0 (exclusive) and 100.
+     * @return - int, 0 if no process finished there.
+     */
+    public int getWaitingTimePercentile(int node, double percentile) {
+        return percentile(nodes.get(node).getFinishedProcesses(), percentile);
+    }
+
+    /**
+     * Get a percentile of the waiting time of all finished processes, e.g. 99 for the tail.
+     * @param percentile - between 0 (exclusive) and 100.
+     * @return - int, 0 if no process finished.
+     */
+    public int getWaitingTimePercentile(double percentile) {
+        List<Process> finished = new ArrayList<>();
+        for (SchedulerEngine node : nodes) finished.addAll(node.getFinishedProcesses());
+        return percentile(finished, percentile);
+    }
+
+    /**
+     * Nearest-rank percentile of the waiting times of processes.
+     */
+    private static int percentile(List<Process> processes, double percentile) {
+        if (percentile <= 0 || percentile > 100) throw new IllegalArgumentException("Not a percentile: " + percentile);
+        if (processes.isEmpty()) return 0;
+        int[] waits = new int[processes.size()];
+        for (int i = 0; i < waits.length; i++) waits[i] = processes.get(i).getWaitingTime();
+        Arrays.sort(waits);
+        return waits[(int) Math.ceil(percentile / 100 * waits.length) - 1];
+    }
+
+    private static double averageWait(List<Process> processes) {
+        long total = 0;
+        for (Process proc : processes) total += proc.getWaitingTime();
+        return processes.isEmpty() ? 0 : 1.0 * total / processes.size();
+    }
+
+    /**
+     * Format utilization and waiting times per node and for the whole cluster as a table.
+     * @return - String.
+     */
+    public String toTable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-8s%6s%10s%10s%10s%10s%10s%10s%n", "Node", "CPUs", "Finished", "CPU Util",
+                "Tw (avg)", "Tw (p95)", "Tw (p99)", "Tw (max)"));
+        List<Process> all = new ArrayList<>();
+        int cpus = 0;
+        for (int node = 0; node < nodes.size(); node++) {
+            List<Process> finished = nodes.get(node).getFinishedProcesses();
+            all.addAll(finished);
+            cpus += nodes.get(node).getCPUCount();
+            sb.append(String.format("%-8d%6d%10d%9.2f%%%10.2f%10d%10d%10d%n", node, nodes.get(node).getCPUCount(),
+                    finished.size(), getUtilization(node) * 100, averageWait(finished), percentile(finished, 95),
+                    percentile(finished, 99), percentile(finished, 100)));
+        }
+        sb.append(String.format("%-8s%6d%10d%9.2f%%%10.2f%10d%10d%10d%n", "Cluster", cpus, all.size(),
+                getUtilization() * 100, averageWait(all), percentile(all, 95), percentile(all, 99),
+                percentile(all, 100)));
+        sb.append("Total Time: " + timer + " Migrations: " + migrations + "\n");
+        return sb.toString();
+    }
+}
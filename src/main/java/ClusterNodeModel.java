@@ -0,0 +1,248 @@
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Cluster of single-CPU nodes for the TimeWarpSimulator, one LP per node.  Each node runs its processes first come
+ * first served and does their IO on its own.  A process arriving at a node whose ready queue is at the migration
+ * threshold is passed on to the next node, arriving there migrationCost ticks later; these migrations are the only
+ * events between nodes, and the ones that arrive in a node's past make it roll back.
+ *
+ * Usage:
+ * <pre>
+ *     ClusterNodeModel model = new ClusterNodeModel(workload, 16, 4, 2);
+ *     List&lt;ClusterNodeModel.Node&gt; nodes = model.createSimulator().run(4);
+ * </pre>
+ *
+ * @author agent
+ */
+public class ClusterNodeModel implements TimeWarpSimulator.Model<ClusterNodeModel.Node> {
+    private final WorkloadSpec workload;
+    private final int nodeCount;
+    private final int migrationThreshold;
+    private final int migrationCost;
+
+    /**
+     * A process on its way through the cluster.  Immutable, so saved node states can share it.
+     */
+    private static final class Job {
+        private final ProcessSpec spec;
+        // index of the burst it is on
+        private final int burst;
+        // when it last became ready, for the waiting time
+        private final long readyTime;
+        private final long waitingTime;
+
+        Job(ProcessSpec spec, int burst, long readyTime, long waitingTime) {
+            this.spec = spec;
+            this.burst = burst;
+            this.readyTime = readyTime;
+            this.waitingTime = waitingTime;
+        }
+
+        boolean isDone() {
+            return burst == spec.getBurstCount();
+        }
+
+        // bursts of 0 still take a tick, so every event happens after the one that caused it
+        long currentBurst() {
+            return Math.max(1, spec.getBurst(burst));
+        }
+    }
+
+    /**
+     * Event payloads.
+     */
+    private static final class Arrival {
+        private final Job job;
+        private final boolean migrated;
+
+        Arrival(Job job, boolean migrated) {
+            this.job = job;
+            this.migrated = migrated;
+        }
+    }
+
+    private static final class IODone {
+        private final Job job;
+
+        IODone(Job job) {
+            this.job = job;
+        }
+    }
+
+    private static final Object CPU_DONE = new Object();
+
+    /**
+     * State of one node.
+     */
+    public static final class Node {
+        private final ArrayDeque<Job> ready;
+        private Job running;
+        private long runningSince;
+        private int finished;
+        private int migratedOut;
+        private long totalWaitingTime;
+        private long totalTurnaroundTime;
+        private long busyTime;
+        private long lastFinishTime;
+
+        Node() {
+            ready = new ArrayDeque<>();
+        }
+
+        Node(Node other) {
+            ready = new ArrayDeque<>(other.ready);
+            running = other.running;
+            runningSince = other.runningSince;
+            finished = other.finished;
+            migratedOut = other.migratedOut;
+            totalWaitingTime = other.totalWaitingTime;
+            totalTurnaroundTime = other.totalTurnaroundTime;
+            busyTime = other.busyTime;
+            lastFinishTime = other.lastFinishTime;
+        }
+
+        public int getFinished() {
+            return finished;
+        }
+
+        /**
+         * Get the number of processes this node passed on to the next node.
+         * @return - int.
+         */
+        public int getMigratedOut() {
+            return migratedOut;
+        }
+
+        public long getTotalWaitingTime() {
+            return totalWaitingTime;
+        }
+
+        public long getTotalTurnaroundTime() {
+            return totalTurnaroundTime;
+        }
+
+        /**
+         * Get the number of ticks the node's CPU was running a process.
+         * @return - long.
+         */
+        public long getBusyTime() {
+            return busyTime;
+        }
+
+        public long getLastFinishTime() {
+            return lastFinishTime;
+        }
+
+        @Override
+        public String toString() {
+            return "finished=" + finished + " migrated=" + migratedOut + " wait=" + totalWaitingTime + " turnaround="
+                    + totalTurnaroundTime + " busy=" + busyTime + " last=" + lastFinishTime;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param workload - processes; process i arrives at node i % nodeCount.
+     * @param nodeCount - number of nodes.
+     * @param migrationThreshold - ready queue length at which arriving processes move to the next node.
+     * @param migrationCost - ticks a migration takes, at least 1.
+     */
+    public ClusterNodeModel(WorkloadSpec workload, int nodeCount, int migrationThreshold, int migrationCost) {
+        if (nodeCount < 1) throw new IllegalArgumentException("Need at least one node: " + nodeCount);
+        if (migrationCost < 1) throw new IllegalArgumentException("Migration cost must be at least 1: " + migrationCost);
+        this.workload = workload;
+        this.nodeCount = nodeCount;
+        this.migrationThreshold = migrationThreshold;
+        this.migrationCost = migrationCost;
+    }
+
+    /**
+     * Create a simulator of this model with the arrival of every process scheduled.
+     * @return - TimeWarpSimulator.
+     */
+    public TimeWarpSimulator<Node> createSimulator() {
+        TimeWarpSimulator<Node> simulator = new TimeWarpSimulator<>(this, nodeCount);
+        List<ProcessSpec> processes = workload.getProcesses();
+        for (int i = 0; i < processes.size(); i++) {
+            ProcessSpec spec = processes.get(i);
+            simulator.schedule(i % nodeCount, spec.getArrivalTime(), new Arrival(new Job(spec, 0, 0, 0), false));
+        }
+        return simulator;
+    }
+
+    @Override
+    public Node initialState(int lp) {
+        return new Node();
+    }
+
+    @Override
+    public Node copy(Node state) {
+        return new Node(state);
+    }
+
+    @Override
+    public void handle(int lp, Node node, long time, Object payload, TimeWarpSimulator.Sender sender) {
+        if (payload == CPU_DONE) {
+            Job job = node.running;
+            node.running = null;
+            node.busyTime += time - node.runningSince;
+            advance(lp, node, new Job(job.spec, job.burst + 1, time, job.waitingTime), time, sender);
+        } else if (payload instanceof IODone) {
+            Job job = ((IODone) payload).job;
+            advance(lp, node, new Job(job.spec, job.burst + 1, time, job.waitingTime), time, sender);
+        } else {
+            Arrival arrival = (Arrival) payload;
+            Job job = new Job(arrival.job.spec, arrival.job.burst, time, arrival.job.waitingTime);
+            if (!arrival.migrated && nodeCount > 1 && node.ready.size() >= migrationThreshold) {
+                node.migratedOut++;
+                sender.send((lp + 1) % nodeCount, time + migrationCost, new Arrival(job, true));
+            } else {
+                advance(lp, node, job, time, sender);
+            }
+        }
+        if (node.running == null && !node.ready.isEmpty()) {
+            Job next = node.ready.poll();
+            node.running = new Job(next.spec, next.burst, next.readyTime, next.waitingTime + time - next.readyTime);
+            node.runningSince = time;
+            sender.send(lp, time + next.currentBurst(), CPU_DONE);
+        }
+    }
+
+    /**
+     * Move a job on to its current burst: finish it, queue it for the CPU or start its IO.
+     */
+    private static void advance(int lp, Node node, Job job, long time, TimeWarpSimulator.Sender sender) {
+        if (job.isDone()) {
+            node.finished++;
+            node.totalWaitingTime += job.waitingTime;
+            node.totalTurnaroundTime += time - job.spec.getArrivalTime();
+            node.lastFinishTime = Math.max(node.lastFinishTime, time);
+        } else if (job.spec.getBurstType(job.burst) == Process.BurstType.CPU) {
+            node.ready.add(job);
+        } else {
+            sender.send(lp, time + job.currentBurst(), new IODone(job));
+        }
+    }
+
+    /**
+     * Format the totals over all nodes.
+     * @param nodes - final node states.
+     * @return - String.
+     */
+    public static String summarize(List<Node> nodes) {
+        long finished = 0, migrated = 0, wait = 0, turnaround = 0, busy = 0, last = 0;
+        for (Node node : nodes) {
+            finished += node.finished;
+            migrated += node.migratedOut;
+            wait += node.totalWaitingTime;
+            turnaround += node.totalTurnaroundTime;
+            busy += node.busyTime;
+            last = Math.max(last, node.lastFinishTime);
+        }
+        long size = Math.max(finished, 1);
+        return String.format("finished=%d migrated=%d Tw (avg)=%.2f TTr (avg)=%.2f utilization=%.2f%% makespan=%d",
+                finished, migrated, 1.0 * wait / size, 1.0 * turnaround / size,
+                last == 0 ? 0 : 100.0 * busy / (last * nodes.size()), last);
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.SplittableRandom;
+
+/**
+ * Decides which node of a Cluster an arriving process goes to.  The cluster asks once per process, when simulated time
+ * reaches its arrival time; the process then stays on that node unless the cluster migrates it.
+ *
+ * @author agent
+ */
+public interface DispatchPolicy {
+    /**
+     * Choose the node for an arriving process.
+     * @param proc - Process, not yet on any node.
+     * @param cluster - the cluster, for the load of each node.
+     * @return - index of the node.
+     */
+    public int dispatch(Process proc, Cluster cluster);
+
+    /**
+     * Every node in turn, whatever their load.
+     * @return - DispatchPolicy.
+     */
+    public static DispatchPolicy roundRobin() {
+        return new DispatchPolicy() {
+            private int next;
+
+            @Override
+            public int dispatch(Process proc, Cluster cluster) {
+                int node = next;
+                next = (next + 1) % cluster.getNodeCount();
+                return node;
+            }
+        };
+    }
+
+    /**
+     * The node with the fewest unfinished processes per CPU (see Cluster.getLoad()), the first one on a tie.
+     */
+    public static final DispatchPolicy LEAST_LOADED = (proc, cluster) -> {
+        int best = 0;
+        for (int node = 1; node < cluster.getNodeCount(); node++) {
+            if (isLessLoaded(cluster, node, best)) best = node;
+        }
+        return best;
+    };
+
+    /**
+     * The node with the fewest processes waiting for a CPU (see Cluster.getQueueLength()), the less loaded one on a
+     * tie, then the first one.
+     */
+    public static final DispatchPolicy JOIN_SHORTEST_QUEUE = (proc, cluster) -> {
+        int best = 0;
+        for (int node = 1; node < cluster.getNodeCount(); node++) {
+            int queue = cluster.getQueueLength(node);
+            int bestQueue = cluster.getQueueLength(best);
+            if (queue < bestQueue || (queue == bestQueue && isLessLoaded(cluster, node, best))) best = node;
+        }
+        return best;
+    };
+
+    /**
+     * Power of two choices: the less loaded of two different nodes picked at random, the first picked on a tie.
+     * Nearly as good as LEAST_LOADED while only looking at two nodes, which is what a real dispatcher can afford.
+     * @param seed - seed of the random choices, so runs can be repeated.
+     * @return - DispatchPolicy.
+     */
+    public static DispatchPolicy powerOfTwo(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return (proc, cluster) -> {
+            int nodes = cluster.getNodeCount();
+            if (nodes == 1) return 0;
+            int first = random.nextInt(nodes);
+            int second = random.nextInt(nodes - 1);
+            if (second >= first) second++;
+            return isLessLoaded(cluster, second, first) ? second : first;
+        };
+    }
+
+    /**
+     * Return true if a node has fewer unfinished processes per CPU than another.
+     * @param cluster - Cluster.
+     * @param node - index of the node.
+     * @param other - index of the other node.
+     * @return - boolean.
+     */
+    private static boolean isLessLoaded(Cluster cluster, int node, int other) {
+        // compare load / CPUs without dividing
+        return (long) cluster.getLoad(node) * cluster.getNode(other).getCPUCount()
+                < (long) cluster.getLoad(other) * cluster.getNode(node).getCPUCount();
+    }
+}
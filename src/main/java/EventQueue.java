@@ -0,0 +1,94 @@
+import java.util.Arrays;
+
+/**
+ * Time-ordered queue of upcoming simulation events: burst completions, quantum expiries and arrivals.  IO returns
+ * are tracked by an IOTimingWheel and can be folded in with quietTicks(int, IOTimingWheel).
+ * Schedulers record the absolute time of an event as soon as it is known, then jump straight to the next event
+ * instead of ticking every process through each unit of time in between.
+ *
+ * Only event times are kept.  An event that no longer applies (e.g. the completion of a burst that was preempted)
+ * just makes the scheduler stop early and run an ordinary tick, so stale entries are harmless.
+ *
+ * @author agent
+ */
+public class EventQueue {
+    // binary min-heap of event times
+    private int[] times;
+    private int size;
+
+    public EventQueue() {
+        times = new int[16];
+        size = 0;
+    }
+
+    /**
+     * Record an event at the given absolute time.
+     * @param time - clock time at the end of the tick in which the event happens.
+     */
+    public void schedule(int time) {
+        if (size == times.length) times = Arrays.copyOf(times, size * 2);
+        int i = size++;
+        // sift up
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (times[parent] <= time) break;
+            times[i] = times[parent];
+            i = parent;
+        }
+        times[i] = time;
+    }
+
+    /**
+     * Get the time of the next event after the current time, discarding any events that are already in the past.
+     * @param now - current clock time.
+     * @return - int, or Integer.MAX_VALUE if no events are scheduled.
+     */
+    public int nextEventTime(int now) {
+        while (size > 0 && times[0] <= now) removeFirst();
+        return size == 0 ? Integer.MAX_VALUE : times[0];
+    }
+
+    /**
+     * Get the number of ticks that can be run in bulk before the tick containing the next event.
+     * @param now - current clock time.
+     * @return - int.
+     */
+    public int quietTicks(int now) {
+        int next = nextEventTime(now);
+        return next == Integer.MAX_VALUE ? 0 : next - now - 1;
+    }
+
+    /**
+     * Get the number of ticks that can be run in bulk before the tick containing the next event or IO return.
+     * @param now - current clock time.
+     * @param io - processes doing IO.
+     * @return - int.
+     */
+    public int quietTicks(int now, IOTimingWheel io) {
+        int next = Math.min(nextEventTime(now), io.nextReturnTime());
+        return next == Integer.MAX_VALUE ? 0 : next - now - 1;
+    }
+
+    /**
+     * Return true if no events are scheduled.
+     * @return - boolean.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void removeFirst() {
+        int last = times[--size];
+        int i = 0;
+        // sift down
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && times[child + 1] < times[child]) child++;
+            if (last <= times[child]) break;
+            times[i] = times[child];
+            i = child;
+        }
+        times[i] = last;
+    }
+}
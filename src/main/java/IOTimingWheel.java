@@ -0,0 +1,205 @@
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of processes doing IO, keyed by the absolute time each one returns from IO.
+ *
+ * This is a hierarchical timing wheel: level 0 has one slot per tick for the current block of 64 ticks, and each
+ * level above it has one slot per block of the level below.  A process is filed at the lowest level whose slot range
+ * separates its return time from the current time, and moves down a level when the wheel's time reaches its slot.
+ * Adding and removing a process are constant time (a process moves down at most LEVELS times in total), and
+ * occupancy masks per level make finding the next return time a couple of bit scans.
+ *
+ * Slots are ProcessQueues, so a process in the wheel is not in any other queue, and adding it to another queue takes
+ * it out of the wheel.
+ *
+ * @author agent
+ */
+public class IOTimingWheel extends AbstractCollection<Process> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    // enough levels to cover every non-negative int
+    private static final int LEVELS = (31 + BITS - 1) / BITS;
+
+    private final Slot[][] slots = new Slot[LEVELS][SLOTS];
+    // bit i of occupied[level] is set when slots[level][i] is non-empty
+    private final long[] occupied = new long[LEVELS];
+    private int size = 0;
+    // current time of the wheel, no process in it returns before this
+    private int now = 0;
+
+    /**
+     * A slot in the wheel.  Keeps the wheel's size and occupancy masks up to date however a process leaves it.
+     */
+    private class Slot extends ProcessQueue {
+        private final int level;
+        private final int index;
+
+        Slot(int level, int index) {
+            this.level = level;
+            this.index = index;
+        }
+
+        @Override
+        void unlink(Process proc) {
+            super.unlink(proc);
+            size--;
+            if (isEmpty()) occupied[level] &= ~(1L << index);
+        }
+    }
+
+    public IOTimingWheel() {
+        for (int level = 0; level < LEVELS; level++) {
+            for (int index = 0; index < SLOTS; index++) {
+                slots[level][index] = new Slot(level, index);
+            }
+        }
+    }
+
+    /**
+     * Add a process that returns from IO at the given time, taking it out of any queue it was in.
+     * @param proc - Process.
+     * @param returnTime - clock time at the end of the tick in which its IO burst completes.
+     */
+    public void add(Process proc, int returnTime) {
+        if (returnTime < now) {
+            throw new IllegalArgumentException("IO return time " + returnTime + " is before the current time " + now);
+        }
+        proc.ioReturnTime = returnTime;
+        file(proc);
+    }
+
+    /**
+     * Move the wheel forward to the given time, moving processes down to the level for their new distance from it.
+     * The time can't move past the next return time, processes have to be taken out of the wheel as they return.
+     * @param time - new current time.
+     */
+    public void advanceTo(int time) {
+        if (time <= now) return;
+        if (time > nextReturnTime()) {
+            throw new IllegalStateException("Advancing to " + time + " would skip an IO return at " + nextReturnTime());
+        }
+        now = time;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            Slot slot = slots[level][slotIndex(now, level)];
+            Process proc;
+            while ((proc = slot.poll()) != null) {
+                file(proc);
+            }
+        }
+    }
+
+    /**
+     * Get the earliest time at which a process in the wheel returns from IO.
+     * @return - int, or Integer.MAX_VALUE if the wheel is empty.
+     */
+    public int nextReturnTime() {
+        if (size == 0) return Integer.MAX_VALUE;
+        long level0 = occupied[0] & (-1L << (now & (SLOTS - 1)));
+        if (level0 != 0) {
+            return (now & ~(SLOTS - 1)) | Long.numberOfTrailingZeros(level0);
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            int current = slotIndex(now, level);
+            long later = current == SLOTS - 1 ? 0 : occupied[level] & (-1L << (current + 1));
+            if (later != 0) {
+                // processes in a slot above level 0 are spread over a range of times, so find the earliest
+                int earliest = Integer.MAX_VALUE;
+                Slot slot = slots[level][Long.numberOfTrailingZeros(later)];
+                for (Process proc = slot.peek(); proc != null; proc = proc.queueNext) {
+                    earliest = Math.min(earliest, proc.ioReturnTime);
+                }
+                return earliest;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the time a process in the wheel returns from IO.
+     * @param proc - Process.
+     * @return - int.
+     */
+    public int getReturnTime(Process proc) {
+        return proc.ioReturnTime;
+    }
+
+    /**
+     * Constant time membership check.
+     * @param o - object to look for.
+     * @return - boolean.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Process && ((Process) o).queue instanceof Slot && owns((Slot) ((Process) o).queue);
+    }
+
+    /**
+     * Constant time removal.
+     * @param o - object to remove.
+     * @return - true if the object was in the wheel.
+     */
+    @Override
+    public boolean remove(Object o) {
+        return contains(o) && ((Process) o).queue.remove(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterate over the processes slot by slot, which is in order of return time except within slots above level 0.
+     * @return - Iterator.
+     */
+    @Override
+    public Iterator<Process> iterator() {
+        return new Iterator<Process>() {
+            private int level = 0;
+            private int index = now & (SLOTS - 1);
+            private Iterator<Process> slotIterator = slots[0][index].iterator();
+
+            public boolean hasNext() {
+                if (level == LEVELS) return false;
+                while (!slotIterator.hasNext()) {
+                    index++;
+                    // the slots above level 0 start after the one the current time is in
+                    while (index == SLOTS) {
+                        if (++level == LEVELS) return false;
+                        index = slotIndex(now, level) + 1;
+                    }
+                    slotIterator = slots[level][index].iterator();
+                }
+                return true;
+            }
+
+            public Process next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return slotIterator.next();
+            }
+        };
+    }
+
+    private boolean owns(Slot slot) {
+        return slots[slot.level][slot.index] == slot;
+    }
+
+    private void file(Process proc) {
+        int time = proc.ioReturnTime;
+        int distance = time ^ now;
+        int level = distance < SLOTS ? 0 : (31 - Integer.numberOfLeadingZeros(distance)) / BITS;
+        int index = slotIndex(time, level);
+        slots[level][index].add(proc);
+        occupied[level] |= 1L << index;
+        size++;
+    }
+
+    private static int slotIndex(int time, int level) {
+        return (time >>> (BITS * level)) & (SLOTS - 1);
+    }
+}
@@ -1,57 +1,73 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Prints algorithm results to the console.
  * Each algorithm's display mode defaults to false.
  * To show individual algorithm results use method: setDisplayMode(true)
+ * Run with the name of a demo as the first argument, e.g. "java Main sweep", to run that demo or benchmark instead.
  */
 public class Main {
+    // names of the demos and benchmarks, see runDemo()
+    private static final List<String> DEMOS = List.of("big-little", "sweep", "monte-carlo", "pipeline", "batch",
+            "cluster", "time-warp", "workload", "admission", "binary-trace", "import");
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            runDemo(args[0], Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         // display mode set to true but defaults to false
         // can toggle these settings to decide what you want to display
         // this is also why it is not in a loop
-        TestUtil util = new TestUtil();
-        RR roundRobin = new RR(Arrays.stream(util.getDefaultTestData()).toList());
+        // every algorithm runs its own fresh instance of the same workload
+        WorkloadSpec workload = new TestUtil().getDefaultWorkload();
+        RR roundRobin = new RR(workload.instantiate());
         // toggle display mode
         roundRobin.setDisplayMode(false);
         if (roundRobin.getDisplayMode()) {
             displayResults(roundRobin);
         }
 
-        SJF shortyJobFirst = new SJF(util.getDefaultTestData());
+        SJF shortyJobFirst = new SJF(workload.instantiateArray());
         // toggle display mode
         shortyJobFirst.setDisplayMode(false);
         if (shortyJobFirst.getDisplayMode()) {
             displayResults(shortyJobFirst);
         }
 
-        FCFS firstComeFirstServed = new FCFS(Arrays.stream(util.getDefaultTestData()).toList());
+        FCFS firstComeFirstServed = new FCFS(workload.instantiate());
         // toggle display mode
         firstComeFirstServed.setDisplayMode(false);
         if (firstComeFirstServed.getDisplayMode()) {
             displayResults(firstComeFirstServed);
         }
 
-        Priority priority = new Priority(Arrays.stream(util.getDefaultTestData()).toList());
+        Priority priority = new Priority(workload.instantiate());
         // toggle display mode
         priority.setDisplayMode(false);
         if (priority.getDisplayMode()) {
             displayResults(priority);
         }
 
-        MLQ mlq = new MLQ(Arrays.stream(util.getDefaultTestData(),0,4)
-                .toList(), Arrays.stream(util.getDefaultTestData(),4,8)
-                .toList(), 4);
+        List<Process> mlqProcesses = workload.instantiate();
+        MLQ mlq = new MLQ(mlqProcesses.subList(0, 4), mlqProcesses.subList(4, 8), 4);
         // toggle display mode
         mlq.setDisplayMode(true);
         if (mlq.getDisplayMode()) {
             displayResults(mlq);
         }
 
-        MLFQ mlfq = new MLFQ(Arrays.asList(util.getDefaultTestData()), 5, 10);
+        MLFQ mlfq = new MLFQ(workload.instantiate(), 5, 10);
         // toggle display mode
         mlfq.setDisplayMode(false);
         if (mlfq.getDisplayMode()) {
@@ -59,6 +75,398 @@ public class Main {
         }
     }
 
+    /**
+     * Run one of the demos and benchmarks of the simulator's features.
+     * @param name - name of the demo, see DEMOS.
+     * @param args - arguments of the demo.
+     * @throws IOException - if a demo can't read or write its files.
+     */
+    private static void runDemo(String name, String[] args) throws IOException {
+        switch (name) {
+            case "big-little": System.out.print(BigLittleReport.toTable()); break;
+            case "sweep": parameterSweep(); break;
+            case "monte-carlo": monteCarlo(); break;
+            case "pipeline": tracePipeline(args); break;
+            case "batch": batchSimulation(); break;
+            case "cluster": cluster(); break;
+            case "time-warp": timeWarp(); break;
+            case "workload": workloadGenerator(); break;
+            case "admission": admissionControl(); break;
+            case "binary-trace": binaryTrace(args); break;
+            case "import": importTrace(args); break;
+            default: System.err.println("Unknown demo " + name + ", expected one of: " + String.join(" ", DEMOS));
+        }
+    }
+
+    /**
+     * Sweep the RR quantum from 1 to 100 and the MLFQ quanta from 1 to 100 each, 10,100 runs on the default test
+     * data, and print the results with the time taken.
+     */
+    private static void parameterSweep() {
+        int[] quanta = new int[100];
+        for (int i = 0; i < quanta.length; i++) quanta[i] = i + 1;
+        ParameterSweep sweep = new ParameterSweep(new TestUtil().getDefaultWorkload())
+                .addRR(quanta)
+                .addMLFQ(quanta, quanta);
+        long start = System.nanoTime();
+        List<ParameterSweep.Result> results = sweep.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.print(ParameterSweep.toTable(results));
+        System.out.println();
+        System.out.println(results.size() + " runs in " + millis + " ms on "
+                + ForkJoinPool.commonPool().getParallelism() + " threads");
+    }
+
+    /**
+     * Compare RR and MLFQ with the other algorithms until every wait and turnaround interval is 5 ticks wide or
+     * less, and print the intervals and whether RR and MLFQ differ.
+     */
+    private static void monteCarlo() {
+        MonteCarloRunner runner = new MonteCarloRunner(42)
+                .add("FCFS", FCFS::new)
+                .add("SJF", processes -> new SJF(processes.toArray(new Process[0])))
+                .add("Priority", Priority::new)
+                .add("RR", processes -> new RR(5, processes))
+                .add("MLQ", processes -> new MLQ(processes.subList(0, 4), processes.subList(4, 8), 4))
+                .add("MLFQ", processes -> new MLFQ(processes, 5, 10))
+                .setTargetWidth(5);
+        long start = System.nanoTime();
+        runner.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.print(runner.toTable());
+        System.out.println("in " + millis + " ms");
+        System.out.println();
+        for (MonteCarloRunner.Metric metric : new MonteCarloRunner.Metric[] {MonteCarloRunner.Metric.WAIT,
+                MonteCarloRunner.Metric.TURNAROUND}) {
+            MonteCarloRunner.Statistic difference = runner.getDifference("RR", "MLFQ", metric);
+            boolean significant = Math.abs(difference.getMean()) > difference.getHalfWidth();
+            System.out.println("RR - MLFQ " + metric.getLabel() + ": " + difference
+                    + (significant ? " (significant)" : " (not significant)"));
+        }
+    }
+
+    /**
+     * Run the algorithms over the traces in a directory, or over 2,000 random traces written to a temporary directory
+     * if none is given, and print the totals and stage counters.
+     * @param args - optional directory of .trace files.
+     * @throws IOException - if the traces can't be listed or written.
+     */
+    private static void tracePipeline(String[] args) throws IOException {
+        Path directory;
+        if (args.length > 0) {
+            directory = Path.of(args[0]);
+        } else {
+            directory = Files.createTempDirectory("traces");
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < 2000; i++) {
+                Path trace = directory.resolve(String.format("w%05d.trace", i));
+                try (Writer writer = Files.newBufferedWriter(trace, StandardCharsets.UTF_8)) {
+                    MonteCarloRunner.randomWorkload(random.split()).write(writer);
+                }
+                trace.toFile().deleteOnExit();
+            }
+            directory.toFile().deleteOnExit();
+        }
+        TracePipeline pipeline = new TracePipeline(TracePipeline.listTraces(directory, ".trace"))
+                .add("FCFS", FCFS::new)
+                .add("SJF", processes -> new SJF(processes.toArray(new Process[0])))
+                .add("Priority", Priority::new)
+                .add("RR", processes -> new RR(5, processes))
+                .add("MLQ", processes -> new MLQ(processes, 5, MLQ.byPriority(4)))
+                .add("MLFQ", processes -> new MLFQ(processes, 5, 10));
+        pipeline.run();
+        System.out.print(pipeline.toTable());
+        System.out.println();
+        System.out.print(pipeline.stageTable());
+        System.out.println("in " + pipeline.getElapsedNanos() / 1_000_000 + " ms");
+    }
+
+    /**
+     * Simulate 200,000 random workloads the size of the default test data with FCFS, one at a time and in batches,
+     * and print the time each takes.
+     */
+    private static void batchSimulation() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<WorkloadSpec> workloads = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) workloads.add(MonteCarloRunner.randomWorkload(random));
+        BatchSimulator batch = new BatchSimulator(workloads);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            double scalarWait = 0;
+            for (WorkloadSpec workload : workloads) {
+                List<Process> finished = new FCFS(workload.instantiate()).process();
+                double wait = 0;
+                for (Process proc : finished) wait += proc.getWaitingTime();
+                scalarWait += wait / finished.size();
+            }
+            long scalarMillis = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            double batchWait = 0;
+            for (BatchSimulator.Result result : batch.runFCFS()) batchWait += result.getAverageWait();
+            long batchMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(String.format("FCFS, %d workloads: one at a time %d ms, batched %d ms "
+                    + "(mean Tw %.3f / %.3f)", workloads.size(), scalarMillis, batchMillis,
+                    scalarWait / workloads.size(), batchWait / workloads.size()));
+        }
+    }
+
+    /**
+     * Compare dispatchers and fleet sizes on a stream of 5,000 random processes arriving over time, and print the
+     * cluster-wide results and the per-node table of the last run.
+     */
+    private static void cluster() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<ProcessSpec> processes = new ArrayList<>();
+        int arrival = 0;
+        for (int i = 0; i < 5000; i++) {
+            arrival += random.nextInt(0, 15);
+            int[] bursts = new int[1 + 2 * random.nextInt(3)];
+            for (int b = 0; b < bursts.length; b++) bursts[b] = random.nextInt(1, b % 2 == 0 ? 30 : 60);
+            processes.add(new ProcessSpec("P" + i, random.nextInt(10), arrival, bursts));
+        }
+        WorkloadSpec workload = new WorkloadSpec(processes);
+
+        System.out.println(String.format("%-8s%-24s%10s%10s%10s%12s", "Nodes", "Dispatcher", "CPU Util", "Tw (avg)",
+                "Tw (p99)", "Migrations"));
+        Cluster cluster = null;
+        for (int nodeCount : new int[] {4, 5, 6, 8}) {
+            runCluster(workload, nodeCount, "round robin", DispatchPolicy.roundRobin(), 0);
+            runCluster(workload, nodeCount, "least loaded", DispatchPolicy.LEAST_LOADED, 0);
+            runCluster(workload, nodeCount, "power of two", DispatchPolicy.powerOfTwo(42), 0);
+            runCluster(workload, nodeCount, "join shortest queue", DispatchPolicy.JOIN_SHORTEST_QUEUE, 0);
+            cluster = runCluster(workload, nodeCount, "round robin + migration", DispatchPolicy.roundRobin(), 3);
+        }
+        System.out.println();
+        System.out.print(cluster.toTable());
+    }
+
+    /**
+     * Run the workload on a cluster of RR nodes and print one row of results.
+     */
+    private static Cluster runCluster(WorkloadSpec workload, int nodeCount, String name, DispatchPolicy dispatcher,
+                                      int migrationThreshold) {
+        Cluster cluster = new Cluster(nodeCount, () -> new RR(4, new ArrayList<>()));
+        cluster.setDispatchPolicy(dispatcher);
+        cluster.setMigration(migrationThreshold, 5);
+        for (Process proc : workload.instantiate()) cluster.addProcess(proc);
+        List<Process> finished = cluster.process();
+        System.out.println(String.format("%-8d%-24s%9.2f%%%10.2f%10d%12d", nodeCount, name,
+                cluster.getUtilization() * 100, finished.stream().mapToInt(Process::getWaitingTime).average()
+                        .orElse(0), cluster.getWaitingTimePercentile(99), cluster.getMigrations()));
+        return cluster;
+    }
+
+    /**
+     * Simulate 64 nodes running 100,000 random processes sequentially and with Time Warp, and print the results,
+     * times and rollbacks.
+     */
+    private static void timeWarp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<ProcessSpec> processes = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            int[] bursts = new int[1 + 2 * random.nextInt(4)];
+            for (int b = 0; b < bursts.length; b++) bursts[b] = random.nextInt(1, b % 2 == 0 ? 20 : 60);
+            processes.add(new ProcessSpec("P" + i, 0, random.nextInt(0, 60_000), bursts));
+        }
+        ClusterNodeModel model = new ClusterNodeModel(new WorkloadSpec(processes), 64, 3, 5);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        TimeWarpSimulator<ClusterNodeModel.Node> simulator = model.createSimulator();
+        long start = System.nanoTime();
+        List<ClusterNodeModel.Node> sequential = simulator.runSequential();
+        long sequentialMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Sequential: " + ClusterNodeModel.summarize(sequential));
+        System.out.println("  " + simulator.getProcessedEvents() + " events in " + sequentialMillis + " ms");
+
+        start = System.nanoTime();
+        List<ClusterNodeModel.Node> timeWarp = simulator.run(threads);
+        long timeWarpMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Time Warp:  " + ClusterNodeModel.summarize(timeWarp));
+        System.out.println("  " + simulator.getCommittedEvents() + " events committed, "
+                + simulator.getRolledBackEvents() + " rolled back, " + simulator.getGVTRounds() + " GVT rounds in "
+                + timeWarpMillis + " ms on " + threads + " threads");
+    }
+
+    /**
+     * Stream a million processes with heavy-tailed bursts and bursty arrivals, print their statistics and memory,
+     * then stream 100,000 of them, arriving at a steady rate, through RR.
+     */
+    private static void workloadGenerator() {
+        long start = System.nanoTime();
+        WorkloadGenerator generator = heavyTailed(new WorkloadGenerator(42, 1_000_000));
+        long processes = 0, bursts = 0, cpu = 0, io = 0, longest = 0, last = 0;
+        while (generator.hasNext()) {
+            ProcessSpec spec = generator.next();
+            processes++;
+            for (int b = 0; b < spec.getBurstCount(); b++) {
+                if (b % 2 == 0) cpu += spec.getBurst(b);
+                else io += spec.getBurst(b);
+                longest = Math.max(longest, spec.getBurst(b));
+            }
+            bursts += spec.getBurstCount();
+            last = spec.getArrivalTime();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%d processes, %d bursts in %d ms: CPU (avg) %.2f, IO (avg) %.2f, longest %d, "
+                        + "last arrival %d, heap in use %d MB%n", processes, bursts, millis,
+                2.0 * cpu / (bursts + processes), 2.0 * io / (bursts - processes), longest, last,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+
+        start = System.nanoTime();
+        RR rr = new RR(5);
+        // about 110 ticks of CPU per process, so the CPU is busy about half of the time
+        rr.addArrivals(heavyTailed(new WorkloadGenerator(42, 100_000))
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.005)));
+        List<Process> finished = rr.process();
+        millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("RR on %d arriving over time: Tw (avg) %.2f, Tr (avg) %.2f, throughput %.5f, "
+                        + "CPU util %.1f%%, in %d ms%n", finished.size(),
+                finished.stream().mapToInt(Process::getWaitingTime).average().orElse(0),
+                finished.stream().mapToInt(Process::getResponseTime).average().orElse(0), rr.getThroughput(),
+                rr.getCPUUtilization() * 100, millis);
+    }
+
+    private static WorkloadGenerator heavyTailed(WorkloadGenerator generator) {
+        WorkloadGenerator.Distribution shortBursts = WorkloadGenerator.Distribution.lognormal(1.5, 0.8);
+        WorkloadGenerator.Distribution longBursts = WorkloadGenerator.Distribution.pareto(20, 1.2);
+        return generator
+                .setCPUBursts(WorkloadGenerator.Distribution.bimodal(shortBursts, longBursts, 0.1))
+                .setIOBursts(WorkloadGenerator.Distribution.lognormal(3, 1))
+                .setArrivals(WorkloadGenerator.Arrivals.bursty(0.01, 0.2, 2000))
+                .setPriorityMix(1, 2, 4, 4, 2, 1);
+    }
+
+    /**
+     * Offer each algorithm the same stream of 5,000 processes at rising arrival rates, with at most 20 active and
+     * room for 50 more to wait, and print the throughput and delays of each run; the throughput stops following the
+     * arrival rate at the knee of the curve.
+     */
+    private static void admissionControl() {
+        String[] names = {"FCFS", "SJF", "Priority", "RR", "MLQ", "MLFQ"};
+        System.out.println(String.format("%-10s%10s%12s%12s%10s%12s%10s%10s", "Algorithm", "Arrivals", "Admitted",
+                "Throughput", "Rejected", "Held (avg)", "Tw (avg)", "Tr (avg)"));
+        for (String name : names) {
+            for (double rate : new double[] {0.005, 0.01, 0.015, 0.02, 0.025, 0.03, 0.04}) {
+                SchedulerEngine scheduler;
+                switch (name) {
+                    case "FCFS": scheduler = new FCFS(new ArrayList<>()); break;
+                    case "SJF": scheduler = new SJF(new Process[0]); break;
+                    case "Priority": scheduler = new Priority(); break;
+                    case "RR": scheduler = new RR(5); break;
+                    case "MLQ": scheduler = new MLQ(5, MLQ.byPriority(4)); break;
+                    default: scheduler = new MLFQ(new ArrayList<>(), 5, 10); break;
+                }
+                AdmissionController controller = new AdmissionController(scheduler, 20, AdmissionPolicy.delay(50));
+                WorkloadGenerator generator = new WorkloadGenerator(42, 5_000)
+                        .setArrivals(WorkloadGenerator.Arrivals.poisson(rate));
+                for (Process proc : generator.instantiate()) controller.addProcess(proc);
+                List<Process> finished = controller.process();
+                System.out.println(String.format("%-10s%10.4f%12.4f%12.4f%10d%12.2f%10.2f%10.2f", name, rate,
+                        controller.getAdmittedThroughput(), controller.getThroughput(), controller.getRejectedCount(),
+                        controller.getAverageAdmissionWait(),
+                        finished.stream().mapToInt(Process::getWaitingTime).average().orElse(0),
+                        finished.stream().mapToInt(Process::getResponseTime).average().orElse(0)));
+            }
+        }
+    }
+
+    /**
+     * Write 10 million generated processes to a trace, then time opening it, decoding all of it and streaming the
+     * first 100,000 processes into RR.
+     * @param args - path of the trace to write, a temporary file by default.
+     * @throws IOException - if the trace can't be written or read.
+     */
+    private static void binaryTrace(String[] args) throws IOException {
+        Path path = args.length > 0 ? Path.of(args[0]) : Files.createTempFile("workload", ".trace");
+        long start = System.nanoTime();
+        long count = BinaryTrace.write(path, new WorkloadGenerator(42, 10_000_000)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.005)));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long bytes = Files.size(path);
+        System.out.printf("Wrote %d processes, %d MB (%.1f bytes per process) in %d ms%n", count, bytes >> 20,
+                1.0 * bytes / count, millis);
+
+        start = System.nanoTime();
+        BinaryTrace trace = BinaryTrace.open(path);
+        System.out.printf("Opened in %.3f ms%n", (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        long bursts = 0;
+        for (ProcessSpec spec : trace) bursts += spec.getBurstCount();
+        millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Decoded %d processes, %d bursts in %d ms%n", trace.size(), bursts, millis);
+
+        start = System.nanoTime();
+        ProcessSpec middle = trace.get(trace.size() / 2);
+        System.out.printf("Process %d, %s, found in %.3f ms%n", trace.size() / 2, middle.getName(),
+                (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        RR rr = new RR(5);
+        Iterator<ProcessSpec> specs = trace.iterator();
+        rr.addArrivals(new Iterator<>() {
+            private int left = 100_000;
+
+            @Override
+            public boolean hasNext() {
+                return left > 0 && specs.hasNext();
+            }
+
+            @Override
+            public ProcessSpec next() {
+                left--;
+                return specs.next();
+            }
+        });
+        List<Process> finished = rr.process();
+        millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("RR on the first %d: Tw (avg) %.2f, elapsed %d, in %d ms%n", finished.size(),
+                finished.stream().mapToInt(Process::getWaitingTime).average().orElse(0), rr.getTotalElapsedTime(),
+                millis);
+        if (args.length == 0) Files.delete(path);
+    }
+
+    /**
+     * Import a trace and run every algorithm on it.
+     * @param args - the trace file, e.g. from "perf sched record" and "perf sched script > sched.txt", and
+     *             optionally a file to also write it to as a BinaryTrace.
+     * @throws IOException - if a file can't be read or written.
+     */
+    private static void importTrace(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: Main import <trace> [binary trace to write]");
+            return;
+        }
+        long start = System.nanoTime();
+        WorkloadSpec workload = SchedTraceImporter.read(Path.of(args[0]));
+        System.out.printf("Imported %d processes in %d ms%n", workload.size(), (System.nanoTime() - start) / 1_000_000);
+        if (args.length > 1) BinaryTrace.write(Path.of(args[1]), workload.getProcesses().iterator());
+        String[] names = {"FCFS", "SJF", "Priority", "RR", "MLQ", "MLFQ"};
+        System.out.println(String.format("%-10s%10s%10s%10s%12s", "Algorithm", "Tw (avg)", "TTr (avg)", "Tr (avg)",
+                "CPU util"));
+        for (String name : names) {
+            ScheduleInterface scheduler;
+            switch (name) {
+                case "FCFS": scheduler = new FCFS(workload.instantiate()); break;
+                case "SJF": scheduler = new SJF(workload.instantiateArray()); break;
+                case "Priority": scheduler = new Priority(workload.instantiate()); break;
+                case "RR": scheduler = new RR(5, workload.instantiate()); break;
+                // tasks with raised priority in the foreground
+                case "MLQ": scheduler = new MLQ(workload.instantiate(), 5, MLQ.byPriority(-1)); break;
+                default: scheduler = new MLFQ(workload.instantiate(), 5, 10); break;
+            }
+            List<Process> finished = scheduler.process();
+            System.out.println(String.format("%-10s%10.2f%10.2f%10.2f%11.1f%%", name,
+                    finished.stream().mapToInt(Process::getWaitingTime).average().orElse(0),
+                    finished.stream().mapToInt(Process::getTurnaroundTime).average().orElse(0),
+                    finished.stream().mapToInt(Process::getResponseTime).average().orElse(0),
+                    100.0 * (scheduler.getTotalElapsedTime() - scheduler.getTotalIdleCPUTime())
+                            / Math.max(1, scheduler.getTotalElapsedTime())));
+        }
+    }
+
     /**
      * Print averages to console.
      * @param algo - class that implements ScheduleInterface
@@ -0,0 +1,395 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs replications of the scheduling algorithms on randomized workloads until the 95% confidence intervals of the
+ * average wait and turnaround time are narrow enough, and reports the confidence interval of every metric.
+ *
+ * Every replication generates its workload from its own SplittableRandom, split in order from one seed, and runs
+ * every algorithm on that same workload, so algorithms can be compared pairwise (see getDifference()).  Replications
+ * run in parallel in batches of a fixed size and the stopping rule is checked between batches, so the results
+ * depend only on the seed and not on the number of cores.
+ *
+ * @author agent
+ */
+public class MonteCarloRunner {
+    // Student's t quantiles for a two-sided 95% interval, by degrees of freedom from 1 to 30
+    private static final double[] T_95 = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060,
+            2.056, 2.052, 2.048, 2.045, 2.042};
+
+    /**
+     * Per-process averages measured by every replication.
+     */
+    public enum Metric {
+        WAIT("Tw (avg)"), TURNAROUND("TTr (avg)"), RESPONSE("Tr (avg)"), UTILIZATION("CPU Util");
+
+        private final String label;
+
+        Metric(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Get the column heading of the metric.
+         * @return - String.
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Mean of a metric over the replications with its 95% confidence interval.
+     */
+    public static class Statistic {
+        private int count;
+        private double mean;
+        // sum of squared differences from the mean
+        private double squares;
+
+        Statistic() {
+        }
+
+        Statistic(Statistic other) {
+            count = other.count;
+            mean = other.mean;
+            squares = other.squares;
+        }
+
+        /**
+         * Add the value of one replication, updating the mean and variance in one pass (Welford's method).
+         * @param value - double.
+         */
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            squares += delta * (value - mean);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStandardDeviation() {
+            return count < 2 ? 0 : Math.sqrt(squares / (count - 1));
+        }
+
+        /**
+         * Get the half width of the 95% confidence interval of the mean.
+         * @return - double, infinite with fewer than 2 replications.
+         */
+        public double getHalfWidth() {
+            if (count < 2) return Double.POSITIVE_INFINITY;
+            return tQuantile(count - 1) * getStandardDeviation() / Math.sqrt(count);
+        }
+
+        /**
+         * Get the width of the 95% confidence interval of the mean.
+         * @return - double.
+         */
+        public double getWidth() {
+            return 2 * getHalfWidth();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.2f +/- %.2f", mean, getHalfWidth());
+        }
+    }
+
+    // creates the workload of one replication from its random stream
+    private final Function<SplittableRandom, WorkloadSpec> generator;
+    // the stream every replication's stream is split from, in order
+    private final SplittableRandom seeds;
+    // the algorithms to compare, by name
+    private final Map<String, Function<List<Process>, ScheduleInterface>> algorithms = new LinkedHashMap<>();
+    // metrics of every replication so far, by algorithm then replication, indexed by Metric ordinal
+    private final Map<String, List<double[]>> results = new LinkedHashMap<>();
+    // running statistics of every metric, by algorithm, indexed by Metric ordinal
+    private final Map<String, Statistic[]> statistics = new LinkedHashMap<>();
+    // width in ticks the wait and turnaround intervals of every algorithm must reach
+    private double targetWidth = 5;
+    private int minReplications = 10;
+    private int maxReplications = 100_000;
+    // replications run in parallel between checks of the stopping rule
+    private int batchSize = 16;
+
+    /**
+     * Constructor using randomWorkload() for the workloads.
+     * @param seed - seed of the random streams.
+     */
+    public MonteCarloRunner(long seed) {
+        this(seed, MonteCarloRunner::randomWorkload);
+    }
+
+    /**
+     * Constructor.
+     * @param seed - seed of the random streams.
+     * @param generator - creates the workload of one replication from its own random stream.
+     */
+    public MonteCarloRunner(long seed, Function<SplittableRandom, WorkloadSpec> generator) {
+        this.seeds = new SplittableRandom(seed);
+        this.generator = generator;
+    }
+
+    /**
+     * Add an algorithm to run in every replication.
+     * @param name - name of the algorithm.
+     * @param factory - builds the algorithm for a list of processes.
+     * @return - this runner.
+     */
+    public MonteCarloRunner add(String name, Function<List<Process>, ScheduleInterface> factory) {
+        if (!results.isEmpty()) throw new IllegalStateException("Algorithms can't be added after running");
+        algorithms.put(name, factory);
+        return this;
+    }
+
+    /**
+     * Set the width, in ticks, that the confidence intervals of the average wait and turnaround time of every
+     * algorithm must reach before the runner stops.
+     * @param targetWidth - double.
+     * @return - this runner.
+     */
+    public MonteCarloRunner setTargetWidth(double targetWidth) {
+        if (!(targetWidth > 0)) throw new IllegalArgumentException("Target width must be positive: " + targetWidth);
+        this.targetWidth = targetWidth;
+        return this;
+    }
+
+    /**
+     * Set the number of replications to run at least, and the most to run if the target width isn't reached.
+     * @param min - int, at least 2.
+     * @param max - int, at least min.
+     * @return - this runner.
+     */
+    public MonteCarloRunner setReplicationLimits(int min, int max) {
+        if (min < 2 || max < min) throw new IllegalArgumentException("Invalid limits: " + min + " to " + max);
+        this.minReplications = min;
+        this.maxReplications = max;
+        return this;
+    }
+
+    /**
+     * Set the number of replications run in parallel between checks of the stopping rule.
+     * @param batchSize - int, at least 1.
+     * @return - this runner.
+     */
+    public MonteCarloRunner setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Run replications on the common ForkJoinPool until the target width or the replication limit is reached.
+     * @return - number of replications run in total.
+     */
+    public int run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run replications on a pool until the target width or the replication limit is reached.  Running again after
+     * changing the target continues from the replications already run.
+     * @param pool - ForkJoinPool to run on.
+     * @return - number of replications run in total.
+     */
+    public int run(ForkJoinPool pool) {
+        if (algorithms.isEmpty()) throw new IllegalStateException("No algorithms to run");
+        for (String name : algorithms.keySet()) {
+            if (results.containsKey(name)) continue;
+            results.put(name, new ArrayList<>());
+            Statistic[] algorithmStatistics = new Statistic[Metric.values().length];
+            for (int m = 0; m < algorithmStatistics.length; m++) algorithmStatistics[m] = new Statistic();
+            statistics.put(name, algorithmStatistics);
+        }
+        while (getReplications() < maxReplications && !isPreciseEnough()) {
+            int batch = Math.min(batchSize, maxReplications - getReplications());
+            List<Callable<double[][]>> tasks = new ArrayList<>(batch);
+            for (int i = 0; i < batch; i++) {
+                SplittableRandom random = seeds.split();
+                tasks.add(() -> replicate(random));
+            }
+            for (Future<double[][]> future : pool.invokeAll(tasks)) {
+                double[][] metrics;
+                try {
+                    metrics = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for the replications", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A replication failed", e.getCause());
+                }
+                int a = 0;
+                for (String name : algorithms.keySet()) {
+                    results.get(name).add(metrics[a]);
+                    Statistic[] algorithmStatistics = statistics.get(name);
+                    for (int m = 0; m < algorithmStatistics.length; m++) algorithmStatistics[m].add(metrics[a][m]);
+                    a++;
+                }
+            }
+        }
+        return getReplications();
+    }
+
+    /**
+     * Return true once the minimum number of replications has run and the wait and turnaround intervals of every
+     * algorithm are at most the target width.
+     * @return - boolean.
+     */
+    public boolean isPreciseEnough() {
+        if (getReplications() < minReplications) return false;
+        for (String name : algorithms.keySet()) {
+            if (getStatistic(name, Metric.WAIT).getWidth() > targetWidth) return false;
+            if (getStatistic(name, Metric.TURNAROUND).getWidth() > targetWidth) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of replications run so far.
+     * @return - int.
+     */
+    public int getReplications() {
+        return results.isEmpty() ? 0 : results.values().iterator().next().size();
+    }
+
+    /**
+     * Get the mean and confidence interval of a metric of an algorithm over the replications.
+     * @param algorithm - name of the algorithm.
+     * @param metric - Metric.
+     * @return - Statistic.
+     */
+    public Statistic getStatistic(String algorithm, Metric metric) {
+        resultsOf(algorithm);
+        Statistic[] algorithmStatistics = statistics.get(algorithm);
+        return algorithmStatistics == null ? new Statistic() : new Statistic(algorithmStatistics[metric.ordinal()]);
+    }
+
+    /**
+     * Get the mean and confidence interval of the difference in a metric between two algorithms, replication by
+     * replication.  The difference is significant when the interval doesn't contain 0.
+     * @param first - name of an algorithm.
+     * @param second - name of the algorithm to subtract.
+     * @param metric - Metric.
+     * @return - Statistic of first - second.
+     */
+    public Statistic getDifference(String first, String second, Metric metric) {
+        List<double[]> firstResults = resultsOf(first);
+        List<double[]> secondResults = resultsOf(second);
+        Statistic difference = new Statistic();
+        for (int i = 0; i < firstResults.size(); i++) {
+            difference.add(firstResults.get(i)[metric.ordinal()] - secondResults.get(i)[metric.ordinal()]);
+        }
+        return difference;
+    }
+
+    /**
+     * Format the confidence intervals of every metric as a table, one row per algorithm.
+     * @return - String.
+     */
+    public String toTable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s", "Algorithm"));
+        for (Metric metric : Metric.values()) sb.append(String.format("%20s", metric.label));
+        sb.append("\n");
+        for (String name : algorithms.keySet()) {
+            sb.append(String.format("%-10s", name));
+            for (Metric metric : Metric.values()) {
+                Statistic statistic = getStatistic(name, metric);
+                if (metric == Metric.UTILIZATION) {
+                    sb.append(String.format("%20s", String.format("%.2f%% +/- %.2f", statistic.getMean() * 100,
+                            statistic.getHalfWidth() * 100)));
+                } else {
+                    sb.append(String.format("%20s", statistic));
+                }
+            }
+            sb.append("\n");
+        }
+        sb.append("95% confidence intervals over " + getReplications() + " replications\n");
+        return sb.toString();
+    }
+
+    private List<double[]> resultsOf(String algorithm) {
+        List<double[]> algorithmResults = results.get(algorithm);
+        if (algorithmResults == null) {
+            if (algorithms.containsKey(algorithm)) return new ArrayList<>();
+            throw new IllegalArgumentException("No algorithm named " + algorithm);
+        }
+        return algorithmResults;
+    }
+
+    /**
+     * Run every algorithm on one workload.
+     * @param random - the replication's own random stream.
+     * @return - metrics of each algorithm, indexed by Metric ordinal.
+     */
+    private double[][] replicate(SplittableRandom random) {
+        WorkloadSpec workload = generator.apply(random);
+        double[][] metrics = new double[algorithms.size()][];
+        int a = 0;
+        for (Function<List<Process>, ScheduleInterface> factory : algorithms.values()) {
+            metrics[a++] = measure(factory.apply(workload.instantiate()));
+        }
+        return metrics;
+    }
+
+    private static double[] measure(ScheduleInterface algorithm) {
+        List<Process> finished = algorithm.process();
+        double[] metrics = new double[Metric.values().length];
+        for (Process proc : finished) {
+            metrics[Metric.WAIT.ordinal()] += proc.getWaitingTime();
+            metrics[Metric.TURNAROUND.ordinal()] += proc.getTurnaroundTime();
+            metrics[Metric.RESPONSE.ordinal()] += proc.getResponseTime();
+        }
+        int size = Math.max(finished.size(), 1);
+        metrics[Metric.WAIT.ordinal()] /= size;
+        metrics[Metric.TURNAROUND.ordinal()] /= size;
+        metrics[Metric.RESPONSE.ordinal()] /= size;
+        long cpuTicks = (long) algorithm.getTotalElapsedTime() * algorithm.getCPUCount();
+        metrics[Metric.UTILIZATION.ordinal()] =
+                cpuTicks == 0 ? 0 : 1.0 * (cpuTicks - algorithm.getTotalIdleCPUTime()) / cpuTicks;
+        return metrics;
+    }
+
+    private static double tQuantile(int degreesOfFreedom) {
+        if (degreesOfFreedom <= T_95.length) return T_95[degreesOfFreedom - 1];
+        // Cornish-Fisher expansion around the normal quantile, within 0.00001 of the exact value above 30 degrees
+        // of freedom
+        double z = 1.959964, z2 = z * z, n = degreesOfFreedom;
+        return z + z * (z2 + 1) / (4 * n) + z * ((5 * z2 + 16) * z2 + 3) / (96 * n * n)
+                + z * (((3 * z2 + 19) * z2 + 17) * z2 - 15) / (384 * n * n * n);
+    }
+
+    /**
+     * Create a workload like the default test data: 8 processes with random priorities from 1 to 8 and 9 to 19
+     * bursts, CPU bursts from 2 to 20 and IO bursts from 10 to 80.
+     * @param random - random stream.
+     * @return - WorkloadSpec.
+     */
+    public static WorkloadSpec randomWorkload(SplittableRandom random) {
+        List<ProcessSpec> processes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int[] bursts = new int[9 + 2 * random.nextInt(6)];
+            for (int b = 0; b < bursts.length; b++) {
+                bursts[b] = b % 2 == 0 ? random.nextInt(2, 21) : random.nextInt(10, 81);
+            }
+            processes.add(new ProcessSpec("P" + (i + 1), random.nextInt(1, 9), 0, bursts));
+        }
+        return new WorkloadSpec(processes);
+    }
+}
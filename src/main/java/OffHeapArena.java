@@ -0,0 +1,144 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Bump allocator for off-heap memory.  Memory is handed out as long addresses from a list of direct ByteBuffer
+ * chunks and is released from the top down by release(long), or all at once by close().  An allocation no bigger
+ * than a chunk never spans two; a bigger one starts a new chunk and takes as many as it needs, so a value in it only
+ * stays within one chunk if it is at a multiple of its size from the start and the chunk size is a multiple of 8.
+ *
+ * Direct buffers come out of a pool limited by -XX:MaxDirectMemorySize, which is the maximum heap size unless set,
+ * so raise it for arenas bigger than the heap.
+ *
+ * @author agent
+ */
+public class OffHeapArena implements AutoCloseable {
+    // size of each chunk of memory in bytes
+    private final int chunkSize;
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount = 0;
+    // address of the next free byte
+    private long top = 0;
+
+    /**
+     * Constructor.
+     * @param chunkSize - size in bytes of each block of memory taken from the system.
+     */
+    public OffHeapArena(int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Allocate zeroed memory.
+     * @param bytes - size of the allocation, at least 0.
+     * @return - address of the allocation.
+     */
+    public long allocate(int bytes) {
+        if (bytes < 0) throw new IllegalArgumentException("Can't allocate " + bytes + " bytes");
+        long address = top;
+        if (address % chunkSize != 0 && address % chunkSize + bytes > chunkSize) {
+            // doesn't fit in what's left of the current chunk, or in any one chunk
+            address = (address / chunkSize + 1) * chunkSize;
+        }
+        int chunk = (int) ((address + bytes - 1) / chunkSize);
+        checkOpen();
+        while (bytes > 0 && chunkCount <= chunk) {
+            if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(chunkSize).order(ByteOrder.nativeOrder());
+        }
+        top = address + bytes;
+        return address;
+    }
+
+    /**
+     * Grow the most recent allocation in place, if it is the most recent one and there is room in its chunk.
+     * @param address - address of the allocation.
+     * @param oldBytes - its current size.
+     * @param newBytes - the size wanted.
+     * @return - true if the allocation was grown.
+     */
+    public boolean tryExtend(long address, int oldBytes, int newBytes) {
+        if (address + oldBytes != top || address % chunkSize + newBytes > chunkSize) return false;
+        top = address + newBytes;
+        return true;
+    }
+
+    /**
+     * Release an allocation and every allocation made after it, zeroing the memory so it can be handed out again.
+     * The chunks are kept for reuse.
+     * @param address - address of the allocation.
+     */
+    public void release(long address) {
+        if (address < 0 || address > top) {
+            throw new IllegalArgumentException("Address " + address + " isn't allocated, top is " + top);
+        }
+        for (long a = address; a < top; a++) putByte(a, (byte) 0);
+        top = address;
+    }
+
+    /**
+     * Copy memory from one allocation to another.
+     * @param from - source address.
+     * @param to - destination address.
+     * @param bytes - number of bytes.
+     */
+    public void copy(long from, long to, int bytes) {
+        for (int i = 0; i < bytes; i++) putByte(to + i, getByte(from + i));
+    }
+
+    /**
+     * Get the number of bytes reserved from the system.
+     * @return - long.
+     */
+    public long getReservedBytes() {
+        return (long) chunkCount * chunkSize;
+    }
+
+    public int getInt(long address) {
+        return chunk(address).getInt(offset(address));
+    }
+
+    public void putInt(long address, int value) {
+        chunk(address).putInt(offset(address), value);
+    }
+
+    public long getLong(long address) {
+        return chunk(address).getLong(offset(address));
+    }
+
+    public void putLong(long address, long value) {
+        chunk(address).putLong(offset(address), value);
+    }
+
+    public byte getByte(long address) {
+        return chunk(address).get(offset(address));
+    }
+
+    public void putByte(long address, byte value) {
+        chunk(address).put(offset(address), value);
+    }
+
+    private ByteBuffer chunk(long address) {
+        checkOpen();
+        return chunks[(int) (address / chunkSize)];
+    }
+
+    private int offset(long address) {
+        return (int) (address % chunkSize);
+    }
+
+    private void checkOpen() {
+        if (chunks == null) throw new IllegalStateException("Arena is closed");
+    }
+
+    /**
+     * Release all of the memory.  Nothing allocated from the arena can be used after this.
+     */
+    @Override
+    public void close() {
+        chunks = null;
+        chunkCount = 0;
+    }
+}
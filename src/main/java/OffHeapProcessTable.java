@@ -0,0 +1,135 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ProcessTable that keeps the data and bursts of its processes in off-heap memory, so the heap stays small and the
+ * garbage collector has nothing to scan for workloads with millions of processes.  Only the Process views live on
+ * the heap.  All of the memory is released at once by close(), after which the table and its processes can't be
+ * used, so read any results before closing it.  The memory counts against -XX:MaxDirectMemorySize, which is the
+ * maximum heap size unless set, so raise it for tables bigger than the heap.
+ *
+ * @author agent
+ */
+public class OffHeapProcessTable extends ProcessTable implements AutoCloseable {
+    // row layout: the columns, then the burst capacity, burst address, name address and name length
+    private static final int BURST_CAPACITY = COLUMNS * 4;
+    private static final int BURST_ADDRESS = BURST_CAPACITY + 4;
+    private static final int NAME_ADDRESS = BURST_ADDRESS + 8;
+    private static final int NAME_LENGTH = NAME_ADDRESS + 8;
+    private static final int ROW_BYTES = NAME_LENGTH + 4;
+    // rows per chunk; chunks are a whole number of rows so row addresses are contiguous
+    private static final int ROWS_PER_CHUNK = 1 << 16;
+    private static final int BURSTS_CHUNK_BYTES = 1 << 24;
+
+    // fixed size rows, the row of process ID i is at i * ROW_BYTES
+    private final OffHeapArena rows = new OffHeapArena(ROW_BYTES * ROWS_PER_CHUNK);
+    // burst durations and names
+    private final OffHeapArena data = new OffHeapArena(BURSTS_CHUNK_BYTES);
+
+    /**
+     * Default constructor.
+     */
+    public OffHeapProcessTable() {
+        super(0);
+    }
+
+    @Override
+    public ProcessTable newEmpty() {
+        return new OffHeapProcessTable();
+    }
+
+    private static long row(int id) {
+        return (long) id * ROW_BYTES;
+    }
+
+    @Override
+    int newRow(String name) {
+        int id = size;
+        rows.allocate(ROW_BYTES);
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        long nameAddress = data.allocate(bytes.length);
+        for (int i = 0; i < bytes.length; i++) data.putByte(nameAddress + i, bytes[i]);
+        rows.putLong(row(id) + NAME_ADDRESS, nameAddress);
+        rows.putInt(row(id) + NAME_LENGTH, bytes.length);
+        size++;
+        return id;
+    }
+
+    @Override
+    int get(int column, int id) {
+        return rows.getInt(row(id) + column * 4);
+    }
+
+    @Override
+    void set(int column, int id, int value) {
+        rows.putInt(row(id) + column * 4, value);
+    }
+
+    @Override
+    String getName(int id) {
+        long nameAddress = rows.getLong(row(id) + NAME_ADDRESS);
+        byte[] bytes = new byte[rows.getInt(row(id) + NAME_LENGTH)];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = data.getByte(nameAddress + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    int getBurst(int id, int index) {
+        return data.getInt(rows.getLong(row(id) + BURST_ADDRESS) + index * 4L);
+    }
+
+    @Override
+    void setBurst(int id, int index, int duration) {
+        int capacity = rows.getInt(row(id) + BURST_CAPACITY);
+        long address = rows.getLong(row(id) + BURST_ADDRESS);
+        if (index >= capacity) {
+            // bursts are usually added one process at a time, so most rows can grow in place
+            int newCapacity = Math.max(index + 1, Math.max(8, capacity * 2));
+            if (capacity == 0 || !data.tryExtend(address, capacity * 4, newCapacity * 4)) {
+                long newAddress = data.allocate(newCapacity * 4);
+                data.copy(address, newAddress, capacity * 4);
+                address = newAddress;
+                rows.putLong(row(id) + BURST_ADDRESS, address);
+            }
+            rows.putInt(row(id) + BURST_CAPACITY, newCapacity);
+        }
+        data.putInt(address + index * 4L, duration);
+    }
+
+    @Override
+    void moveRow(int from, int to) {
+        // the name and burst addresses move with the row
+        rows.copy(row(from), row(to), ROW_BYTES);
+    }
+
+    @Override
+    void truncate(int newSize) {
+        // the rows are reused, but the names and bursts of the dropped rows stay allocated until close()
+        rows.release(row(newSize));
+        size = newSize;
+    }
+
+    @Override
+    public void tickRange(int from, int to, int time) {
+        // the kernels work on heap arrays, so tick one row at a time
+        for (int id = from; id < to; id++) {
+            tick(id, time);
+        }
+    }
+
+    /**
+     * Get the number of bytes of off-heap memory reserved by the table.
+     * @return - long.
+     */
+    public long getReservedBytes() {
+        return rows.getReservedBytes() + data.getReservedBytes();
+    }
+
+    /**
+     * Release all of the off-heap memory of the table.
+     */
+    @Override
+    public void close() {
+        rows.close();
+        data.close();
+    }
+}
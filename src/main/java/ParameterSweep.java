@@ -0,0 +1,227 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs many configurations of the scheduling algorithms concurrently on a ForkJoinPool and collects the averages of
+ * each run into one table.  Every run gets its own fresh copy of the workload, so runs share no state.
+ *
+ * Usage:
+ * <pre>
+ *     List&lt;ParameterSweep.Result&gt; results = new ParameterSweep(workload)
+ *             .addRR(1, 2, 5, 10)
+ *             .addMLFQ(new int[] {2, 4, 8}, new int[] {8, 16, 32})
+ *             .run();
+ *     System.out.print(ParameterSweep.toTable(results));
+ * </pre>
+ *
+ * @author agent
+ */
+public class ParameterSweep {
+    // creates a fresh copy of the workload for each run
+    private final Supplier<List<Process>> workload;
+    // configurations to run, in the order they are added
+    private final List<Configuration> configurations = new ArrayList<>();
+
+    /**
+     * Averages of one run.
+     */
+    public static class Result {
+        private final String algorithm;
+        private final String parameters;
+        private final double averageWait;
+        private final double averageTurnaround;
+        private final double averageResponse;
+        private final double cpuUtilization;
+
+        Result(String algorithm, String parameters, double averageWait, double averageTurnaround,
+               double averageResponse, double cpuUtilization) {
+            this.algorithm = algorithm;
+            this.parameters = parameters;
+            this.averageWait = averageWait;
+            this.averageTurnaround = averageTurnaround;
+            this.averageResponse = averageResponse;
+            this.cpuUtilization = cpuUtilization;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public String getParameters() {
+            return parameters;
+        }
+
+        public double getAverageWait() {
+            return averageWait;
+        }
+
+        public double getAverageTurnaround() {
+            return averageTurnaround;
+        }
+
+        public double getAverageResponse() {
+            return averageResponse;
+        }
+
+        /**
+         * Get the fraction of CPU time that was not idle, from 0 to 1.
+         * @return - double.
+         */
+        public double getCPUUtilization() {
+            return cpuUtilization;
+        }
+    }
+
+    /**
+     * An algorithm and the parameters to build it with.
+     */
+    private static class Configuration {
+        private final String algorithm;
+        private final String parameters;
+        private final Function<List<Process>, ScheduleInterface> factory;
+
+        Configuration(String algorithm, String parameters, Function<List<Process>, ScheduleInterface> factory) {
+            this.algorithm = algorithm;
+            this.parameters = parameters;
+            this.factory = factory;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param workload - creates a fresh list of processes each time it is called.
+     */
+    public ParameterSweep(Supplier<List<Process>> workload) {
+        this.workload = workload;
+    }
+
+    /**
+     * Constructor for a sweep where every run instantiates the same workload spec.
+     * @param workload - WorkloadSpec.
+     */
+    public ParameterSweep(WorkloadSpec workload) {
+        this(workload::instantiate);
+    }
+
+    /**
+     * Add a configuration to the sweep.
+     * @param algorithm - name of the algorithm, for the table.
+     * @param parameters - description of the parameters, for the table.
+     * @param factory - builds the algorithm for a list of processes.
+     * @return - this sweep.
+     */
+    public ParameterSweep add(String algorithm, String parameters,
+                              Function<List<Process>, ScheduleInterface> factory) {
+        configurations.add(new Configuration(algorithm, parameters, factory));
+        return this;
+    }
+
+    /**
+     * Add a round robin run for each time quantum.
+     * @param quanta - time quanta to try.
+     * @return - this sweep.
+     */
+    public ParameterSweep addRR(int... quanta) {
+        for (int quantum : quanta) {
+            add("RR", "quantum=" + quantum, processes -> new RR(quantum, processes));
+        }
+        return this;
+    }
+
+    /**
+     * Add an MLFQ run for every pair of high and medium priority time quanta.
+     * @param highPriorityTQs - time quanta of the high priority queue to try.
+     * @param medPriorityTQs - time quanta of the medium priority queue to try.
+     * @return - this sweep.
+     */
+    public ParameterSweep addMLFQ(int[] highPriorityTQs, int[] medPriorityTQs) {
+        for (int high : highPriorityTQs) {
+            for (int med : medPriorityTQs) {
+                add("MLFQ", "high=" + high + " med=" + med, processes -> new MLFQ(processes, high, med));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of configurations added.
+     * @return - int.
+     */
+    public int size() {
+        return configurations.size();
+    }
+
+    /**
+     * Run every configuration on the common ForkJoinPool.
+     * @return - results, in the order the configurations were added.
+     */
+    public List<Result> run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run every configuration concurrently on a pool.
+     * @param pool - ForkJoinPool to run on.
+     * @return - results, in the order the configurations were added.
+     */
+    public List<Result> run(ForkJoinPool pool) {
+        List<Callable<Result>> tasks = new ArrayList<>(configurations.size());
+        for (Configuration configuration : configurations) tasks.add(() -> run(configuration));
+        List<Result> results = new ArrayList<>(tasks.size());
+        for (Future<Result> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the sweep", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A run of the sweep failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Run one configuration on a fresh copy of the workload.
+     * @param configuration - Configuration.
+     * @return - Result.
+     */
+    private Result run(Configuration configuration) {
+        ScheduleInterface algorithm = configuration.factory.apply(workload.get());
+        List<Process> finished = algorithm.process();
+        double wait = 0, turnaround = 0, response = 0;
+        for (Process proc : finished) {
+            wait += proc.getWaitingTime();
+            turnaround += proc.getTurnaroundTime();
+            response += proc.getResponseTime();
+        }
+        int size = Math.max(finished.size(), 1);
+        long cpuTicks = (long) algorithm.getTotalElapsedTime() * algorithm.getCPUCount();
+        double utilization = cpuTicks == 0 ? 0 : 1.0 * (cpuTicks - algorithm.getTotalIdleCPUTime()) / cpuTicks;
+        return new Result(configuration.algorithm, configuration.parameters, wait / size, turnaround / size,
+                response / size, utilization);
+    }
+
+    /**
+     * Format results as a table, one row per run.
+     * @param results - List of Results.
+     * @return - String.
+     */
+    public static String toTable(List<Result> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s%-20s%12s%12s%12s%12s%n", "Algorithm", "Parameters", "Tw (avg)", "TTr (avg)",
+                "Tr (avg)", "CPU Util"));
+        for (Result result : results) {
+            sb.append(String.format("%-10s%-20s%12.2f%12.2f%12.2f%11.2f%%%n", result.getAlgorithm(),
+                    result.getParameters(), result.getAverageWait(), result.getAverageTurnaround(),
+                    result.getAverageResponse(), result.getCPUUtilization() * 100));
+        }
+        return sb.toString();
+    }
+}
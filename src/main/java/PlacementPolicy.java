@@ -0,0 +1,56 @@
+/**
+ * Decides which CPU's run queue a ready process joins when the SchedulerEngine simulates several CPUs.  The engine
+ * asks whenever a process becomes ready from outside a run queue: when the simulation starts, when a process is
+ * added and when a process returns from IO.  Processes preempted or out of time quantum stay in the same run queue.
+ *
+ * @author agent
+ */
+public interface PlacementPolicy {
+    /**
+     * Speed-oblivious placement: every process goes back to its home CPU, the one it last ran on.
+     */
+    public static final PlacementPolicy HOME = (proc, home, engine) -> home;
+
+    /**
+     * Choose the CPU for a ready process.
+     * @param proc - Process, in the WAITING state with a CPU burst next.
+     * @param home - index of the CPU the process last ran on, or was given when it started.
+     * @param engine - the engine, for the speed and load of each CPU.
+     * @return - index of the CPU.
+     */
+    public int place(Process proc, int home, SchedulerEngine engine);
+
+    /**
+     * Asymmetry-aware placement for CPUs of different speeds.  A process whose next CPU burst is at least
+     * longBurstThreshold goes to the CPU where it would get through the queue fastest, i.e. with the least load per
+     * unit of speed, preferring faster CPUs on a tie.  Any other (short, typically IO-bound) burst goes to the least
+     * loaded CPU, preferring slower CPUs on a tie, so it only takes a fast CPU that has less to do.  A process stays
+     * home when there is nothing to choose.
+     * @param longBurstThreshold - shortest CPU burst that is treated as long.
+     * @return - PlacementPolicy.
+     */
+    public static PlacementPolicy bySpeed(int longBurstThreshold) {
+        return (proc, home, engine) -> {
+            boolean longBurst = proc.nextBurstDuration() >= longBurstThreshold;
+            int best = home;
+            for (int cpu = 0; cpu < engine.getCPUCount(); cpu++) {
+                if (isBetter(engine, cpu, best, longBurst)) best = cpu;
+            }
+            return best;
+        };
+    }
+
+    private static boolean isBetter(SchedulerEngine engine, int cpu, int best, boolean longBurst) {
+        int speed = engine.getCPUSpeed(cpu);
+        int bestSpeed = engine.getCPUSpeed(best);
+        if (longBurst) {
+            // compare (load + 1) / speed, the process' share of the CPU including itself
+            long cost = (long) (engine.getCPULoad(cpu) + 1) * bestSpeed;
+            long bestCost = (long) (engine.getCPULoad(best) + 1) * speed;
+            return cost < bestCost || (cost == bestCost && speed > bestSpeed);
+        }
+        int load = engine.getCPULoad(cpu);
+        int bestLoad = engine.getCPULoad(best);
+        return load < bestLoad || (load == bestLoad && speed < bestSpeed);
+    }
+}
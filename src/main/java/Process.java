@@ -1,7 +1,8 @@
-import java.util.*;
+import java.util.Comparator;
 
 /**
  * Process Class.
+ * A view onto one row of a ProcessTable, which holds the data of the process.
  *
  * @author Mike Murphy, Jared Scarr
  */
@@ -11,56 +12,86 @@ public class Process implements Comparable<Process> {
 
     public enum State {RUNNING, WAITING, IO, FINISHED;}
 
+    // the table holding this process' data, and its row there
+    private ProcessTable table;
+    private int id;
+    // links for the ProcessQueue this process is currently in, if any
+    ProcessQueue queue;
+    Process queuePrev;
+    Process queueNext;
+    // time this process returns from IO while it is in an IOTimingWheel
+    int ioReturnTime;
+    // the CPU whose run queue this process goes back to when it is ready
+    int cpu;
+    // the ProcessHeap this process is in, if any, and its position there
+    ProcessHeap heap;
+    int heapIndex = -1;
+
     /**
-     * Internal class to track individual CPU or IO bursts.
+     * Constructor for Process.
+     * @param name - process name.
+     * @param priority - priority of process.
+     * @param arrivalTime - the time the process arrived.
      */
-    private class Burst {
-        public BurstType type;
-        public Integer duration;
-
-        public Burst(BurstType type, Integer duration) {
-            this.type = type;
-            this.duration = duration;
-        }
-
+    public Process(String name, int priority, int arrivalTime) {
+        this(new ProcessTable(1), name, priority, arrivalTime);
     }
 
-    private String name;
-    private int priority;
-    private Queue<Burst> bursts;
-    private BurstType lastAddedBurstType;
-    private int waitingTime;
-    private int cpuTime;
-    private int ioTime;
-    private int totalTime;
-    private int finishTime;
-    private int currentTick;
-    private int arrivalTime;
-    private int firstRunTime;
-    private State currentState;
-    private int enterWait;
-
     /**
-     * Constructor for Process.
+     * Constructor for a Process stored in the given table.
+     * @param table - ProcessTable to add the process to.
      * @param name - process name.
      * @param priority - priority of process.
      * @param arrivalTime - the time the process arrived.
      */
-    public Process(String name, int priority, int arrivalTime) {
-        this.name = name;
-        this.priority = priority;
-        this.bursts = new LinkedList<>();
-        this.lastAddedBurstType = null;
-        this.arrivalTime = arrivalTime;
-        this.waitingTime = 0;
-        this.cpuTime = 0;
-        this.ioTime = 0;
-        this.finishTime = 0;
-        this.totalTime = 0;
-        this.currentTick = 0;
-        this.firstRunTime = -1;
-        this.currentState = State.WAITING;
-        this.enterWait = 0;
+    public Process(ProcessTable table, String name, int priority, int arrivalTime) {
+        this.table = table;
+        this.id = table.addRow(name, priority, arrivalTime);
+    }
+
+    /**
+     * Constructor for a Process that hasn't run yet from its spec, stored in the given table.
+     * @param table - ProcessTable to add the process to.
+     * @param spec - ProcessSpec.
+     */
+    public Process(ProcessTable table, ProcessSpec spec) {
+        this.table = table;
+        this.id = table.addRow(spec);
+    }
+
+    /**
+     * Get the table holding this process' data.
+     * @return - ProcessTable.
+     */
+    public ProcessTable getTable() {
+        return table;
+    }
+
+    /**
+     * Get the row of this process in its table.
+     * @return - int.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Move this process' data into another table, so it can be updated together with the other processes there.
+     * The row in the old table is left behind and must not be used any more.
+     * @param newTable - ProcessTable.
+     */
+    public void moveTo(ProcessTable newTable) {
+        if (newTable == table) return;
+        id = newTable.copyRow(table, id);
+        table = newTable;
+    }
+
+    /**
+     * Point this process at another row of its table, after the table has moved its data there.
+     * @param newId - the new row.
+     */
+    void setRow(int newId) {
+        id = newId;
     }
 
     /**
@@ -70,7 +101,7 @@ public class Process implements Comparable<Process> {
      * @return - int.
      */
     public int getEnterWaitState() {
-        return enterWait;
+        return table.get(ProcessTable.ENTER_WAIT, id);
     }
 
     /**
@@ -80,7 +111,7 @@ public class Process implements Comparable<Process> {
      * @param waitStart - int
      */
     public void setEnterWaitState(int waitStart) {
-        this.enterWait = waitStart;
+        table.set(ProcessTable.ENTER_WAIT, id, waitStart);
     }
 
     /**
@@ -89,18 +120,10 @@ public class Process implements Comparable<Process> {
      * from CPU/IO burst types beginning with a CPU burst type.
      * Throws InvalidBurstTypeException if burst type added out of order.
      * @param type - BurstType
-     * @param duration - Integer
+     * @param duration - int
      */
-    public void addBurst(BurstType type, Integer duration) throws InvalidBurstTypeException {
-        if (lastAddedBurstType == null) {
-            bursts.add(new Burst(type, duration));
-        } else if (!lastAddedBurstType.equals(type)) {
-            bursts.add(new Burst(type, duration));
-        } else {
-            throw new InvalidBurstTypeException("Invalid BurstType for queue. Attempted to add: " + type
-                                                + " but last added type is: " + lastAddedBurstType);
-        }
-
+    public void addBurst(BurstType type, int duration) throws InvalidBurstTypeException {
+        table.addBurst(id, type, duration);
     }
 
     /**
@@ -109,7 +132,7 @@ public class Process implements Comparable<Process> {
      * @return - BurstType || null.
      */
     public BurstType nextBurstType() {
-        return bursts.peek() != null ? bursts.peek().type : null;
+        return table.hasBurst(id) ? table.getBurstType(id, table.get(ProcessTable.BURST_CURSOR, id)) : null;
     }
 
     /**
@@ -117,24 +140,60 @@ public class Process implements Comparable<Process> {
      * If there is no burst return 0.
      * @return - int
      */
-    public Integer nextBurstDuration() { return bursts.peek() != null ? bursts.peek().duration : 0; }
+    public int nextBurstDuration() { return table.hasBurst(id) ? table.getBurst(id, table.get(ProcessTable.BURST_CURSOR, id)) : 0; }
 
     /**
      * Runs a clock tick for this process in whatever state the processor is currently in.
      */
     public void tick() {
-        switch (currentState) {
-            case WAITING:
-                wait(1);
-                break;
-            case RUNNING:
-                runOnCPU(1);
-                break;
-            case IO:
-                sendToIO(1);
-                break;
+        table.tick(id, 1);
+    }
+
+    /**
+     * Runs several clock ticks at once for this process in whatever state the processor is currently in.  The time
+     * is charged in bulk, so this should only be used for stretches where the process does not change state before
+     * the last tick (see getTimeUntilStateChange()).
+     * @param time - number of clock ticks to run.
+     */
+    public void tick(int time) {
+        table.tick(id, time);
+    }
+
+    /**
+     * Get the number of clock ticks until this process changes state on its own, i.e. until the current CPU burst
+     * completes while running or the current IO burst completes while in IO.
+     * @return - int, or 0 if the process will not change state without the scheduler acting on it.
+     */
+    public int getTimeUntilStateChange() {
+        BurstType type = getCurrentBurstType();
+        State state = getCurrentState();
+        if (state == State.RUNNING && type == BurstType.CPU) {
+            // a CPU faster than 1 finishes the burst in fewer ticks, rounded up
+            int speed = getSpeed();
+            return (getCurrentDuration() + speed - 1) / speed;
+        }
+        if (state == State.IO && type == BurstType.IO) {
+            return getCurrentDuration();
         }
-        currentTick++;
+        return 0;
+    }
+
+    /**
+     * Get the units of CPU burst this process completes per tick while running, i.e. the speed of the CPU it last
+     * ran on.  1 unless the engine simulates CPUs of different speeds.
+     * @return - int.
+     */
+    public int getSpeed() {
+        return table.get(ProcessTable.SPEED, id);
+    }
+
+    /**
+     * Set the units of CPU burst this process completes per tick while running.
+     * @param speed - int, at least 1.
+     */
+    public void setSpeed(int speed) {
+        if (speed < 1) throw new IllegalArgumentException("Speed must be at least 1: " + speed);
+        table.set(ProcessTable.SPEED, id, speed);
     }
 
     /**
@@ -145,30 +204,7 @@ public class Process implements Comparable<Process> {
      * @return is the amount of time remaining after the process finishes its current CPU burst.
      */
     public int runOnCPU(int time) {
-        totalTime += time;
-        if (firstRunTime == -1) firstRunTime = currentTick;
-        Burst curBurst = bursts.peek();
-        if (curBurst != null) {
-            if (curBurst.type == BurstType.CPU) {
-                cpuTime += Math.min(curBurst.duration, time);
-                curBurst.duration = curBurst.duration - time;
-                if (curBurst.duration <= 0) {
-                    bursts.remove();
-                    if (isFinished()) {
-                        setCurrentState(State.FINISHED);
-                    } else {
-                        if (getCurrentBurstType() == BurstType.IO) {
-                            setCurrentState(State.IO);
-                        } else {
-                            setCurrentState(State.WAITING);
-                        }
-                    }
-                    return Math.abs(curBurst.duration);
-                }
-                return Math.abs(curBurst.duration);
-            }
-        }
-        return 0;
+        return table.runOnCPU(id, time);
     }
 
     /**
@@ -178,14 +214,7 @@ public class Process implements Comparable<Process> {
      * @return is the amount of time until the process will return from I/O.
      */
     public int sendToIO() {
-        currentState = State.IO;
-        if (bursts.peek().type == BurstType.IO) {
-            Burst curBurst = bursts.remove();
-            ioTime += curBurst.duration;
-            setCurrentState(State.WAITING);
-            return curBurst.duration;
-        }
-        return 0;
+        return table.sendToIO(id);
     }
 
     /**
@@ -196,22 +225,7 @@ public class Process implements Comparable<Process> {
      * @return is the amount of time actually used if the requested time is longer than the I/O burst duration.
      */
     public int sendToIO(int time) {
-        totalTime += time;
-        currentState = State.IO;
-        Burst curBurst = bursts.peek();
-        if (curBurst != null) {
-            if (curBurst.type == BurstType.IO) {
-                int timeUsed = Math.min(curBurst.duration, time);
-                ioTime += timeUsed;
-                curBurst.duration -= time;
-                if (curBurst.duration <= 0) {
-                    bursts.remove();
-                    currentState = State.WAITING;
-                    return timeUsed;
-                }
-            }
-        }
-        return 0;
+        return table.sendToIO(id, time);
     }
 
     /**
@@ -221,8 +235,7 @@ public class Process implements Comparable<Process> {
      * @param time is the amount of time to wait.
      */
     public void wait(int time) {
-        totalTime += time;
-        waitingTime += time;
+        table.wait(id, time);
     }
 
     /**
@@ -230,7 +243,10 @@ public class Process implements Comparable<Process> {
      * @return is the turnaround time.
      */
     public int getTurnaroundTime() {
-        if (this.isFinished()) return waitingTime + cpuTime + ioTime;
+        if (this.isFinished()) {
+            return table.get(ProcessTable.WAITING_TIME, id) + table.get(ProcessTable.CPU_TIME, id)
+                    + table.get(ProcessTable.IO_TIME, id);
+        }
         return 0;
     }
 
@@ -239,19 +255,31 @@ public class Process implements Comparable<Process> {
      * @return - int
      */
     public int getResponseTime() {
-        return firstRunTime - arrivalTime;
+        return table.get(ProcessTable.FIRST_RUN_TIME, id) - table.get(ProcessTable.ARRIVAL_TIME, id);
     }
 
+    /**
+     * Get the time the process arrives.
+     * @return - int.
+     */
+    public int getArrivalTime() { return table.get(ProcessTable.ARRIVAL_TIME, id); }
+
     /**
      * Get first run time.
      * @return - int.
      */
-    public int getFirstRuntTime() { return firstRunTime; }
+    public int getFirstRuntTime() { return table.get(ProcessTable.FIRST_RUN_TIME, id); }
     /**
      * Set when this process first CPU execution is run.
      * @param time - int.
      */
-    public void setFirstRunTime(int time) { this.firstRunTime = time; }
+    public void setFirstRunTime(int time) { table.set(ProcessTable.FIRST_RUN_TIME, id, time); }
+
+    /**
+     * Set the process' own clock, e.g. to the time it arrives at a scheduler that is already running.
+     * @param time - int.
+     */
+    public void setCurrentTick(int time) { table.set(ProcessTable.CURRENT_TICK, id, time); }
 
     /**
      * Return boolean value if the process is finished or not.
@@ -261,7 +289,7 @@ public class Process implements Comparable<Process> {
      * @return - boolean
      */
     public boolean isFinished() {
-        return bursts.isEmpty() || currentState == State.FINISHED;
+        return table.isFinished(id);
     }
 
     /**
@@ -269,7 +297,7 @@ public class Process implements Comparable<Process> {
      * @param finishTime - int.
      */
     public void setFinishTime(int finishTime) {
-        this.finishTime = finishTime;
+        table.set(ProcessTable.FINISH_TIME, id, finishTime);
     }
 
     /**
@@ -277,7 +305,7 @@ public class Process implements Comparable<Process> {
      * @return - String.
      */
     public String getName() {
-        return name;
+        return table.getName(id);
     }
 
     /**
@@ -285,7 +313,7 @@ public class Process implements Comparable<Process> {
      * @return - int.
      */
     public int getPriority() {
-        return priority;
+        return table.get(ProcessTable.PRIORITY, id);
     }
 
     /**
@@ -293,7 +321,9 @@ public class Process implements Comparable<Process> {
      * @param priority - int
      */
     public void setPriority(int priority) {
-        this.priority = priority;
+        table.set(ProcessTable.PRIORITY, id, priority);
+        // the priority is part of the ready queue ordering, so keep the queue sorted
+        if (heap != null) heap.update(this);
     }
 
     /**
@@ -301,7 +331,7 @@ public class Process implements Comparable<Process> {
      * @return - int.
      */
     public int getWaitingTime() {
-        return waitingTime;
+        return table.get(ProcessTable.WAITING_TIME, id);
     }
 
     /**
@@ -309,7 +339,7 @@ public class Process implements Comparable<Process> {
      * @return - int.
      */
     public int getCpuTime() {
-        return cpuTime;
+        return table.get(ProcessTable.CPU_TIME, id);
     }
 
     /**
@@ -317,7 +347,7 @@ public class Process implements Comparable<Process> {
      * @return 0 int
      */
     public int getIoTime() {
-        return ioTime;
+        return table.get(ProcessTable.IO_TIME, id);
     }
 
     /**
@@ -325,7 +355,7 @@ public class Process implements Comparable<Process> {
      * @return - int.
      */
     public int getTotalTime() {
-        return totalTime;
+        return table.get(ProcessTable.TOTAL_TIME, id);
     }
 
     /**
@@ -333,7 +363,7 @@ public class Process implements Comparable<Process> {
      * @return - int
      */
     public int getFinishTime() {
-        return finishTime;
+        return table.get(ProcessTable.FINISH_TIME, id);
     }
 
     /**
@@ -341,7 +371,7 @@ public class Process implements Comparable<Process> {
      * @return - State
      */
     public State getCurrentState() {
-        return currentState;
+        return table.getState(id);
     }
 
     /**
@@ -349,23 +379,23 @@ public class Process implements Comparable<Process> {
      * @param currentState - new State.
      */
     public void setCurrentState(State currentState) {
-        this.currentState = currentState;
+        table.setState(id, currentState);
     }
 
     public int getCurrentDuration() {
-        return (isFinished() ? 0 : bursts.peek().duration);
+        return (isFinished() ? 0 : table.getBurst(id, table.get(ProcessTable.BURST_CURSOR, id)));
 
     }
 
     public BurstType getCurrentBurstType() {
-        return (isFinished() ? null : bursts.peek().type);
+        return (isFinished() ? null : table.getBurstType(id, table.get(ProcessTable.BURST_CURSOR, id)));
     }
 
     /**
      * Bumps the process off of the CPU so a higher priority process can run.
      */
     public void preempt() {
-        this.currentState = State.WAITING;
+        setCurrentState(State.WAITING);
     }
 
     /**
@@ -375,14 +405,13 @@ public class Process implements Comparable<Process> {
      * @return is the result of the comparison.
      */
     public int compareTo(Process other) {
-        if (this.priority != other.priority) {
-            return this.priority - other.priority;
+        int priority = getPriority();
+        int otherPriority = other.getPriority();
+        if (priority != otherPriority) {
+            return priority - otherPriority;
         } else {
-            Burst myBurst = bursts.peek();
-            Burst otherBurst = other.bursts.peek();
-
-            int myDuration = (myBurst.type == BurstType.CPU) ? myBurst.duration : 100;
-            int otherDuration = (otherBurst.type == BurstType.CPU) ? otherBurst.duration : 100;
+            int myDuration = (this.nextBurstType() == BurstType.CPU) ? this.nextBurstDuration() : 100;
+            int otherDuration = (other.nextBurstType() == BurstType.CPU) ? other.nextBurstDuration() : 100;
 
             return myDuration - otherDuration;
         }
@@ -391,9 +420,9 @@ public class Process implements Comparable<Process> {
     public String toString() {
         StringBuilder sb = new StringBuilder("");
 
-        sb.append(this.name + " Pri: " + this.priority + ": {");
-        for (Burst b : bursts) {
-            sb.append(b.type.toString() + ":" + b.duration + " ");
+        sb.append(getName() + " Pri: " + getPriority() + ": {");
+        for (int i = table.get(ProcessTable.BURST_CURSOR, id); i < table.get(ProcessTable.BURST_COUNT, id); i++) {
+            sb.append(table.getBurstType(id, i).toString() + ":" + table.getBurst(id, i) + " ");
         }
         sb.append("}");
         return sb.toString();
@@ -0,0 +1,182 @@
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue of processes where every process knows its own position in the heap.
+ * Works like java.util.PriorityQueue (and breaks ties the same way), but membership checks are constant time and
+ * removing a process or re-sorting it after its key changes are O(log n) instead of a linear search.
+ * A process can be in one ProcessHeap at a time.
+ *
+ * @author agent
+ */
+public class ProcessHeap extends AbstractQueue<Process> {
+    private final Comparator<? super Process> comparator;
+    private Process[] heap;
+    private int size;
+
+    /**
+     * Constructor for a heap ordered by the processes' natural ordering (Process.compareTo).
+     */
+    public ProcessHeap() {
+        this(Comparator.naturalOrder());
+    }
+
+    /**
+     * Constructor for a heap ordered by the given comparator.
+     * @param comparator - ordering of the processes, smallest first.
+     */
+    public ProcessHeap(Comparator<? super Process> comparator) {
+        this.comparator = comparator;
+        this.heap = new Process[16];
+        this.size = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean offer(Process proc) {
+        if (proc.heap != null) {
+            throw new IllegalStateException(proc.getName() + " is already in a ready queue");
+        }
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        proc.heap = this;
+        siftUp(size++, proc);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Process poll() {
+        if (size == 0) return null;
+        Process first = heap[0];
+        removeAt(0);
+        return first;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Process peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * Constant time membership check.
+     * @param o - object to look for.
+     * @return - boolean.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Process && ((Process) o).heap == this;
+    }
+
+    /**
+     * Remove a process from anywhere in the heap in O(log n).
+     * @param o - object to remove.
+     * @return - true if the object was in this heap.
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) return false;
+        removeAt(((Process) o).heapIndex);
+        return true;
+    }
+
+    /**
+     * Move a process to its new place after its key has changed, in either direction.
+     * @param proc - Process in this heap.
+     */
+    public void update(Process proc) {
+        if (!contains(proc)) return;
+        int index = proc.heapIndex;
+        siftDown(index, proc);
+        if (heap[index] == proc) siftUp(index, proc);
+    }
+
+    /**
+     * Move a process towards the front after its key has decreased.
+     * @param proc - Process in this heap.
+     */
+    public void decreaseKey(Process proc) {
+        if (contains(proc)) siftUp(proc.heapIndex, proc);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterate over the processes in heap order, not sorted order.
+     * @return - Iterator.
+     */
+    @Override
+    public Iterator<Process> iterator() {
+        return new Iterator<Process>() {
+            private int index = 0;
+
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            public Process next() {
+                if (index >= size) throw new NoSuchElementException();
+                return heap[index++];
+            }
+        };
+    }
+
+    private void removeAt(int index) {
+        Process removed = heap[index];
+        removed.heap = null;
+        removed.heapIndex = -1;
+        int last = --size;
+        if (last == index) {
+            heap[last] = null;
+        } else {
+            Process moved = heap[last];
+            heap[last] = null;
+            siftDown(index, moved);
+            if (heap[index] == moved) siftUp(index, moved);
+        }
+    }
+
+    private void siftUp(int index, Process proc) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Process parentProc = heap[parent];
+            if (comparator.compare(proc, parentProc) >= 0) break;
+            place(index, parentProc);
+            index = parent;
+        }
+        place(index, proc);
+    }
+
+    private void siftDown(int index, Process proc) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && comparator.compare(heap[child], heap[right]) > 0) child = right;
+            if (comparator.compare(proc, heap[child]) <= 0) break;
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, proc);
+    }
+
+    private void place(int index, Process proc) {
+        heap[index] = proc;
+        proc.heapIndex = index;
+    }
+}
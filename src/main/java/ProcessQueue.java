@@ -0,0 +1,130 @@
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO queue of processes linked through the processes themselves.
+ * Each process carries a pointer to the queue it is in plus its neighbours, so checking membership and removing a
+ * process from anywhere in the queue are constant time instead of a scan.  A process can only be in one
+ * ProcessQueue at a time; adding it to another one moves it there.
+ *
+ * @author agent
+ */
+public class ProcessQueue extends AbstractQueue<Process> {
+    private Process head;
+    private Process tail;
+    private int size;
+
+    /**
+     * Add a process to the back of the queue, taking it out of whatever queue it was in before.
+     * @param proc - Process.
+     * @return - true.
+     */
+    @Override
+    public boolean offer(Process proc) {
+        if (proc.queue != null) proc.queue.unlink(proc);
+        proc.queue = this;
+        proc.queuePrev = tail;
+        proc.queueNext = null;
+        if (tail == null) {
+            head = proc;
+        } else {
+            tail.queueNext = proc;
+        }
+        tail = proc;
+        size++;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Process poll() {
+        Process proc = head;
+        if (proc != null) unlink(proc);
+        return proc;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Process peek() {
+        return head;
+    }
+
+    /**
+     * Constant time membership check.
+     * @param o - object to look for.
+     * @return - boolean.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Process && ((Process) o).queue == this;
+    }
+
+    /**
+     * Constant time removal from anywhere in the queue.
+     * @param o - object to remove.
+     * @return - true if the object was in this queue.
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) return false;
+        unlink((Process) o);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Process> iterator() {
+        return new Iterator<Process>() {
+            private Process next = head;
+
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            public Process next() {
+                if (next == null) throw new NoSuchElementException();
+                Process proc = next;
+                next = proc.queueNext;
+                return proc;
+            }
+        };
+    }
+
+    /**
+     * Take a process out of the queue.
+     * @param proc - Process in this queue.
+     */
+    void unlink(Process proc) {
+        Process prev = proc.queuePrev;
+        Process next = proc.queueNext;
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.queueNext = next;
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.queuePrev = prev;
+        }
+        proc.queue = null;
+        proc.queuePrev = null;
+        proc.queueNext = null;
+        size--;
+    }
+}
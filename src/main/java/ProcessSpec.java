@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+/**
+ * Immutable definition of a process: its name, priority, arrival time and bursts.  A Process is the runtime state of
+ * one simulation of it, which consumes the bursts as it runs, so a spec can be built once, shared between threads
+ * and instantiated for every simulation (see WorkloadSpec).
+ *
+ * @author agent
+ */
+public final class ProcessSpec {
+    private final String name;
+    private final int priority;
+    private final int arrivalTime;
+    private final Process.BurstType firstBurstType;
+    // durations of the bursts, alternating from firstBurstType
+    private final int[] bursts;
+
+    /**
+     * Constructor for a process whose bursts start with a CPU burst.
+     * @param name - process name.
+     * @param priority - priority of process.
+     * @param arrivalTime - the time the process arrives.
+     * @param bursts - durations of the bursts, alternating CPU and IO.
+     */
+    public ProcessSpec(String name, int priority, int arrivalTime, int... bursts) {
+        this(name, priority, arrivalTime, Process.BurstType.CPU, bursts);
+    }
+
+    /**
+     * Constructor.
+     * @param name - process name.
+     * @param priority - priority of process.
+     * @param arrivalTime - the time the process arrives.
+     * @param firstBurstType - type of the first burst, the others alternate from it.
+     * @param bursts - durations of the bursts.
+     */
+    public ProcessSpec(String name, int priority, int arrivalTime, Process.BurstType firstBurstType, int... bursts) {
+        if (name == null || firstBurstType == null) throw new NullPointerException("name and first burst type needed");
+        this.name = name;
+        this.priority = priority;
+        this.arrivalTime = arrivalTime;
+        this.firstBurstType = firstBurstType;
+        this.bursts = bursts.clone();
+    }
+
+    /**
+     * Get the spec of a process, from the bursts it has left.
+     * @param proc - Process.
+     * @return - ProcessSpec.
+     */
+    public static ProcessSpec of(Process proc) {
+        ProcessTable table = proc.getTable();
+        int id = proc.getId();
+        int cursor = table.get(ProcessTable.BURST_CURSOR, id);
+        int[] bursts = new int[table.get(ProcessTable.BURST_COUNT, id) - cursor];
+        for (int i = 0; i < bursts.length; i++) bursts[i] = table.getBurst(id, cursor + i);
+        Process.BurstType first = bursts.length == 0 ? Process.BurstType.CPU : table.getBurstType(id, cursor);
+        return new ProcessSpec(proc.getName(), proc.getPriority(), table.get(ProcessTable.ARRIVAL_TIME, id), first,
+                bursts);
+    }
+
+    /**
+     * Create a process that hasn't run yet from this spec, stored in the given table.
+     * @param table - ProcessTable to add the process to.
+     * @return - Process.
+     */
+    public Process instantiate(ProcessTable table) {
+        return new Process(table, this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public int getArrivalTime() {
+        return arrivalTime;
+    }
+
+    /**
+     * Get the number of bursts.
+     * @return - int.
+     */
+    public int getBurstCount() {
+        return bursts.length;
+    }
+
+    /**
+     * Get the duration of a burst.
+     * @param index - position of the burst.
+     * @return - int.
+     */
+    public int getBurst(int index) {
+        return bursts[index];
+    }
+
+    /**
+     * Get the type of a burst.  Bursts alternate, starting from the first burst type.
+     * @param index - position of the burst.
+     * @return - BurstType.
+     */
+    public Process.BurstType getBurstType(int index) {
+        if ((index & 1) == 0) return firstBurstType;
+        return firstBurstType == Process.BurstType.CPU ? Process.BurstType.IO : Process.BurstType.CPU;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProcessSpec)) return false;
+        ProcessSpec other = (ProcessSpec) o;
+        return name.equals(other.name) && priority == other.priority && arrivalTime == other.arrivalTime
+                && (bursts.length == 0 || firstBurstType == other.firstBurstType)
+                && Arrays.equals(bursts, other.bursts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * name.hashCode() + priority) + Arrays.hashCode(bursts);
+    }
+
+    @Override
+    public String toString() {
+        return name + " priority=" + priority + " arrival=" + arrivalTime + " first=" + firstBurstType + " bursts="
+                + Arrays.toString(bursts);
+    }
+}
@@ -0,0 +1,459 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simulation data for a set of processes, stored as parallel arrays indexed by process ID.
+ * A Process is a view onto one row of a table.  Keeping every process of a simulation in one table lets bulk
+ * updates, like charging a stretch of quiet ticks to every process, run as a linear sweep over the arrays instead
+ * of visiting one object per process.
+ *
+ * The process logic only goes through the storage methods (get, set, getBurst, setBurst, getName, newRow), so a
+ * subclass can keep the data somewhere else, see OffHeapProcessTable.
+ *
+ * @author agent
+ */
+public class ProcessTable {
+    private static final Process.State[] STATES = Process.State.values();
+    private static final Process.BurstType[] BURST_TYPES = Process.BurstType.values();
+    // ordinals of Process.State and Process.BurstType, as constants so they can be used in switch statements
+    static final int RUNNING = 0;
+    static final int WAITING = 1;
+    static final int IO = 2;
+    static final int FINISHED = 3;
+    private static final int IO_BURST = 0;
+    private static final int CPU_BURST = 1;
+    private static final int NONE = -1;
+
+    // columns of the table, each one int per process
+    static final int PRIORITY = 0;
+    static final int ARRIVAL_TIME = 1;
+    static final int WAITING_TIME = 2;
+    static final int CPU_TIME = 3;
+    static final int IO_TIME = 4;
+    static final int TOTAL_TIME = 5;
+    static final int FINISH_TIME = 6;
+    static final int CURRENT_TICK = 7;
+    static final int FIRST_RUN_TIME = 8;
+    static final int ENTER_WAIT = 9;
+    // Process.State ordinal
+    static final int STATE = 10;
+    static final int BURST_COUNT = 11;
+    // index of the current burst, every burst before it has been completed
+    static final int BURST_CURSOR = 12;
+    // Process.BurstType ordinals, or NONE before the first burst is added; bursts alternate from the first type
+    static final int FIRST_BURST_TYPE = 13;
+    static final int LAST_ADDED_BURST_TYPE = 14;
+    // units of CPU burst completed per tick by the CPU the process is running on
+    static final int SPEED = 15;
+    static final int COLUMNS = 16;
+
+    // bulk tick code, vectorized if the Vector API is available
+    private static final TickKernel KERNEL = TickKernel.create();
+
+    // number of rows in use
+    int size;
+    private String[] names;
+    private int[][] columns;
+    // remaining duration of each burst of a row, packed in order
+    private int[][] bursts;
+
+    /**
+     * Default constructor.
+     */
+    public ProcessTable() {
+        this(16);
+    }
+
+    /**
+     * Constructor with room for a number of processes.  The table grows as needed.
+     * @param capacity - int.
+     */
+    public ProcessTable(int capacity) {
+        names = new String[capacity];
+        columns = new int[COLUMNS][capacity];
+        bursts = new int[capacity][];
+    }
+
+    /**
+     * Create an empty table that stores its rows the same way as this one.
+     * @return - ProcessTable.
+     */
+    public ProcessTable newEmpty() {
+        return new ProcessTable();
+    }
+
+    /**
+     * Get the number of processes in the table.
+     * @return - int.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add an empty row, with every column 0.
+     * @param name - process name.
+     * @return - the process ID of the new row.
+     */
+    int newRow(String name) {
+        if (size == names.length) {
+            int capacity = Math.max(size * 2, 1);
+            names = Arrays.copyOf(names, capacity);
+            for (int c = 0; c < COLUMNS; c++) columns[c] = Arrays.copyOf(columns[c], capacity);
+            bursts = Arrays.copyOf(bursts, capacity);
+        }
+        names[size] = name;
+        bursts[size] = new int[8];
+        return size++;
+    }
+
+    int get(int column, int id) {
+        return columns[column][id];
+    }
+
+    void set(int column, int id, int value) {
+        columns[column][id] = value;
+    }
+
+    String getName(int id) {
+        return names[id];
+    }
+
+    int getBurst(int id, int index) {
+        return bursts[id][index];
+    }
+
+    /**
+     * Set the duration of a burst, making room for it if it is past the end of the row's bursts.
+     * @param id - process ID.
+     * @param index - position of the burst.
+     * @param duration - int.
+     */
+    void setBurst(int id, int index, int duration) {
+        if (index >= bursts[id].length) bursts[id] = Arrays.copyOf(bursts[id], Math.max(index + 1, index * 2));
+        bursts[id][index] = duration;
+    }
+
+    /**
+     * Add a row for a new process that hasn't run yet.
+     * @param name - process name.
+     * @param priority - priority of process.
+     * @param arrivalTime - the time the process arrived.
+     * @return - the process ID of the new row.
+     */
+    int addRow(String name, int priority, int arrivalTime) {
+        int id = newRow(name);
+        set(PRIORITY, id, priority);
+        set(ARRIVAL_TIME, id, arrivalTime);
+        set(FIRST_RUN_TIME, id, -1);
+        set(STATE, id, WAITING);
+        set(FIRST_BURST_TYPE, id, NONE);
+        set(LAST_ADDED_BURST_TYPE, id, NONE);
+        set(SPEED, id, 1);
+        return id;
+    }
+
+    /**
+     * Add a row for a new process from its spec, with all of its bursts.
+     * @param spec - ProcessSpec.
+     * @return - the process ID of the new row.
+     */
+    int addRow(ProcessSpec spec) {
+        int id = addRow(spec.getName(), spec.getPriority(), spec.getArrivalTime());
+        int count = spec.getBurstCount();
+        for (int i = 0; i < count; i++) setBurst(id, i, spec.getBurst(i));
+        set(BURST_COUNT, id, count);
+        if (count > 0) {
+            set(FIRST_BURST_TYPE, id, spec.getBurstType(0).ordinal());
+            set(LAST_ADDED_BURST_TYPE, id, spec.getBurstType(count - 1).ordinal());
+        }
+        return id;
+    }
+
+    /**
+     * Add a copy of a row of another table.
+     * @param from - the table to copy from.
+     * @param row - process ID in that table.
+     * @return - the process ID of the new row.
+     */
+    int copyRow(ProcessTable from, int row) {
+        int id = newRow(from.getName(row));
+        for (int c = 0; c < COLUMNS; c++) set(c, id, from.get(c, row));
+        int count = from.get(BURST_COUNT, row);
+        for (int i = 0; i < count; i++) setBurst(id, i, from.getBurst(row, i));
+        return id;
+    }
+
+    /**
+     * Move a row down to a lower process ID, over the row that was there.  The old row is left unused.
+     * @param from - process ID of the row.
+     * @param to - process ID to move it to.
+     */
+    void moveRow(int from, int to) {
+        names[to] = names[from];
+        for (int c = 0; c < COLUMNS; c++) columns[c][to] = columns[c][from];
+        bursts[to] = bursts[from];
+    }
+
+    /**
+     * Drop every row from a process ID on, so the rows can be reused by newRow.
+     * @param newSize - the number of rows to keep.
+     */
+    void truncate(int newSize) {
+        Arrays.fill(names, newSize, size, null);
+        for (int c = 0; c < COLUMNS; c++) Arrays.fill(columns[c], newSize, size, 0);
+        Arrays.fill(bursts, newSize, size, null);
+        size = newSize;
+    }
+
+    /**
+     * Keep only the rows of the given processes, moving them down to the lowest process IDs in the same order.
+     * @param processes - processes with rows in this table, in increasing order of process ID.
+     * @return - true if the table was compacted, false and nothing is changed if a process isn't in this table or
+     *           isn't in order.
+     */
+    boolean compact(List<Process> processes) {
+        int last = -1;
+        for (Process p : processes) {
+            if (p.getTable() != this || p.getId() <= last) return false;
+            last = p.getId();
+        }
+        for (int i = 0; i < processes.size(); i++) {
+            Process p = processes.get(i);
+            if (p.getId() != i) {
+                moveRow(p.getId(), i);
+                p.setRow(i);
+            }
+        }
+        truncate(processes.size());
+        return true;
+    }
+
+    /**
+     * Add a burst to a process.  Burst types must alternate.
+     * @param id - process ID.
+     * @param type - BurstType
+     * @param duration - int
+     */
+    void addBurst(int id, Process.BurstType type, int duration) throws Process.InvalidBurstTypeException {
+        int t = type.ordinal();
+        int last = get(LAST_ADDED_BURST_TYPE, id);
+        if (last == NONE) {
+            set(FIRST_BURST_TYPE, id, t);
+        } else if (last == t) {
+            throw new Process.InvalidBurstTypeException("Invalid BurstType for queue. Attempted to add: " + type
+                                                + " but last added type is: " + BURST_TYPES[last]);
+        }
+        int count = get(BURST_COUNT, id);
+        setBurst(id, count, duration);
+        set(BURST_COUNT, id, count + 1);
+        set(LAST_ADDED_BURST_TYPE, id, t);
+    }
+
+    /**
+     * Get the type of a burst of a process.  Bursts alternate, so only the first type is stored.
+     * @param id - process ID.
+     * @param index - position of the burst.
+     * @return - BurstType ordinal.
+     */
+    private int burstTypeAt(int id, int index) {
+        int first = get(FIRST_BURST_TYPE, id);
+        if ((index & 1) == 0) return first;
+        return first == CPU_BURST ? IO_BURST : CPU_BURST;
+    }
+
+    /**
+     * Get the type of a burst of a process.
+     * @param id - process ID.
+     * @param index - position of the burst.
+     * @return - BurstType.
+     */
+    Process.BurstType getBurstType(int id, int index) {
+        return BURST_TYPES[burstTypeAt(id, index)];
+    }
+
+    /**
+     * Return true if the process has bursts left to process.
+     * @param id - process ID.
+     * @return - boolean.
+     */
+    boolean hasBurst(int id) {
+        return get(BURST_CURSOR, id) < get(BURST_COUNT, id);
+    }
+
+    /**
+     * Return true if the process has no more bursts or its State is FINISHED.
+     * @param id - process ID.
+     * @return - boolean.
+     */
+    boolean isFinished(int id) {
+        return !hasBurst(id) || get(STATE, id) == FINISHED;
+    }
+
+    Process.State getState(int id) {
+        return STATES[get(STATE, id)];
+    }
+
+    void setState(int id, Process.State newState) {
+        set(STATE, id, newState.ordinal());
+    }
+
+    private void add(int column, int id, int time) {
+        set(column, id, get(column, id) + time);
+    }
+
+    /**
+     * Runs several clock ticks at once for a process in whatever state it is currently in.
+     * @param id - process ID.
+     * @param time - number of clock ticks to run.
+     */
+    void tick(int id, int time) {
+        switch (get(STATE, id)) {
+            case WAITING:
+                wait(id, time);
+                break;
+            case RUNNING:
+                runOnCPU(id, time);
+                break;
+            case IO:
+                sendToIO(id, time);
+                break;
+        }
+        add(CURRENT_TICK, id, time);
+    }
+
+    /**
+     * Runs several clock ticks at once for every process in the table, in one sweep.  As with Process.tick(int),
+     * this should only be used for stretches where no process changes state before the last tick.
+     * @param time - number of clock ticks to run.
+     */
+    public void tickAll(int time) {
+        tickRange(0, size, time);
+    }
+
+    /**
+     * Runs several clock ticks at once for a range of rows, as tickAll(int) does for every row.  Only the rows in the
+     * range are touched, so disjoint ranges can be run on different threads.
+     * @param from - first process ID.
+     * @param to - one past the last process ID.
+     * @param time - number of clock ticks to run.
+     */
+    public void tickRange(int from, int to, int time) {
+        tickRange(KERNEL, from, to, time);
+    }
+
+    /**
+     * Runs several clock ticks at once for a range of rows with a given kernel, rather than the fastest available.
+     * @param kernel - TickKernel.
+     * @param from - first process ID.
+     * @param to - one past the last process ID.
+     * @param time - number of clock ticks to run.
+     */
+    void tickRange(TickKernel kernel, int from, int to, int time) {
+        kernel.tickRange(this, columns[STATE], columns[WAITING_TIME], columns[TOTAL_TIME], columns[CURRENT_TICK], from,
+                to, time);
+    }
+
+    /**
+     * Runs several clock ticks for a process that is running or in IO, apart from its tick count.  Used by the
+     * TickKernel for the rows it can't update column by column, because their current burst changes.
+     * @param id - process ID.
+     * @param time - number of clock ticks to run.
+     */
+    void tickBusy(int id, int time) {
+        if (get(STATE, id) == RUNNING) {
+            runOnCPU(id, time);
+        } else {
+            sendToIO(id, time);
+        }
+    }
+
+    /**
+     * Simulates a process running on the CPU for some amount of time.  See Process.runOnCPU(int).  The CPU burst
+     * goes down by the process' speed for every tick.
+     * @param id - process ID.
+     * @param time - the amount of time to run the process on the CPU.
+     * @return - the amount of time remaining after the process finishes its current CPU burst.
+     */
+    int runOnCPU(int id, int time) {
+        add(TOTAL_TIME, id, time);
+        if (get(FIRST_RUN_TIME, id) == -1) set(FIRST_RUN_TIME, id, get(CURRENT_TICK, id));
+        if (hasBurst(id)) {
+            int cursor = get(BURST_CURSOR, id);
+            if (burstTypeAt(id, cursor) == CPU_BURST) {
+                int duration = getBurst(id, cursor);
+                int speed = get(SPEED, id);
+                // CPU time is in ticks, the ones needed to finish the burst at this speed
+                add(CPU_TIME, id, Math.min((duration + speed - 1) / speed, time));
+                duration -= time * speed;
+                setBurst(id, cursor, duration);
+                if (duration <= 0) {
+                    set(BURST_CURSOR, id, ++cursor);
+                    if (isFinished(id)) {
+                        set(STATE, id, FINISHED);
+                    } else if (burstTypeAt(id, cursor) == IO_BURST) {
+                        set(STATE, id, IO);
+                    } else {
+                        set(STATE, id, WAITING);
+                    }
+                }
+                return Math.abs(duration);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Completes the whole current IO burst of a process at once.  See Process.sendToIO().
+     * @param id - process ID.
+     * @return - the amount of time until the process will return from I/O.
+     */
+    int sendToIO(int id) {
+        set(STATE, id, IO);
+        int cursor = get(BURST_CURSOR, id);
+        if (hasBurst(id) && burstTypeAt(id, cursor) == IO_BURST) {
+            int duration = getBurst(id, cursor);
+            set(BURST_CURSOR, id, cursor + 1);
+            add(IO_TIME, id, duration);
+            set(STATE, id, WAITING);
+            return duration;
+        }
+        return 0;
+    }
+
+    /**
+     * Sends a process to I/O for a specified duration.  See Process.sendToIO(int).
+     * @param id - process ID.
+     * @param time - the I/O time to process.
+     * @return - the amount of time actually used if the requested time is longer than the I/O burst duration.
+     */
+    int sendToIO(int id, int time) {
+        add(TOTAL_TIME, id, time);
+        set(STATE, id, IO);
+        if (hasBurst(id)) {
+            int cursor = get(BURST_CURSOR, id);
+            if (burstTypeAt(id, cursor) == IO_BURST) {
+                int duration = getBurst(id, cursor);
+                int timeUsed = Math.min(duration, time);
+                add(IO_TIME, id, timeUsed);
+                setBurst(id, cursor, duration - time);
+                if (duration - time <= 0) {
+                    set(BURST_CURSOR, id, cursor + 1);
+                    set(STATE, id, WAITING);
+                    return timeUsed;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds time to a process' wait timer.
+     * @param id - process ID.
+     * @param time - the amount of time to wait.
+     */
+    void wait(int id, int time) {
+        add(TOTAL_TIME, id, time);
+        add(WAITING_TIME, id, time);
+    }
+}
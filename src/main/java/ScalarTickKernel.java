@@ -0,0 +1,32 @@
+/**
+ * TickKernel that updates one row at a time.
+ *
+ * @author agent
+ */
+class ScalarTickKernel implements TickKernel {
+
+    @Override
+    public void tickRange(ProcessTable table, int[] state, int[] waitingTime, int[] totalTime, int[] currentTick,
+                          int from, int to, int time) {
+        tickRows(table, state, waitingTime, totalTime, currentTick, from, to, time);
+    }
+
+    /**
+     * Run several clock ticks for a range of rows.
+     * @param from - first row.
+     * @param to - one past the last row.
+     */
+    static void tickRows(ProcessTable table, int[] state, int[] waitingTime, int[] totalTime, int[] currentTick,
+                         int from, int to, int time) {
+        for (int id = from; id < to; id++) {
+            int s = state[id];
+            if (s == ProcessTable.WAITING) {
+                waitingTime[id] += time;
+                totalTime[id] += time;
+            } else if (s != ProcessTable.FINISHED) {
+                table.tickBusy(id, time);
+            }
+            currentTick[id] += time;
+        }
+    }
+}
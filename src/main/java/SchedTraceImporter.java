@@ -0,0 +1,544 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Imports the processes that ran on a Linux machine from the text output of ftrace (the trace or trace_pipe files,
+ * with the sched_switch and sched_wakeup events enabled) or of perf sched script, reading it in one pass.
+ *
+ * Each task becomes a process named after its command and PID, e.g. bash-1234, arriving when it is first seen.  Its
+ * bursts alternate between the time it spent on a CPU, from being switched in until it blocks, and the time it was
+ * blocked, until it is woken up.  Time spent runnable but waiting for a CPU is left out, since that is what the
+ * schedulers work out.  Its priority is its kernel priority less 120, which is its nice value for ordinary tasks and
+ * below -20 for real-time ones, so that lower is more important, as Priority orders them.  A task ends with the
+ * sched_process_exit event, a switch out in the dead state, or the end of the trace; a PID seen again after that is
+ * a new task.
+ *
+ * Processes come out in order of arrival, so the importer can be passed straight to SchedulerEngine.addArrivals.
+ * Memory is kept bounded for traces of any length: a task is split into several processes, named bash-1234.2 and so
+ * on, once it has maxBursts bursts, and the longest-running tasks are split when more than maxPending finished
+ * processes are waiting for them to finish, since everything arriving after them has to wait for them.
+ *
+ * Usage:
+ * <pre>
+ *     try (SchedTraceImporter importer = SchedTraceImporter.open(Path.of("sched.txt"))) {
+ *         RR rr = new RR(5);
+ *         rr.addArrivals(importer);
+ *         rr.process();
+ *     }
+ * </pre>
+ *
+ * @author agent
+ */
+public class SchedTraceImporter implements Iterator<ProcessSpec>, Closeable {
+    private static final String[] EVENTS = {"sched_switch: ", "sched_wakeup: ", "sched_wakeup_new: ",
+            "sched_process_exit: "};
+    private static final int SWITCH = 0, WAKEUP = 1, WAKEUP_NEW = 2, EXIT = 3;
+    private static final int RUNNING = 0, RUNNABLE = 1, BLOCKED = 2;
+
+    private final BufferedReader reader;
+    private final String source;
+    private long tickNanos = 1_000_000;
+    private int maxBursts = 1_000;
+    private int maxPending = 10_000;
+
+    private final Map<Integer, Task> tasks = new HashMap<>();
+    // tasks whose current process is open, by its arrival time
+    private final TreeSet<Task> live = new TreeSet<>(Comparator.comparingInt((Task t) -> t.arrival)
+            .thenComparingLong(t -> t.sequence));
+    // finished processes, waiting for the ones arriving before them to finish
+    private final PriorityQueue<Finished> finished = new PriorityQueue<>(Comparator
+            .comparingInt((Finished f) -> f.spec.getArrivalTime()).thenComparingLong(f -> f.sequence));
+    private long sequence;
+    private int lineNumber;
+    private boolean started, ended;
+    // time of the first event and the latest one, in nanoseconds; the clock never goes back
+    private long start = -1, clock;
+    private int lastArrival;
+
+    /**
+     * Task being followed through the trace.
+     */
+    private static final class Task {
+        final int pid;
+        String comm;
+        int priority;
+        int state;
+        // when the task entered its state
+        long since;
+        // time on a CPU in the CPU burst not yet ended, and whether it has been on one, perhaps for no time at all
+        long cpu;
+        boolean ran;
+        boolean exiting;
+        // the open process, if any
+        boolean open;
+        int arrival;
+        long sequence;
+        int[] bursts = new int[8];
+        int burstCount;
+        int processes;
+
+        Task(int pid) {
+            this.pid = pid;
+        }
+
+        void addBurst(int burst) {
+            if (burstCount == bursts.length) bursts = Arrays.copyOf(bursts, 2 * burstCount);
+            bursts[burstCount++] = burst;
+        }
+    }
+
+    private static final class Finished {
+        final ProcessSpec spec;
+        final long sequence;
+
+        Finished(ProcessSpec spec, long sequence) {
+            this.spec = spec;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param reader - the trace, read as processes are asked for; closed by close().
+     * @param source - name of the trace, for error messages.
+     */
+    public SchedTraceImporter(Reader reader, String source) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.source = source;
+    }
+
+    /**
+     * Open a trace file.
+     * @param path - trace file.
+     * @return - SchedTraceImporter, to be closed.
+     * @throws IOException - if the file can't be opened.
+     */
+    public static SchedTraceImporter open(Path path) throws IOException {
+        return new SchedTraceImporter(Files.newBufferedReader(path, StandardCharsets.UTF_8), path.toString());
+    }
+
+    /**
+     * Read a whole trace into a WorkloadSpec.
+     * @param path - trace file.
+     * @return - WorkloadSpec.
+     * @throws IOException - if the file can't be read.
+     */
+    public static WorkloadSpec read(Path path) throws IOException {
+        try (SchedTraceImporter importer = open(path)) {
+            return importer.toWorkload();
+        }
+    }
+
+    /**
+     * Set the length of a clock tick, 1 ms by default.  Every burst lasts at least one tick, and the trace can last
+     * at most Integer.MAX_VALUE ticks, about 24 days of 1 ms ticks or 35 minutes of 1 us ones.
+     * @param micros - microseconds per tick, at least 1.
+     * @return - this importer.
+     */
+    public SchedTraceImporter setTickMicros(long micros) {
+        checkNotStarted();
+        if (micros < 1) throw new IllegalArgumentException("Tick must be at least 1 microsecond: " + micros);
+        tickNanos = micros * 1_000;
+        return this;
+    }
+
+    /**
+     * Set the most bursts in one process, 1,000 by default; a task with more is split into several processes.
+     * @param maxBursts - at least 1.
+     * @return - this importer.
+     */
+    public SchedTraceImporter setMaxBursts(int maxBursts) {
+        checkNotStarted();
+        if (maxBursts < 1) throw new IllegalArgumentException("Most bursts must be at least 1: " + maxBursts);
+        this.maxBursts = maxBursts;
+        return this;
+    }
+
+    /**
+     * Set the most finished processes kept waiting for earlier ones, 10,000 by default.
+     * @param maxPending - at least 1.
+     * @return - this importer.
+     */
+    public SchedTraceImporter setMaxPending(int maxPending) {
+        checkNotStarted();
+        if (maxPending < 1) throw new IllegalArgumentException("Most pending must be at least 1: " + maxPending);
+        this.maxPending = maxPending;
+        return this;
+    }
+
+    private void checkNotStarted() {
+        if (started) throw new IllegalStateException("Can't change the settings of a started importer");
+    }
+
+    @Override
+    public boolean hasNext() {
+        started = true;
+        while (!canEmit()) {
+            if (ended) return false;
+            try {
+                String line = reader.readLine();
+                if (line == null) {
+                    end();
+                } else {
+                    lineNumber++;
+                    parse(line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the next process, in order of arrival.
+     * @return - ProcessSpec.
+     */
+    @Override
+    public ProcessSpec next() {
+        if (!hasNext()) throw new NoSuchElementException("No more processes in " + source);
+        return finished.poll().spec;
+    }
+
+    /**
+     * Return true if the earliest finished process can't be preceded by one that hasn't finished yet.
+     */
+    private boolean canEmit() {
+        return !finished.isEmpty()
+                && (live.isEmpty() || finished.peek().spec.getArrivalTime() <= live.first().arrival);
+    }
+
+    /**
+     * Get the number of lines read so far.
+     * @return - int.
+     */
+    public int getLineCount() {
+        return lineNumber;
+    }
+
+    /**
+     * Get the number of tasks being followed, which is most of the memory in use.
+     * @return - int.
+     */
+    public int getTaskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Get the number of finished processes waiting for earlier ones.
+     * @return - int.
+     */
+    public int getPendingCount() {
+        return finished.size();
+    }
+
+    /**
+     * Read the rest of the processes into an immutable spec.
+     * @return - WorkloadSpec.
+     */
+    public WorkloadSpec toWorkload() {
+        List<ProcessSpec> specs = new ArrayList<>();
+        while (hasNext()) specs.add(next());
+        return new WorkloadSpec(specs);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void parse(String line) {
+        int event = -1, at = -1;
+        for (int e = 0; e < EVENTS.length; e++) {
+            int i = line.indexOf(EVENTS[e]);
+            // the event name follows the timestamp, or "sched:" in perf output
+            while (i > 0 && line.charAt(i - 1) != ' ' && line.charAt(i - 1) != ':') i = line.indexOf(EVENTS[e], i + 1);
+            if (i > 0 && (at < 0 || i < at)) {
+                event = e;
+                at = i;
+            }
+        }
+        if (event < 0) return;
+        try {
+            int nameStart = line.startsWith("sched:", at - 6) ? at - 6 : at;
+            long time = timestamp(line, nameStart);
+            if (start < 0) start = time;
+            clock = Math.max(clock, time);
+            // arrival times are ints, so the whole trace has to fit in Integer.MAX_VALUE ticks
+            if ((clock - start) / tickNanos > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(String.format("trace runs for %.3f s, longer than %d ticks of "
+                        + "%d us; use a longer tick", (clock - start) / 1e9, Integer.MAX_VALUE, tickNanos / 1_000));
+            }
+            String payload = line.substring(at + EVENTS[event].length()).trim();
+            switch (event) {
+                case SWITCH: parseSwitch(payload); break;
+                case WAKEUP:
+                case WAKEUP_NEW: parseWakeup(payload); break;
+                case EXIT: exit(Integer.parseInt(value(payload, "pid="))); break;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+        }
+        // while too many processes wait, split the task keeping them waiting
+        while (finished.size() > maxPending && !canEmit() && !live.isEmpty()) split(live.first());
+    }
+
+    /**
+     * Parse the timestamp in seconds before the event name, e.g. "1234.567890:", into nanoseconds.
+     */
+    private static long timestamp(String line, int nameStart) {
+        int end = nameStart;
+        while (end > 0 && line.charAt(end - 1) == ' ') end--;
+        if (end == 0 || line.charAt(end - 1) != ':') throw new IllegalArgumentException("no timestamp");
+        int begin = line.lastIndexOf(' ', end - 1) + 1;
+        String stamp = line.substring(begin, end - 1);
+        int dot = stamp.indexOf('.');
+        long seconds = Long.parseLong(dot < 0 ? stamp : stamp.substring(0, dot));
+        long nanos = 0;
+        if (dot >= 0) {
+            String fraction = (stamp.substring(dot + 1) + "000000000").substring(0, 9);
+            nanos = Long.parseLong(fraction);
+        }
+        return seconds * 1_000_000_000L + nanos;
+    }
+
+    /**
+     * Get the value after key, up to the next space.
+     */
+    private static String value(String payload, String key) {
+        int i = payload.startsWith(key) ? 0 : payload.indexOf(" " + key) + 1;
+        if (i == 0 && !payload.startsWith(key)) throw new IllegalArgumentException("no " + key);
+        i += key.length();
+        int end = payload.indexOf(' ', i);
+        return end < 0 ? payload.substring(i) : payload.substring(i, end);
+    }
+
+    /**
+     * Get the command name between key and the next key, since it can contain spaces.
+     */
+    private static String comm(String payload, String key, String nextKey) {
+        int i = payload.indexOf(key);
+        int end = payload.indexOf(" " + nextKey, i);
+        if (i < 0 || end < 0) throw new IllegalArgumentException("no " + key);
+        return payload.substring(i + key.length(), end);
+    }
+
+    /**
+     * Task as perf prints it, "comm:pid [prio]".
+     */
+    private static final class CompactTask {
+        final String comm;
+        final int pid;
+        final int prio;
+
+        CompactTask(String text) {
+            int bracket = text.lastIndexOf(" [");
+            int close = text.indexOf(']', bracket);
+            // the command can contain colons, e.g. kworker/u16:2
+            int colon = bracket < 0 ? -1 : text.lastIndexOf(':', bracket);
+            if (close < 0 || colon < 0) throw new IllegalArgumentException("bad task " + text);
+            comm = text.substring(0, colon);
+            pid = Integer.parseInt(text.substring(colon + 1, bracket));
+            prio = Integer.parseInt(text.substring(bracket + 2, close));
+        }
+    }
+
+    private void parseSwitch(String payload) {
+        if (payload.contains("prev_pid=")) {
+            // prev_comm=bash prev_pid=1234 prev_prio=120 prev_state=S ==> next_comm=sshd next_pid=999 next_prio=120
+            switchOut(Integer.parseInt(value(payload, "prev_pid=")), comm(payload, "prev_comm=", "prev_pid="),
+                    Integer.parseInt(value(payload, "prev_prio=")), value(payload, "prev_state="));
+            switchIn(Integer.parseInt(value(payload, "next_pid=")), comm(payload, "next_comm=", "next_pid="),
+                    Integer.parseInt(value(payload, "next_prio=")));
+        } else {
+            // bash:1234 [120] S ==> sshd:999 [120]
+            int arrow = payload.indexOf(" ==> ");
+            if (arrow < 0) throw new IllegalArgumentException("bad sched_switch " + payload);
+            String prev = payload.substring(0, arrow).trim();
+            int close = prev.lastIndexOf(']');
+            CompactTask out = new CompactTask(prev.substring(0, close + 1));
+            switchOut(out.pid, out.comm, out.prio, prev.substring(close + 1).trim());
+            CompactTask in = new CompactTask(payload.substring(arrow + 5).trim());
+            switchIn(in.pid, in.comm, in.prio);
+        }
+    }
+
+    private void parseWakeup(String payload) {
+        if (payload.startsWith("comm=")) {
+            // comm=sshd pid=999 prio=120 target_cpu=002
+            wakeup(Integer.parseInt(value(payload, "pid=")), comm(payload, "comm=", "pid="),
+                    Integer.parseInt(value(payload, "prio=")));
+        } else {
+            // sshd:999 [120] CPU:002
+            CompactTask task = new CompactTask(payload.substring(0, payload.indexOf(']') + 1));
+            wakeup(task.pid, task.comm, task.prio);
+        }
+    }
+
+    /**
+     * Get a task, creating it in the given state if it is new.
+     */
+    private Task task(int pid, String comm, int prio, int state) {
+        Task task = tasks.get(pid);
+        if (task == null) {
+            task = new Task(pid);
+            task.state = state;
+            task.since = clock;
+            tasks.put(pid, task);
+        }
+        task.comm = comm;
+        task.priority = prio - 120;
+        return task;
+    }
+
+    private void switchOut(int pid, String comm, int prio, String state) {
+        // the idle task
+        if (pid == 0) return;
+        boolean seen = tasks.containsKey(pid);
+        Task task = task(pid, comm, prio, RUNNING);
+        if (!seen) {
+            // running since before the trace started; it can't arrive before what has already come out
+            task.since = start;
+            task.ran = true;
+            openProcess(task, lastArrival);
+        }
+        if (task.state == RUNNING) {
+            task.cpu += clock - task.since;
+            task.since = clock;
+        }
+        if (task.exiting || state.contains("X") || state.contains("Z")) {
+            endTask(task);
+        } else if (state.startsWith("R")) {
+            // preempted, still in the same CPU burst
+            task.state = RUNNABLE;
+        } else {
+            endCPUBurst(task);
+            task.state = BLOCKED;
+            if (task.open && task.burstCount >= maxBursts) closeProcess(task);
+        }
+    }
+
+    private void switchIn(int pid, String comm, int prio) {
+        if (pid == 0) return;
+        Task task = task(pid, comm, prio, RUNNABLE);
+        if (task.state == BLOCKED) wake(task);
+        if (!task.open) openProcess(task, arrivalTime());
+        task.state = RUNNING;
+        task.ran = true;
+        task.since = clock;
+    }
+
+    private void wakeup(int pid, String comm, int prio) {
+        if (pid == 0) return;
+        Task task = task(pid, comm, prio, RUNNABLE);
+        if (task.state == BLOCKED) wake(task);
+        if (!task.open) openProcess(task, arrivalTime());
+    }
+
+    private void exit(int pid) {
+        Task task = tasks.get(pid);
+        // ended with the switch out that follows, or the end of the trace
+        if (task != null) task.exiting = true;
+    }
+
+    /**
+     * End the blocked time of a task as an IO burst.
+     */
+    private void wake(Task task) {
+        // a burst only if the process has run, not if it blocked before arriving
+        if (task.open && task.burstCount > 0) task.addBurst(ticks(clock - task.since));
+        task.state = RUNNABLE;
+        task.since = clock;
+    }
+
+    private void endCPUBurst(Task task) {
+        // a run shorter than the timestamps' resolution is still a CPU burst of one tick, so bursts keep alternating
+        if (task.ran && task.open) task.addBurst(ticks(task.cpu));
+        task.cpu = 0;
+        task.ran = false;
+    }
+
+    private int ticks(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, (nanos + tickNanos / 2) / tickNanos));
+    }
+
+    private int arrivalTime() {
+        // checked against Integer.MAX_VALUE as each event is read
+        return (int) ((clock - start) / tickNanos);
+    }
+
+    private void openProcess(Task task, int arrival) {
+        task.open = true;
+        task.arrival = arrival;
+        task.sequence = sequence++;
+        task.burstCount = 0;
+        live.add(task);
+    }
+
+    /**
+     * Finish the open process of a task, leaving out blocked time at its end.
+     */
+    private void closeProcess(Task task) {
+        if (!task.open) return;
+        live.remove(task);
+        task.open = false;
+        int count = task.burstCount;
+        if (count % 2 == 0 && count > 0) count--;
+        if (count > 0) {
+            task.processes++;
+            String name = task.comm.replaceAll("\\s", "_") + "-" + task.pid
+                    + (task.processes > 1 ? "." + task.processes : "");
+            finished.add(new Finished(new ProcessSpec(name, task.priority, task.arrival,
+                    Arrays.copyOf(task.bursts, count)), sequence++));
+            lastArrival = Math.max(lastArrival, task.arrival);
+        }
+        task.burstCount = 0;
+        if (task.bursts.length > 64) task.bursts = new int[8];
+    }
+
+    private void endTask(Task task) {
+        endCPUBurst(task);
+        closeProcess(task);
+        tasks.remove(task.pid);
+    }
+
+    /**
+     * Finish the open process of a task now, and open a new one for the rest of it if it is runnable.
+     */
+    private void split(Task task) {
+        if (task.state == RUNNING) {
+            task.cpu += clock - task.since;
+            task.since = clock;
+        }
+        endCPUBurst(task);
+        closeProcess(task);
+        if (task.state != BLOCKED) openProcess(task, arrivalTime());
+    }
+
+    /**
+     * At the end of the trace, finish every task.
+     */
+    private void end() {
+        ended = true;
+        for (Task task : new ArrayList<>(tasks.values())) {
+            if (task.state == RUNNING) task.cpu += clock - task.since;
+            endTask(task);
+        }
+    }
+}
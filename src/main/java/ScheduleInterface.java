@@ -37,8 +37,27 @@ public interface ScheduleInterface {
     public int getTotalElapsedTime();
 
     /**
-     * Get the total number of clock ticks when the CPU was idle during the algorithm's run.
+     * Get the total number of clock ticks when the CPU was idle during the algorithm's run, summed over all CPUs.
      * @return
      */
     public int getTotalIdleCPUTime();
+
+    /**
+     * Get the number of CPUs simulated.
+     * @return - int.
+     */
+    public default int getCPUCount() {
+        return 1;
+    }
+
+    /**
+     * Get the number of clock ticks when one CPU was idle during the algorithm's run.  The total idle time is the
+     * sum of this over all CPUs.
+     * @param cpu - index of the CPU, from 0 to getCPUCount() - 1.
+     * @return - int.
+     */
+    public default int getIdleCPUTime(int cpu) {
+        if (cpu != 0) throw new IndexOutOfBoundsException("No CPU " + cpu + " of " + getCPUCount());
+        return getTotalIdleCPUTime();
+    }
 }
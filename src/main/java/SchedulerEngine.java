@@ -0,0 +1,999 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Simulation engine shared by all of the scheduling algorithms.
+ * The engine owns the clock, process state transitions, IO and the metrics.  The algorithm only decides which ready
+ * process runs next and for how long, through a SchedulingPolicy.
+ *
+ * Processes enter the ready queue when the clock reaches their arrival time.  Until then they are held in arrival
+ * order (see addProcess() and addArrivals()), and when nothing is running the clock jumps straight to the next
+ * arrival, so the engine also simulates open systems fed by a stream of arrivals.
+ *
+ * Every tick, each process is charged for the state it is in (waiting, running or IO), in the order the processes
+ * were added.  Processes that return from IO are handed to the policy in that order at the end of the tick, and the
+ * CPU decision for the next tick is made after that.  Ticks in which nothing changes state are charged in bulk, so
+ * time jumps from one event (burst completion, IO return, quantum expiry) to the next.
+ *
+ * The engine can simulate several CPUs (see setCPUCount()).  Each CPU has its own run queue, i.e. its own policy
+ * instance, and processes go back to the run queue of the CPU they last ran on.  A CPU with nothing to run steals a
+ * process from the CPU with the most ready processes.  CPUs can have different speeds (see setCPUSpeeds()), and a
+ * PlacementPolicy can pick the run queue a process joins when it becomes ready instead of its home CPU.
+ *
+ * Very large simulations can split the per-process updates of each tick into shards that run in parallel on a
+ * ForkJoinPool (see setParallelism()).  A shard only touches the rows of its own processes and records which of them
+ * finished, started IO or returned from IO; those transitions are then applied on the calling thread in process
+ * order, so the results are exactly those of a sequential run.
+ *
+ * @author agent
+ */
+public class SchedulerEngine implements ScheduleInterface {
+    // transitions of a process after a tick
+    private static final byte NO_TRANSITION = 0;
+    private static final byte TO_FINISHED = 1;
+    private static final byte TO_IO = 2;
+    private static final byte FROM_IO = 3;
+
+    // name of the algorithm, used for the display output file
+    private final String name;
+    // creates the algorithm that decides which process runs, once for each CPU
+    private final Supplier<SchedulingPolicy> policyFactory;
+    // number of CPUs simulated
+    private int cpuCount = 1;
+    // units of CPU burst each CPU completes per tick, null when they all run at speed 1
+    private int[] cpuSpeeds;
+    // picks the run queue a process joins when it becomes ready
+    private PlacementPolicy placement = PlacementPolicy.HOME;
+    // the run queue of each CPU, created when the simulation starts
+    private SchedulingPolicy[] policies;
+    // list of all processes that have arrived, regardless of status
+    List<Process> allProcesses;
+    // the processes that are ticked: those that have arrived, less most of the finished ones, in the order they arrived
+    List<Process> activeProcesses;
+    // number of finished processes still in activeProcesses
+    private int finishedActive;
+    // processes added before their arrival time, and how many of them have arrived
+    private final List<Process> arrivals = new ArrayList<>();
+    private int arrived;
+    // false when a process was added out of arrival order, so the ones still to arrive need sorting
+    private boolean arrivalsSorted = true;
+    // specs of processes still to arrive, in arrival order, and the next one of them; null when there are none
+    private Iterator<ProcessSpec> arrivalSource;
+    private ProcessSpec nextArrivalSpec;
+    // data of the active processes, so they can be ticked in bulk; the table the first process was created in
+    ProcessTable processTable;
+    // data of processes that are no longer ticked, in a table of the same kind as processTable
+    private ProcessTable retiredTable;
+    // processes currently doing IO, by the time they return
+    IOTimingWheel outForIO;
+    // processes that have already finished their work, in order of completion; only those not dropped yet if finished
+    // processes aren't retained
+    ProcessQueue finishedProcesses;
+    // false to drop finished processes, keeping only the totals below
+    private boolean retainFinished = true;
+    // number of processes finished, and how many of them have been dropped from allProcesses
+    private int finishedCount;
+    private int droppedCount;
+    // sums of the metrics of the finished processes
+    private long totalWaitingTime;
+    private long totalTurnaroundTime;
+    private long totalResponseTime;
+    // upcoming burst completions and quantum expiries, used to jump over ticks where nothing happens
+    EventQueue events;
+    // tracking variable for how many CPU ticks have elapsed
+    int timer;
+    // counter for how long the CPUs have been idle, in total over all of them
+    int idleCPUTime;
+    // how long each CPU has been idle
+    int[] coreIdleTime;
+    // pointers to the process currently executing on each CPU, null while the CPU is idle
+    Process[] procOnCPU;
+    // time at which the time quantum of the process running on each CPU is up
+    int[] quantumEnd;
+    // runs the shards of the per-process updates, null to run them all on the calling thread
+    private ForkJoinPool pool;
+    // number of shards to split the processes into when running on the pool
+    private int shardCount;
+    // the shards, rebuilt when the number of processes changes
+    private Shard[] shards;
+    // true when processes were moved out of the table, so it holds rows that mustn't be ticked
+    private boolean tableStale;
+    // switch variable indicating whether to display state at every context switch
+    private boolean displayMode = false;
+    // file to write output to if desired
+    FileWriter outFile = null;
+
+    /**
+     * Constructor for an engine with no processes yet.
+     * @param name - name of the algorithm.
+     * @param policyFactory - creates the SchedulingPolicy deciding which process runs, one for each CPU.
+     */
+    public SchedulerEngine(String name, Supplier<SchedulingPolicy> policyFactory) {
+        this.name = name;
+        this.policyFactory = policyFactory;
+        allProcesses = new ArrayList<>();
+        activeProcesses = new ArrayList<>();
+        outForIO = new IOTimingWheel();
+        finishedProcesses = new ProcessQueue();
+        events = new EventQueue();
+        timer = 0;
+        idleCPUTime = 0;
+    }
+
+    /**
+     * Constructor with the processes to run.
+     * @param name - name of the algorithm.
+     * @param policyFactory - creates the SchedulingPolicy deciding which process runs, one for each CPU.
+     * @param processes - List of Processes, each ready at its arrival time.
+     */
+    public SchedulerEngine(String name, Supplier<SchedulingPolicy> policyFactory, List<Process> processes) {
+        this(name, policyFactory);
+        for (Process p : processes) {
+            addProcess(p);
+        }
+    }
+
+    /**
+     * Add a process, ready to run at its arrival time.  A process whose arrival time has already passed, e.g. one
+     * added while the simulation runs, arrives at the current time.
+     * @param proc - Process.
+     */
+    public void addProcess(Process proc) {
+        if (proc.getArrivalTime() > timer) {
+            // held until the clock reaches its arrival time
+            if (arrived < arrivals.size()
+                    && proc.getArrivalTime() < arrivals.get(arrivals.size() - 1).getArrivalTime()) {
+                arrivalsSorted = false;
+            }
+            arrivals.add(proc);
+            return;
+        }
+        admit(proc);
+    }
+
+    /**
+     * Add processes that arrive later, created from their specs only when the clock reaches their arrival time, so
+     * processes still to arrive take no memory, e.g. those of a WorkloadGenerator.  Processes arriving at the same
+     * time as ones added with addProcess() come after them.
+     * @param specs - Iterator of ProcessSpecs, in order of arrival time.
+     */
+    public void addArrivals(Iterator<ProcessSpec> specs) {
+        if (arrivalSource != null) throw new IllegalStateException("Already streaming arrivals");
+        arrivalSource = specs;
+        nextArrivalSpec = specs.hasNext() ? specs.next() : null;
+        if (nextArrivalSpec == null) arrivalSource = null;
+    }
+
+    /**
+     * Add a process that has arrived.
+     * @param proc - Process.
+     */
+    private void admit(Process proc) {
+        // keep every process in one table, using the one the processes were created in when they share one
+        if (processTable == null) {
+            processTable = proc.getTable();
+        } else {
+            proc.moveTo(processTable);
+        }
+        allProcesses.add(proc);
+        activeProcesses.add(proc);
+        if (policies != null) {
+            proc.setCurrentTick(timer);
+            place(proc, (allProcesses.size() + droppedCount - 1) % cpuCount);
+        }
+    }
+
+    /**
+     * Add every process whose arrival time has come, in arrival order, those added with addProcess() first.
+     */
+    private void admitArrivals() {
+        if (arrived < arrivals.size()) {
+            sortArrivals();
+            while (arrived < arrivals.size() && arrivals.get(arrived).getArrivalTime() <= timer) {
+                admit(arrivals.get(arrived++));
+            }
+            if (arrived == arrivals.size()) {
+                // let the processes that arrived go when they finish
+                arrivals.clear();
+                arrived = 0;
+            }
+        }
+        while (nextArrivalSpec != null && nextArrivalSpec.getArrivalTime() <= timer) {
+            if (processTable == null) processTable = new ProcessTable();
+            admit(nextArrivalSpec.instantiate(processTable));
+            ProcessSpec next = arrivalSource.hasNext() ? arrivalSource.next() : null;
+            if (next != null && next.getArrivalTime() < nextArrivalSpec.getArrivalTime()) {
+                throw new IllegalArgumentException("Arrivals out of order: " + next.getName() + " at "
+                        + next.getArrivalTime() + " after " + nextArrivalSpec.getName() + " at "
+                        + nextArrivalSpec.getArrivalTime());
+            }
+            nextArrivalSpec = next;
+        }
+        if (nextArrivalSpec == null) arrivalSource = null;
+    }
+
+    /**
+     * Get the time the next process still to arrive arrives.
+     * @return - int, or Integer.MAX_VALUE if every process has arrived.
+     */
+    public int getNextArrivalTime() {
+        int next = Integer.MAX_VALUE;
+        if (arrived < arrivals.size()) {
+            sortArrivals();
+            next = arrivals.get(arrived).getArrivalTime();
+        }
+        if (nextArrivalSpec != null) next = Math.min(next, nextArrivalSpec.getArrivalTime());
+        return next;
+    }
+
+    private void sortArrivals() {
+        if (arrivalsSorted) return;
+        // stable, so processes arriving together arrive in the order they were added
+        arrivals.subList(arrived, arrivals.size()).sort(Comparator.comparingInt(Process::getArrivalTime));
+        arrivalsSorted = true;
+    }
+
+    /**
+     * Return true if some processes are still to arrive.
+     * @return - boolean.
+     */
+    public boolean hasPendingArrivals() {
+        return arrived < arrivals.size() || nextArrivalSpec != null;
+    }
+
+    /**
+     * Take a ready process out of the simulation, e.g. to migrate it to another machine.  The process comes from the
+     * CPU with the most ready processes, the one an idle CPU would steal from.
+     * @return - Process, still WAITING, or null if no process is ready.
+     */
+    public Process removeWaitingProcess() {
+        if (policies == null) start();
+        int victim = mostReadyCPU(-1);
+        if (victim == -1) return null;
+        Process proc = policies[victim].steal();
+        if (proc == null) return null;
+        allProcesses.remove(proc);
+        activeProcesses.remove(proc);
+        policies[victim].onExit(proc);
+        retire(proc);
+        tableStale = true;
+        return proc;
+    }
+
+    /**
+     * Set whether to keep the finished processes, for getFinishedProcesses() and the list process() returns.
+     * Without them a long open run, e.g. one streaming arrivals from a WorkloadGenerator, only holds the processes
+     * still in the system: finished ones are counted in getFinishedCount() and the totals, then dropped.
+     * Must be called before the simulation starts.
+     * @param retainFinished - boolean, true by default.
+     */
+    public void setRetainFinished(boolean retainFinished) {
+        if (policies != null) throw new IllegalStateException("The simulation has already started");
+        this.retainFinished = retainFinished;
+    }
+
+    /**
+     * Set the number of CPUs to simulate.  Must be called before the simulation starts.
+     * @param cpuCount - int, at least 1.
+     */
+    public void setCPUCount(int cpuCount) {
+        if (cpuCount < 1) throw new IllegalArgumentException("Need at least one CPU: " + cpuCount);
+        if (policies != null) throw new IllegalStateException("The number of CPUs can't change once started");
+        this.cpuCount = cpuCount;
+        cpuSpeeds = null;
+    }
+
+    /**
+     * Set the number of CPUs to simulate and the speed of each, in units of CPU burst completed per tick, e.g. 2 for
+     * a fast core and 1 for a slow one.  Must be called before the simulation starts.
+     * @param speeds - speed of each CPU, each at least 1.
+     */
+    public void setCPUSpeeds(int... speeds) {
+        setCPUCount(speeds.length);
+        for (int speed : speeds) {
+            if (speed < 1) throw new IllegalArgumentException("CPU speed must be at least 1: " + speed);
+        }
+        cpuSpeeds = speeds.clone();
+    }
+
+    /**
+     * Get the units of CPU burst a CPU completes per tick.
+     * @param cpu - index of the CPU.
+     * @return - int.
+     */
+    public int getCPUSpeed(int cpu) {
+        if (cpu < 0 || cpu >= cpuCount) throw new IndexOutOfBoundsException("No CPU " + cpu + " of " + cpuCount);
+        return cpuSpeeds == null ? 1 : cpuSpeeds[cpu];
+    }
+
+    /**
+     * Get the number of processes on a CPU or in its run queue.
+     * @param cpu - index of the CPU.
+     * @return - int.
+     */
+    public int getCPULoad(int cpu) {
+        if (policies == null) return 0;
+        return policies[cpu].getReadyCount() + (procOnCPU[cpu] == null ? 0 : 1);
+    }
+
+    /**
+     * Get the number of processes waiting in the run queues of all CPUs.
+     * @return - int.
+     */
+    public int getReadyCount() {
+        if (policies == null) return getUnfinishedProcessCount();
+        int ready = 0;
+        for (SchedulingPolicy policy : policies) ready += policy.getReadyCount();
+        return ready;
+    }
+
+    /**
+     * Split the per-process updates of every tick into shards run in parallel on a pool.  Results are the same as
+     * a sequential run; this only pays off with tens of thousands of processes or more.
+     * @param pool - ForkJoinPool to run the shards on, or null to run sequentially.
+     * @param shardCount - number of shards, at least 1; usually the pool's parallelism.
+     */
+    public void setParallelism(ForkJoinPool pool, int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("Need at least one shard: " + shardCount);
+        this.pool = pool;
+        this.shardCount = shardCount;
+        shards = null;
+    }
+
+    /**
+     * Set the policy choosing the run queue a process joins when it becomes ready.  Defaults to PlacementPolicy.HOME.
+     * @param placement - PlacementPolicy.
+     */
+    public void setPlacementPolicy(PlacementPolicy placement) {
+        this.placement = placement;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCPUCount() {
+        return cpuCount;
+    }
+
+    /**
+     * Create the run queues and spread the processes over them.
+     */
+    private void start() {
+        policies = new SchedulingPolicy[cpuCount];
+        for (int cpu = 0; cpu < cpuCount; cpu++) policies[cpu] = policyFactory.get();
+        procOnCPU = new Process[cpuCount];
+        quantumEnd = new int[cpuCount];
+        coreIdleTime = new int[cpuCount];
+        for (int i = 0; i < allProcesses.size(); i++) place(allProcesses.get(i), i % cpuCount);
+    }
+
+    /**
+     * Put a ready process in the run queue of the CPU the placement policy picks.
+     * @param proc - Process.
+     * @param home - index of the CPU the process belongs to so far.
+     */
+    private void place(Process proc, int home) {
+        int cpu = cpuCount == 1 ? 0 : placement.place(proc, home, this);
+        proc.cpu = cpu;
+        policies[cpu].onReady(proc);
+    }
+
+    /**
+     * Gets the number of process that have arrived but haven't yet finished their operations.
+     *
+     * @return is the number of unfinished processes.
+     */
+    public int getUnfinishedProcessCount() {
+        return allProcesses.size() + droppedCount - finishedCount;
+    }
+
+    /**
+     * Get the processes that have finished so far.
+     * @return - List of Processes, in the order of completion; empty if finished processes aren't retained.
+     */
+    public List<Process> getFinishedProcesses() {
+        return retainFinished ? new ArrayList<>(finishedProcesses) : new ArrayList<>();
+    }
+
+    /**
+     * Get the number of processes finished per clock tick so far.
+     * @return - double.
+     */
+    public double getThroughput() {
+        return timer == 0 ? 0 : 1.0 * finishedCount / timer;
+    }
+
+    /**
+     * Get the number of processes that have finished so far, whether or not they are retained.
+     * @return - int.
+     */
+    public int getFinishedCount() {
+        return finishedCount;
+    }
+
+    /**
+     * Get the sum of the waiting times of the processes that have finished so far.
+     * @return - long.
+     */
+    public long getTotalWaitingTime() {
+        return totalWaitingTime;
+    }
+
+    /**
+     * Get the sum of the turnaround times of the processes that have finished so far.
+     * @return - long.
+     */
+    public long getTotalTurnaroundTime() {
+        return totalTurnaroundTime;
+    }
+
+    /**
+     * Get the sum of the response times of the processes that have finished so far.
+     * @return - long.
+     */
+    public long getTotalResponseTime() {
+        return totalResponseTime;
+    }
+
+    /**
+     * Runs the algorithm on the process list until all processes have arrived and finished.
+     *
+     * @return is the list of finished process in the order of completion, empty if they aren't retained.
+     */
+    @Override
+    public List<Process> process() {
+        if (policies == null) start();
+        alignTable();
+        while (getUnfinishedProcessCount() > 0 || hasPendingArrivals()) {
+            admitArrivals();
+            // print output for this context switch if desired
+            if (schedule() && displayMode) displayState(true, false);
+            // run all processes up to the next event
+            advance(Integer.MAX_VALUE);
+        }
+        if (displayMode) {
+            displayState(true, false);
+            try {
+                outFile.close();
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
+        return getFinishedProcesses();
+    }
+
+    /**
+     * Runs the simulation up to a time, even when there is nothing to run, so several engines can be moved forward in
+     * step and processes added as they arrive, e.g. by a Cluster.
+     * @param time - clock time to stop at.
+     */
+    public void runUntil(int time) {
+        if (policies == null) start();
+        alignTable();
+        while (timer < time) {
+            admitArrivals();
+            if (schedule() && displayMode) displayState(true, false);
+            advance(time);
+        }
+    }
+
+    /**
+     * Runs the simulation up to a time as runUntil() does, but stops at the end of the first tick in which a process
+     * finishes, e.g. so an AdmissionController can let another process in.  Needs an unfinished process or a time
+     * to stop at.
+     * @param time - clock time to stop at.
+     * @return - true if a process finished.
+     */
+    public boolean runUntilCompletion(int time) {
+        if (policies == null) start();
+        alignTable();
+        int finished = finishedCount;
+        while (timer < time) {
+            admitArrivals();
+            if (schedule() && displayMode) displayState(true, false);
+            advance(time);
+            if (finishedCount > finished) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Make the process table hold exactly the active processes, in the order of activeProcesses.
+     */
+    private void alignTable() {
+        if (processTable == null) {
+            // nothing has arrived yet; keep the processes to come in the same kind of table they were created in
+            processTable = arrived < arrivals.size() ? arrivals.get(arrived).getTable().newEmpty() : new ProcessTable();
+        }
+        if (tableStale && processTable.compact(activeProcesses)) {
+            tableStale = false;
+        } else if (tableStale || processTable.size() != activeProcesses.size()) {
+            // the table also holds processes that aren't part of this run, which must not be ticked
+            ProcessTable table = processTable.newEmpty();
+            for (Process p : activeProcesses) p.moveTo(table);
+            processTable = table;
+            tableStale = false;
+        }
+    }
+
+    /**
+     * Move a process that is no longer ticked out of the process table, into a table of the same kind.  A finished
+     * process that isn't retained gets a small table of its own instead, which goes when nothing refers to it.
+     * @param proc - Process.
+     */
+    private void retire(Process proc) {
+        if (!retainFinished && proc.getCurrentState() == Process.State.FINISHED) {
+            proc.moveTo(new ProcessTable(1));
+            return;
+        }
+        if (retiredTable == null) retiredTable = processTable.newEmpty();
+        proc.moveTo(retiredTable);
+    }
+
+    /**
+     * Stop ticking finished processes once they are half of the active ones, so a long open run with a steady stream
+     * of arrivals costs time in proportion to the processes in the system, not to all that ever arrived.  Finished
+     * processes keep their data in the table of retired processes, or are dropped if they aren't retained.
+     */
+    private void retireFinished() {
+        if (finishedActive < 64 || finishedActive * 2 < activeProcesses.size()) return;
+        List<Process> unfinished = new ArrayList<>(activeProcesses.size() - finishedActive);
+        for (int i = 0; i < activeProcesses.size(); i++) {
+            Process p = activeProcesses.get(i);
+            if (p.getCurrentState() != Process.State.FINISHED) {
+                unfinished.add(p);
+            } else {
+                retire(p);
+            }
+        }
+        activeProcesses = unfinished;
+        finishedActive = 0;
+        tableStale = true;
+        alignTable();
+        if (!retainFinished) {
+            // none of them is ticked any more, so they don't need to be found in the finished queue either
+            finishedProcesses.clear();
+            int size = allProcesses.size();
+            allProcesses.removeIf(p -> p.getCurrentState() == Process.State.FINISHED);
+            droppedCount += size - allProcesses.size();
+        }
+    }
+
+    /**
+     * Makes the CPU decisions for the next tick.  Each CPU first schedules from its own run queue, then CPUs that
+     * are still idle steal from the others.
+     *
+     * @return - true if the process on any CPU changed.
+     */
+    private boolean schedule() {
+        boolean switched = false;
+        for (int cpu = 0; cpu < cpuCount; cpu++) {
+            if (schedule(cpu)) switched = true;
+        }
+        if (cpuCount > 1) {
+            for (int cpu = 0; cpu < cpuCount; cpu++) {
+                if (procOnCPU[cpu] != null) continue;
+                Process stolen = steal(cpu);
+                if (stolen != null) {
+                    dispatch(cpu, stolen);
+                    switched = true;
+                }
+            }
+        }
+        return switched;
+    }
+
+    /**
+     * Makes the CPU decision for the next tick on one CPU: takes the running process off the CPU if its burst is
+     * done, its time quantum is up or the policy preempts it, and picks the next one if the CPU is free.
+     *
+     * @param cpu - index of the CPU.
+     * @return - true if the process on the CPU changed.
+     */
+    private boolean schedule(int cpu) {
+        SchedulingPolicy policy = policies[cpu];
+        Process running = procOnCPU[cpu];
+        boolean switched = false;
+        if (running != null) {
+            if (running.getCurrentState() != Process.State.RUNNING) {
+                // the CPU burst finished on the last tick
+                procOnCPU[cpu] = null;
+                switched = true;
+            } else if (timer >= quantumEnd[cpu]) {
+                procOnCPU[cpu] = null;
+                running.preempt();
+                policy.onQuantumExpiry(running);
+                switched = true;
+            } else if (policy.shouldPreempt(running)) {
+                procOnCPU[cpu] = null;
+                running.preempt();
+                policy.onPreempt(running);
+                switched = true;
+            }
+        }
+        if (procOnCPU[cpu] == null) {
+            Process next = policy.pickNext();
+            if (next != null) {
+                dispatch(cpu, next);
+                switched = true;
+            }
+        }
+        return switched;
+    }
+
+    /**
+     * Start a process running on a CPU.
+     * @param cpu - index of the CPU.
+     * @param proc - Process.
+     */
+    private void dispatch(int cpu, Process proc) {
+        procOnCPU[cpu] = proc;
+        proc.setCurrentState(Process.State.RUNNING);
+        proc.setSpeed(getCPUSpeed(cpu));
+        int timeSlice = policies[cpu].getTimeSlice(proc);
+        quantumEnd[cpu] = timeSlice >= Integer.MAX_VALUE - timer ? Integer.MAX_VALUE : timer + timeSlice;
+        events.schedule(timer + proc.getTimeUntilStateChange());
+        if (quantumEnd[cpu] != Integer.MAX_VALUE) events.schedule(quantumEnd[cpu]);
+    }
+
+    /**
+     * Take a ready process from the CPU with the most of them, for an idle CPU to run.  The process moves to the
+     * idle CPU's run queue from then on.
+     * @param thief - index of the idle CPU.
+     * @return - Process, or null if no other CPU has a ready process.
+     */
+    private Process steal(int thief) {
+        int victim = mostReadyCPU(thief);
+        if (victim == -1) return null;
+        Process proc = policies[victim].steal();
+        if (proc != null) proc.cpu = thief;
+        return proc;
+    }
+
+    /**
+     * Find the CPU with the most ready processes.
+     * @param exclude - index of a CPU to skip, or -1.
+     * @return - index of the CPU, or -1 if no CPU has a ready process.
+     */
+    private int mostReadyCPU(int exclude) {
+        int victim = -1;
+        int mostReady = 0;
+        for (int cpu = 0; cpu < cpuCount; cpu++) {
+            int ready = cpu == exclude ? 0 : policies[cpu].getReadyCount();
+            if (ready > mostReady) {
+                mostReady = ready;
+                victim = cpu;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * Runs every process up to and including the next clock tick in which an event happens.  The ticks before it
+     * can't change any process' state, so they are charged in bulk.
+     * @param limit - clock time not to run past.
+     */
+    private void advance(int limit) {
+        // an arrival is an event too, and the next thing that happens when nothing has arrived yet
+        limit = Math.min(limit, getNextArrivalTime());
+        // with every process finished nothing happens until the limit, e.g. until the next arrival in a Cluster
+        int quietTicks = getUnfinishedProcessCount() == 0 ? limit - timer - 1
+                : Math.min(events.quietTicks(timer, outForIO), limit - timer - 1);
+        Shard[] shards = getShards();
+        if (quietTicks > 0) {
+            timer += quietTicks;
+            chargeIdleTime(quietTicks);
+            if (shards == null) {
+                processTable.tickAll(quietTicks);
+            } else {
+                runShards(shards, quietTicks);
+            }
+        }
+        timer++;
+        chargeIdleTime(1);
+        outForIO.advanceTo(timer);
+        if (shards == null) {
+            // indexed rather than for-each so the run loop doesn't allocate an iterator every event
+            for (int i = 0; i < activeProcesses.size(); i++) {
+                Process p = activeProcesses.get(i);
+                p.tick();
+                apply(p, transitionOf(p));
+            }
+        } else {
+            runShards(shards, 0);
+            // apply the transitions in process order, as the sequential loop does
+            for (Shard shard : shards) {
+                for (int k = 0; k < shard.changedCount; k++) {
+                    apply(activeProcesses.get(shard.changed[k]), shard.transitions[k]);
+                }
+            }
+        }
+        retireFinished();
+    }
+
+    /**
+     * Find the transition a process needs after its tick.  Only reads the process and the queues it is in, so it can
+     * run on any thread while the queues don't change.
+     * @param p - Process.
+     * @return - transition.
+     */
+    private byte transitionOf(Process p) {
+        if (p.isFinished()) {
+            // make sure it's in the finished queue (which also takes it out of IO)
+            return finishedProcesses.contains(p) ? NO_TRANSITION : TO_FINISHED;
+        } else if (p.getCurrentState() == Process.State.IO) {
+            // the CPU burst has completed so send to IO
+            return outForIO.contains(p) ? NO_TRANSITION : TO_IO;
+        } else if (p.getCurrentState() == Process.State.WAITING && outForIO.contains(p)) {
+            // the process returned from IO on this tick, so it is ready again
+            return FROM_IO;
+        }
+        return NO_TRANSITION;
+    }
+
+    /**
+     * Apply the transition a process needs after its tick.
+     * @param p - Process.
+     * @param transition - from transitionOf().
+     */
+    private void apply(Process p, byte transition) {
+        switch (transition) {
+            case TO_FINISHED:
+                p.setCurrentState(Process.State.FINISHED);
+                finishedProcesses.add(p);
+                finishedActive++;
+                finishedCount++;
+                totalWaitingTime += p.getWaitingTime();
+                totalTurnaroundTime += p.getTurnaroundTime();
+                totalResponseTime += p.getResponseTime();
+                policies[p.cpu].onExit(p);
+                break;
+            case TO_IO:
+                outForIO.add(p, timer + p.getCurrentDuration());
+                break;
+            case FROM_IO:
+                outForIO.remove(p);
+                place(p, p.cpu);
+                break;
+        }
+    }
+
+    /**
+     * Get the shards to split the per-process updates into.
+     * @return - Shard[], or null to update the processes sequentially.
+     */
+    private Shard[] getShards() {
+        if (pool == null) return null;
+        int size = activeProcesses.size();
+        int count = Math.min(shardCount, size);
+        if (count < 2) return null;
+        if (shards == null || shards[shards.length - 1].to != size || shards.length != count) {
+            shards = new Shard[count];
+            for (int s = 0; s < count; s++) shards[s] = new Shard((int) ((long) size * s / count),
+                    (int) ((long) size * (s + 1) / count));
+        }
+        return shards;
+    }
+
+    /**
+     * Run every shard, one on the calling thread and the others on the pool, and wait for them all.
+     * @param shards - Shard[].
+     * @param bulkTicks - number of quiet ticks to charge in bulk, or 0 to run an event tick.
+     */
+    private void runShards(Shard[] shards, int bulkTicks) {
+        for (Shard shard : shards) {
+            shard.reinitialize();
+            shard.bulkTicks = bulkTicks;
+        }
+        for (int s = 1; s < shards.length; s++) pool.execute(shards[s]);
+        shards[0].invoke();
+        for (int s = 1; s < shards.length; s++) shards[s].join();
+    }
+
+    /**
+     * A contiguous range of processes, and table rows, updated on one thread.  Serializable only because every
+     * ForkJoinTask is; it is never serialized.
+     */
+    @SuppressWarnings("serial")
+    private final class Shard extends RecursiveAction {
+        private final int from;
+        private final int to;
+        // quiet ticks to charge in bulk, or 0 for an event tick
+        private int bulkTicks;
+        // processes that need a transition after the event tick, as indexes into activeProcesses, and the transitions
+        private int[] changed = new int[16];
+        private byte[] transitions = new byte[16];
+        private int changedCount;
+
+        Shard(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (bulkTicks > 0) {
+                processTable.tickRange(from, to, bulkTicks);
+                return;
+            }
+            changedCount = 0;
+            for (int i = from; i < to; i++) {
+                Process p = activeProcesses.get(i);
+                p.tick();
+                byte transition = transitionOf(p);
+                if (transition == NO_TRANSITION) continue;
+                if (changedCount == changed.length) {
+                    changed = Arrays.copyOf(changed, changedCount * 2);
+                    transitions = Arrays.copyOf(transitions, changedCount * 2);
+                }
+                changed[changedCount] = i;
+                transitions[changedCount++] = transition;
+            }
+        }
+    }
+
+    /**
+     * Add time to the idle time of every CPU with nothing running.
+     * @param time - number of clock ticks.
+     */
+    private void chargeIdleTime(int time) {
+        for (int cpu = 0; cpu < cpuCount; cpu++) {
+            if (procOnCPU[cpu] == null) {
+                coreIdleTime[cpu] += time;
+                idleCPUTime += time;
+            }
+        }
+    }
+
+    /**
+     * Gets the CPU utilization metric for this run, over all CPUs
+     * @return
+     */
+    public double getCPUUtilization() {
+        return (1.0 * ((long) timer * cpuCount - idleCPUTime)) / ((long) timer * cpuCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTotalIdleCPUTime() {
+        return idleCPUTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getIdleCPUTime(int cpu) {
+        if (cpu < 0 || cpu >= cpuCount) throw new IndexOutOfBoundsException("No CPU " + cpu + " of " + cpuCount);
+        return coreIdleTime == null ? 0 : coreIdleTime[cpu];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTotalElapsedTime() {
+        return timer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDisplayMode(boolean displayMode) {
+        this.displayMode = displayMode;
+        if (displayMode){
+            try {
+                outFile = new FileWriter(new File(name + ".txt"));
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getDisplayMode() {
+        return displayMode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void displayState(boolean writeToFile, boolean writeToScreen) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Current Time: " + timer + "\n");
+        sb.append("\n");
+        if (policies == null) start();
+        for (int cpu = 0; cpu < cpuCount; cpu++) {
+            // with more than one CPU, label each CPU and its queues
+            String label = cpuCount == 1 ? "" : "CPU " + cpu + " ";
+            Process running = procOnCPU[cpu];
+            sb.append("Process on " + (cpuCount == 1 ? "CPU" : label.trim()) + ": " + ((running == null) ? "<none>"
+                    : running.getName() + ", remaining burst duration: " + running.getCurrentDuration()) + "\n");
+        }
+        sb.append("......................................................." + "\n");
+        for (int cpu = 0; cpu < cpuCount; cpu++) {
+            String label = cpuCount == 1 ? "" : "CPU " + cpu + " ";
+            for (Map.Entry<String, Collection<Process>> queue : policies[cpu].getReadyQueues().entrySet()) {
+                sb.append("\n");
+                sb.append("List of processes in the " + label + queue.getKey() + " queue:" + "\n");
+                sb.append("\n");
+                if (queue.getValue().isEmpty()) {
+                    sb.append("\t\t<none>" + "\n");
+                } else {
+                    sb.append("\t\tProcess\t\tBurst" + "\n");
+                    for (Process p : queue.getValue()) {
+                        sb.append("\t\t\t" + p.getName() + "\t\t" + p.getCurrentDuration() + "\n");
+                    }
+                }
+            }
+        }
+        sb.append("\n");
+        sb.append("......................................................." + "\n");
+        sb.append("List of processes in I/O:" + "\n");
+        sb.append("\n");
+        if (outForIO.isEmpty()) {
+            sb.append("\t\t<none>" + "\n");
+        } else {
+            sb.append("\t\tProcess\tRemaining I/O time" + "\n");
+            for (Process p : outForIO) {
+                sb.append("\t\t\t" + p.getName() + "\t\t" + (outForIO.getReturnTime(p) - timer) + "\n");
+            }
+        }
+        sb.append("......................................................." + "\n");
+        sb.append("\n");
+        sb.append("Finished processes: ");
+        for (Process p : finishedProcesses) sb.append(p.getName() + " ");
+        sb.append("\n");
+        if (getUnfinishedProcessCount() == 0 && finishedCount > 0) {
+            sb.append("\n");
+            sb.append("FINISHED" + "\n");
+            sb.append("\n");
+            sb.append("\t\tProcess\tTw\t\tTTr\t\tTr" + "\n");
+            for (Process p : allProcesses) {
+                sb.append("\t\t\t" + p.getName() + "\t\t" + p.getWaitingTime() + "\t\t" + p.getTurnaroundTime()
+                        + "\t\t" + p.getResponseTime() + "\n");
+            }
+            sb.append(String.format("%nAverage Wait:\t\t%.2f%n", 1.0 * totalWaitingTime / finishedCount));
+            sb.append(String.format("Average Turnaround:\t%.2f%n", 1.0 * totalTurnaroundTime / finishedCount));
+            sb.append(String.format("Average Response:\t%.2f%n", 1.0 * totalResponseTime / finishedCount));
+            sb.append("Total Time: " + timer + " Idle Time: " + idleCPUTime);
+            sb.append(String.format(" CPU Utilization: %.2f%%%n", getCPUUtilization() * 100));
+            if (cpuCount > 1) {
+                sb.append("Idle Time per CPU:");
+                for (int cpu = 0; cpu < cpuCount; cpu++) sb.append(" " + coreIdleTime[cpu]);
+                sb.append("\n");
+            }
+        }
+        sb.append(":::::::::::::::::::::::::::::::::::::::::::::::::::::::" + "\n");
+        sb.append("\n");
+        sb.append("\n");
+        if (writeToScreen) System.out.println(sb.toString());
+        if (writeToFile && outFile != null) {
+            try {
+                outFile.write(sb.toString());
+                outFile.flush();
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Interface for the part of a scheduling algorithm that decides which process runs.
+ * The SchedulerEngine owns the clock, process states, IO and metrics, and calls into the policy whenever a process
+ * becomes ready or the CPU needs something to run.  Processes passed to the policy are in the WAITING state.
+ * When several CPUs are simulated, each CPU has its own policy instance as its run queue.
+ *
+ * @author agent
+ */
+public interface SchedulingPolicy {
+    /**
+     * A process is ready to run, either because it was just added or because it returned from IO.
+     * @param proc - Process.
+     */
+    public void onReady(Process proc);
+
+    /**
+     * The CPU is free, so take the next process to run out of the ready queue(s).
+     * @return - Process, or null to leave the CPU idle.
+     */
+    public Process pickNext();
+
+    /**
+     * Get the time quantum for a process that is about to run.
+     * @param proc - Process.
+     * @return - int, or Integer.MAX_VALUE to run the whole CPU burst.
+     */
+    public default int getTimeSlice(Process proc) {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * A process used up its time quantum before finishing its CPU burst and has been taken off the CPU.
+     * @param proc - Process.
+     */
+    public default void onQuantumExpiry(Process proc) {
+        onReady(proc);
+    }
+
+    /**
+     * Checked before every tick while a process is running.
+     * @param running - the process on the CPU.
+     * @return - true to take it off the CPU and pick another process.
+     */
+    public default boolean shouldPreempt(Process running) {
+        return false;
+    }
+
+    /**
+     * A process was taken off the CPU because shouldPreempt() returned true.
+     * @param proc - Process.
+     */
+    public default void onPreempt(Process proc) {
+        onReady(proc);
+    }
+
+    /**
+     * A process finished, or was taken out of the simulation, and won't be passed to the policy again, so anything
+     * kept about it can be dropped.
+     * @param proc - Process.
+     */
+    public default void onExit(Process proc) {
+    }
+
+    /**
+     * Get the number of processes in the ready queue(s).
+     * @return - int.
+     */
+    public default int getReadyCount() {
+        int count = 0;
+        for (Collection<Process> queue : getReadyQueues().values()) count += queue.size();
+        return count;
+    }
+
+    /**
+     * Another CPU is idle, so take a ready process out of the ready queue(s) for it to run.  It will be returned to
+     * that CPU's policy from then on.
+     * @return - Process, or null to keep them all.
+     */
+    public default Process steal() {
+        return pickNext();
+    }
+
+    /**
+     * Get the ready queue(s) by name, for display.
+     * @return - Map of queue name to the processes in it.
+     */
+    public Map<String, Collection<Process>> getReadyQueues();
+}
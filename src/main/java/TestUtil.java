@@ -6,6 +6,9 @@ import java.util.HashMap;
  * @author Jared Scarr
  */
 public class TestUtil {
+    // the default test data as a shareable spec, built once
+    private static final WorkloadSpec DEFAULT_WORKLOAD = WorkloadSpec.of(new TestUtil().getDefaultTestData());
+
     private final String[] names = {"P1", "P2", "P3", "P4", "P5", "P6", "P7", "P8"};
     private final int[] priorities = {3, 6, 5, 4, 1, 2, 8, 7};
     private final int[] zeroPriorities = {0, 0, 0, 0, 0, 0, 0, 0};
@@ -26,6 +29,14 @@ public class TestUtil {
         return createMultipleProcess(names, priorities, burstMap);
     }
 
+    /**
+     * Return the default test data as an immutable spec, which can be instantiated for any number of runs.
+     * @return - WorkloadSpec.
+     */
+    public WorkloadSpec getDefaultWorkload() {
+        return DEFAULT_WORKLOAD;
+    }
+
     public Process[] getDefaultTestDataNoPriority() {
         for(int i = 0; i < names.length; i++) {
             burstMap.put(names[i], allBurstData[i]);
@@ -40,13 +51,22 @@ public class TestUtil {
      * @return - Process[]
      */
     public Process[] createMultipleProcess(String[] names, int[] priorities, HashMap<String, int[]> burstByNameMap) {
+        return createMultipleProcess(names, priorities, new int[priorities.length], burstByNameMap);
+    }
+
+    /**
+     * Return an array of Processes arriving at the given times.
+     * @param names - an array of each Process name.
+     * @param priorities - an array of each priority corresponding to the name.
+     * @param arrivalTimes - an array of each arrival time corresponding to the name.
+     * @param burstByNameMap - a hashMap containing the key: name, vale: int[] bursts
+     * @return - Process[]
+     */
+    public Process[] createMultipleProcess(String[] names, int[] priorities, int[] arrivalTimes,
+                                           HashMap<String, int[]> burstByNameMap) {
         Process[] procArr = new Process[priorities.length];
-        Process currProc = null;
         for (int i = 0; i < priorities.length; i++) {
-            for (int bursts : burstByNameMap.get(names[i])) {
-                currProc = this.createProcess(names[i], priorities[i], 0, burstByNameMap.get(names[i]));
-            }
-            procArr[i] = currProc;
+            procArr[i] = this.createProcess(names[i], priorities[i], arrivalTimes[i], burstByNameMap.get(names[i]));
         }
         return procArr;
     }
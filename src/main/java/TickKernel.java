@@ -0,0 +1,40 @@
+/**
+ * Code that charges a stretch of clock ticks to every row of a ProcessTable, working on its columns.
+ * Rows that are waiting only need columns updated, which a kernel can do many rows at a time.  Rows that are
+ * running or in IO also use up their current burst, so they are handed back to the table one at a time.
+ *
+ * @author agent
+ */
+interface TickKernel {
+
+    /**
+     * Run several clock ticks for a range of rows.  No row may change state before the last tick.  Only the rows in
+     * the range are touched, so disjoint ranges can be run on different threads.
+     * @param table - the table the columns belong to.
+     * @param state - STATE column.
+     * @param waitingTime - WAITING_TIME column.
+     * @param totalTime - TOTAL_TIME column.
+     * @param currentTick - CURRENT_TICK column.
+     * @param from - first row.
+     * @param to - one past the last row.
+     * @param time - number of clock ticks to run.
+     */
+    void tickRange(ProcessTable table, int[] state, int[] waitingTime, int[] totalTime, int[] currentTick, int from,
+                   int to, int time);
+
+    /**
+     * Get the fastest kernel available.  The vectorized kernel needs the jdk.incubator.vector module (run with
+     * --add-modules jdk.incubator.vector); without it, or with -Dscheduler.vector=false, the scalar one is used.
+     * @return - TickKernel.
+     */
+    static TickKernel create() {
+        if (Boolean.parseBoolean(System.getProperty("scheduler.vector", "true"))) {
+            try {
+                return (TickKernel) Class.forName("VectorTickKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Vector API isn't available
+            }
+        }
+        return new ScalarTickKernel();
+    }
+}
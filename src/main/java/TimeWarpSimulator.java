@@ -0,0 +1,516 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Optimistic parallel discrete event simulation (Time Warp) of a model made of logical processes (LPs), e.g. the
+ * nodes of a cluster, that only interact by sending each other timestamped events.
+ *
+ * Each worker thread owns some of the LPs and runs their events in timestamp order as fast as it can, without
+ * waiting for the other threads.  An LP saves a copy of its state before every event.  When an event arrives with a
+ * timestamp before events the LP has already run (a straggler), the LP rolls back: it restores the state saved before
+ * the first of those events, puts them back to be run again, and sends an anti-message for every event they sent,
+ * which cancels that event at its target, rolling the target back in turn if it already ran it.
+ *
+ * Every so often all workers stop, deliver every event in transit, and compute the global virtual time (GVT): the
+ * earliest timestamp of any event not yet run.  Nothing before the GVT can be rolled back any more, so the saved
+ * states and events before it are dropped (fossil collection).  The simulation ends when the GVT passes the end time.
+ *
+ * Events at an LP are ordered by timestamp, then by sending LP, then by the order the sender sent them, so results
+ * are deterministic and exactly those of runSequential(), as long as the model's event handling only depends on the
+ * LP's state and the event.  An event must be sent to a time after the event that sends it.
+ *
+ * @param <S> - type of the state of an LP.
+ *
+ * @author agent
+ */
+public class TimeWarpSimulator<S> {
+
+    /**
+     * The simulated system: the initial state of each LP and how it handles events.
+     * @param <S> - type of the state of an LP.
+     */
+    public interface Model<S> {
+        /**
+         * Create the state of an LP at the start of the simulation.
+         * @param lp - index of the LP.
+         * @return - state.
+         */
+        S initialState(int lp);
+
+        /**
+         * Copy the state of an LP, deeply enough that handling events on the original doesn't change the copy.
+         * @param state - state.
+         * @return - copy.
+         */
+        S copy(S state);
+
+        /**
+         * Handle an event at an LP, updating its state and sending any events that follow from it.
+         * @param lp - index of the LP.
+         * @param state - state of the LP, to update.
+         * @param time - timestamp of the event.
+         * @param payload - what happened, as passed to send() or schedule(); must not be changed.
+         * @param sender - sends events to LPs.
+         */
+        void handle(int lp, S state, long time, Object payload, Sender sender);
+    }
+
+    /**
+     * Sends events from the event being handled.
+     */
+    public interface Sender {
+        /**
+         * Send an event to an LP, possibly the one handling the current event.
+         * @param lp - index of the target LP.
+         * @param time - timestamp of the event, after the current event's.
+         * @param payload - what happens; must not be changed afterwards.
+         */
+        void send(int lp, long time, Object payload);
+    }
+
+    /**
+     * An event, or the anti-message cancelling one.  Events are identified by their sender and sequence number.
+     */
+    private static final class Event implements Comparable<Event> {
+        private final long time;
+        // index of the sending LP, or -1 for the events scheduled before the run
+        private final int sender;
+        // number of events the sender had sent before this one
+        private final long sequence;
+        private final int target;
+        private final Object payload;
+        private final boolean anti;
+
+        Event(long time, int sender, long sequence, int target, Object payload, boolean anti) {
+            this.time = time;
+            this.sender = sender;
+            this.sequence = sequence;
+            this.target = target;
+            this.payload = payload;
+            this.anti = anti;
+        }
+
+        Event antiMessage() {
+            return new Event(time, sender, sequence, target, null, true);
+        }
+
+        boolean cancels(Event event) {
+            return sender == event.sender && sequence == event.sequence;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            if (time != other.time) return Long.compare(time, other.time);
+            if (sender != other.sender) return Integer.compare(sender, other.sender);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * An event an LP has run, with what is needed to undo it.
+     */
+    private final class Processed {
+        private final Event event;
+        private final S stateBefore;
+        private final long sentBefore;
+        private final List<Event> sent = new ArrayList<>(2);
+
+        Processed(Event event, S stateBefore, long sentBefore) {
+            this.event = event;
+            this.stateBefore = stateBefore;
+            this.sentBefore = sentBefore;
+        }
+    }
+
+    /**
+     * An LP: its state, the events it has still to run and the ones it has run since the GVT.
+     */
+    private final class LogicalProcess implements Sender {
+        private final int id;
+        private S state;
+        // number of events sent so far, part of the saved state so events sent again get the same identity
+        private long sent;
+        private final PriorityQueue<Event> pending = new PriorityQueue<>();
+        // events run and not yet fossil collected, in the order they were run
+        private final ArrayDeque<Processed> processed = new ArrayDeque<>();
+        // events and anti-messages from other LPs, in the order they were sent
+        private final ConcurrentLinkedQueue<Event> inbox = new ConcurrentLinkedQueue<>();
+        // the event being handled
+        private Processed current;
+        private long processedCount;
+        private long rolledBackCount;
+
+        LogicalProcess(int id) {
+            this.id = id;
+            this.state = model.initialState(id);
+        }
+
+        /**
+         * Run the earliest pending event.
+         * @param saveState - true to keep what is needed to roll the event back.
+         */
+        void runNext(boolean saveState) {
+            Event event = pending.poll();
+            current = new Processed(event, saveState ? model.copy(state) : null, sent);
+            model.handle(id, state, event.time, event.payload, this);
+            if (saveState) processed.addLast(current);
+            current = null;
+            processedCount++;
+        }
+
+        @Override
+        public void send(int lp, long time, Object payload) {
+            if (current == null) throw new IllegalStateException("Events can only be sent while handling an event");
+            if (lp < 0 || lp >= lps.size()) throw new IndexOutOfBoundsException("No LP " + lp);
+            if (time <= current.event.time) {
+                throw new IllegalArgumentException("Event sent to " + time + " from an event at " + current.event.time);
+            }
+            Event event = new Event(time, id, sent++, lp, payload, false);
+            current.sent.add(event);
+            if (sequentialQueue != null) {
+                sequentialQueue.add(event);
+            } else if (lp == id) {
+                pending.add(event);
+            } else {
+                lps.get(lp).inbox.add(event);
+            }
+        }
+
+        /**
+         * Take in every event and anti-message in the inbox.
+         * @return - true if there were any.
+         */
+        boolean drainInbox() {
+            boolean any = false;
+            Event event;
+            while ((event = inbox.poll()) != null) {
+                receive(event);
+                any = true;
+            }
+            return any;
+        }
+
+        private void receive(Event event) {
+            if (event.anti) {
+                // the event is either still pending or has been run, in which case it has to be rolled back first
+                if (!removePending(event)) {
+                    rollback(event, true);
+                    removePending(event);
+                }
+            } else {
+                if (!processed.isEmpty() && event.compareTo(processed.peekLast().event) < 0) rollback(event, false);
+                pending.add(event);
+            }
+        }
+
+        private boolean removePending(Event anti) {
+            for (Event event : pending) {
+                if (anti.cancels(event)) return pending.remove(event);
+            }
+            return false;
+        }
+
+        /**
+         * Undo the events run after the given one, latest first.
+         * @param to - Event.
+         * @param inclusive - true to undo the given event as well.
+         */
+        private void rollback(Event to, boolean inclusive) {
+            while (!processed.isEmpty()) {
+                Processed last = processed.peekLast();
+                int order = last.event.compareTo(to);
+                if (order < 0 || (order == 0 && !inclusive)) break;
+                processed.pollLast();
+                state = last.stateBefore;
+                sent = last.sentBefore;
+                pending.add(last.event);
+                for (Event event : last.sent) {
+                    if (event.target == id) {
+                        pending.remove(event);
+                    } else {
+                        lps.get(event.target).inbox.add(event.antiMessage());
+                    }
+                }
+                rolledBackCount++;
+            }
+        }
+
+        /**
+         * Drop the saved states of events before the GVT, which can't be rolled back any more.
+         * @param gvt - global virtual time.
+         */
+        void fossilCollect(long gvt) {
+            while (!processed.isEmpty() && processed.peekFirst().event.time < gvt) processed.pollFirst();
+        }
+
+        long nextTime() {
+            Event next = pending.peek();
+            return next == null ? Long.MAX_VALUE : next.time;
+        }
+    }
+
+    /**
+     * A thread running some of the LPs.
+     */
+    private final class Worker implements Runnable {
+        private final List<LogicalProcess> owned = new ArrayList<>();
+        // earliest pending event of the owned LPs, for the GVT
+        private long localMinimum;
+
+        @Override
+        public void run() {
+            try {
+                boolean done = false;
+                while (!done) {
+                    try {
+                        runOptimistically();
+                    } catch (RuntimeException | Error e) {
+                        // keep taking part in the GVT round so the other workers see the failure there and stop
+                        failure.compareAndSet(null, e);
+                    }
+                    done = computeGVT();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            } catch (BrokenBarrierException e) {
+                // another worker was interrupted
+            }
+        }
+
+        /**
+         * Run up to eventsPerRound events of the owned LPs, earliest first, within the optimism window.
+         */
+        private void runOptimistically() {
+            long limit = gvt > endTime - optimismWindow ? endTime : gvt + optimismWindow;
+            for (int n = 0; n < eventsPerRound; n++) {
+                for (LogicalProcess lp : owned) lp.drainInbox();
+                LogicalProcess next = null;
+                for (LogicalProcess lp : owned) {
+                    Event event = lp.pending.peek();
+                    if (event != null && event.time <= limit
+                            && (next == null || event.compareTo(next.pending.peek()) < 0)) {
+                        next = lp;
+                    }
+                }
+                if (next == null) return;
+                next.runNext(true);
+            }
+        }
+
+        /**
+         * Stop with the other workers, deliver every event in transit, and compute the GVT.
+         * @return - true if the simulation is done.
+         */
+        private boolean computeGVT() throws InterruptedException, BrokenBarrierException {
+            do {
+                stopBarrier.await();
+                // rollbacks while draining send anti-messages, so repeat until a round moves nothing
+                for (LogicalProcess lp : owned) {
+                    if (lp.drainInbox()) moved.set(true);
+                }
+                settleBarrier.await();
+            } while (!settled);
+            localMinimum = Long.MAX_VALUE;
+            for (LogicalProcess lp : owned) localMinimum = Math.min(localMinimum, lp.nextTime());
+            gvtBarrier.await();
+            for (LogicalProcess lp : owned) lp.fossilCollect(gvt);
+            return gvt == Long.MAX_VALUE || gvt > endTime || failure.get() != null;
+        }
+    }
+
+    private final Model<S> model;
+    private final int lpCount;
+    // events scheduled before the run
+    private final List<Event> initialEvents = new ArrayList<>();
+    // no events after this time are run
+    private long endTime = Long.MAX_VALUE;
+    // how far past the GVT LPs may run ahead
+    private long optimismWindow = Long.MAX_VALUE;
+    // events each worker runs between GVT computations
+    private int eventsPerRound = 1024;
+
+    // state of the current run
+    private List<LogicalProcess> lps;
+    private PriorityQueue<Event> sequentialQueue;
+    private List<Worker> workers;
+    private CyclicBarrier stopBarrier;
+    private CyclicBarrier settleBarrier;
+    private CyclicBarrier gvtBarrier;
+    private final AtomicBoolean moved = new AtomicBoolean();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean settled;
+    private volatile long gvt;
+    private int gvtRounds;
+
+    /**
+     * Constructor.
+     * @param model - the simulated system.
+     * @param lpCount - number of LPs.
+     */
+    public TimeWarpSimulator(Model<S> model, int lpCount) {
+        if (lpCount < 1) throw new IllegalArgumentException("Need at least one LP: " + lpCount);
+        this.model = model;
+        this.lpCount = lpCount;
+    }
+
+    /**
+     * Schedule an event before the run, e.g. the arrival of a process.
+     * @param lp - index of the LP.
+     * @param time - timestamp of the event, at least 0.
+     * @param payload - what happens; must not be changed afterwards.
+     */
+    public void schedule(int lp, long time, Object payload) {
+        if (lp < 0 || lp >= lpCount) throw new IndexOutOfBoundsException("No LP " + lp);
+        if (time < 0) throw new IllegalArgumentException("Negative time: " + time);
+        initialEvents.add(new Event(time, -1, initialEvents.size(), lp, payload, false));
+    }
+
+    /**
+     * Set the time after which no events are run.  Defaults to running until no events are left.
+     * @param endTime - long.
+     */
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    /**
+     * Set how far past the GVT an LP may run ahead, which bounds the work lost to rollbacks and the memory used by
+     * saved states.  Defaults to unlimited.
+     * @param optimismWindow - long, at least 1.
+     */
+    public void setOptimismWindow(long optimismWindow) {
+        if (optimismWindow < 1) throw new IllegalArgumentException("Window must be at least 1: " + optimismWindow);
+        this.optimismWindow = optimismWindow;
+    }
+
+    /**
+     * Set the number of events each worker runs between GVT computations.
+     * @param eventsPerRound - int, at least 1.
+     */
+    public void setEventsPerRound(int eventsPerRound) {
+        if (eventsPerRound < 1) throw new IllegalArgumentException("Need at least one event: " + eventsPerRound);
+        this.eventsPerRound = eventsPerRound;
+    }
+
+    /**
+     * Run the simulation on one thread, one event at a time in timestamp order, without saving states.
+     * @return - the final state of each LP.
+     */
+    public List<S> runSequential() {
+        createLPs();
+        sequentialQueue = new PriorityQueue<>(initialEvents);
+        try {
+            while (!sequentialQueue.isEmpty() && sequentialQueue.peek().time <= endTime) {
+                Event event = sequentialQueue.poll();
+                LogicalProcess lp = lps.get(event.target);
+                lp.pending.add(event);
+                lp.runNext(false);
+            }
+        } finally {
+            sequentialQueue = null;
+        }
+        return states();
+    }
+
+    /**
+     * Run the simulation optimistically on several threads, each running some of the LPs.
+     * @param threads - number of worker threads, at most one per LP is used.
+     * @return - the final state of each LP, the same as runSequential() returns.
+     */
+    public List<S> run(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Need at least one thread: " + threads);
+        createLPs();
+        for (Event event : initialEvents) lps.get(event.target).pending.add(event);
+        int workerCount = Math.min(threads, lpCount);
+        workers = new ArrayList<>();
+        for (int w = 0; w < workerCount; w++) workers.add(new Worker());
+        for (LogicalProcess lp : lps) workers.get(lp.id % workerCount).owned.add(lp);
+        stopBarrier = new CyclicBarrier(workerCount);
+        settleBarrier = new CyclicBarrier(workerCount, () -> settled = !moved.getAndSet(false));
+        gvtBarrier = new CyclicBarrier(workerCount, () -> {
+            long minimum = Long.MAX_VALUE;
+            for (Worker worker : workers) minimum = Math.min(minimum, worker.localMinimum);
+            gvt = minimum;
+            gvtRounds++;
+        });
+        moved.set(false);
+        failure.set(null);
+        gvtRounds = 0;
+        long start = Long.MAX_VALUE;
+        for (LogicalProcess lp : lps) start = Math.min(start, lp.nextTime());
+        gvt = start;
+
+        List<Thread> threadList = new ArrayList<>();
+        for (int w = 0; w < workerCount; w++) {
+            Thread thread = new Thread(workers.get(w), "time-warp-" + w);
+            threadList.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threadList) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Thread other : threadList) other.interrupt();
+                throw new IllegalStateException("Interrupted waiting for the simulation", e);
+            }
+        }
+        if (failure.get() != null) throw new IllegalStateException("The simulation failed", failure.get());
+        return states();
+    }
+
+    /**
+     * Get the number of events run in the last run, including ones rolled back.
+     * @return - long.
+     */
+    public long getProcessedEvents() {
+        long count = 0;
+        for (LogicalProcess lp : lps) count += lp.processedCount;
+        return count;
+    }
+
+    /**
+     * Get the number of events rolled back in the last run.
+     * @return - long.
+     */
+    public long getRolledBackEvents() {
+        long count = 0;
+        for (LogicalProcess lp : lps) count += lp.rolledBackCount;
+        return count;
+    }
+
+    /**
+     * Get the number of events run and not rolled back in the last run, the same as a sequential run processes.
+     * @return - long.
+     */
+    public long getCommittedEvents() {
+        return getProcessedEvents() - getRolledBackEvents();
+    }
+
+    /**
+     * Get the number of GVT computations in the last optimistic run.
+     * @return - int.
+     */
+    public int getGVTRounds() {
+        return gvtRounds;
+    }
+
+    private void createLPs() {
+        lps = new ArrayList<>(lpCount);
+        for (int i = 0; i < lpCount; i++) lps.add(new LogicalProcess(i));
+    }
+
+    private List<S> states() {
+        List<S> states = new ArrayList<>(lpCount);
+        for (LogicalProcess lp : lps) states.add(lp.state);
+        return states;
+    }
+}
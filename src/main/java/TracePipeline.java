@@ -0,0 +1,505 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the scheduling algorithms over a corpus of text traces (see WorkloadSpec.read()) in three stages connected by
+ * bounded queues: parser threads read the traces into workloads, simulator threads run every algorithm on each
+ * workload, and the calling thread adds the results up per algorithm as they come in.  A full queue blocks the stage
+ * feeding it, so only a few traces are in memory at a time however many there are.
+ *
+ * Each stage counts the items it handled and the time its threads spent working, blocked on a full output queue and
+ * starved on an empty input queue.  The stage that is busy the largest part of the time is the bottleneck; give it
+ * more threads.
+ *
+ * Usage:
+ * <pre>
+ *     TracePipeline pipeline = new TracePipeline(traces)
+ *             .add("FCFS", FCFS::new)
+ *             .add("RR", processes -&gt; new RR(5, processes))
+ *             .setSimulatorThreads(3);
+ *     pipeline.run();
+ *     System.out.print(pipeline.toTable());
+ *     System.out.print(pipeline.stageTable());
+ * </pre>
+ *
+ * @author agent
+ */
+public class TracePipeline {
+    private final List<Path> traces;
+    private final Map<String, Function<List<Process>, ScheduleInterface>> algorithms = new LinkedHashMap<>();
+    private int parserThreads = 1;
+    private int simulatorThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private int queueCapacity = 64;
+    // results of the last run
+    private final Map<String, Totals> totals = new LinkedHashMap<>();
+    private final List<Stage> stages = new ArrayList<>();
+    private long elapsedNanos;
+
+    // tells the next stage there is nothing more to come
+    private static final Object END = new Object();
+
+    /**
+     * Counters of one stage.
+     */
+    public static class Stage {
+        private final String name;
+        private final int threads;
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong blockedNanos = new AtomicLong();
+        private final AtomicLong starvedNanos = new AtomicLong();
+
+        Stage(String name, int threads) {
+            this.name = name;
+            this.threads = threads;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Get the number of items the stage handled: traces parsed, workloads simulated or results added up.
+         * @return - long.
+         */
+        public long getItems() {
+            return items.get();
+        }
+
+        /**
+         * Get the time the stage's threads spent working, summed over the threads.
+         * @return - long, nanoseconds.
+         */
+        public long getBusyNanos() {
+            return busyNanos.get();
+        }
+
+        /**
+         * Get the time the stage's threads spent waiting for room in the next stage's queue.
+         * @return - long, nanoseconds.
+         */
+        public long getBlockedNanos() {
+            return blockedNanos.get();
+        }
+
+        /**
+         * Get the time the stage's threads spent waiting for work from the previous stage.
+         * @return - long, nanoseconds.
+         */
+        public long getStarvedNanos() {
+            return starvedNanos.get();
+        }
+
+        /**
+         * Get the fraction of the time the stage's threads were working, from 0 to 1.
+         * @param elapsedNanos - length of the run.
+         * @return - double.
+         */
+        public double getUtilization(long elapsedNanos) {
+            return elapsedNanos == 0 ? 0 : 1.0 * busyNanos.get() / ((double) elapsedNanos * threads);
+        }
+
+        /**
+         * Time a blocking queue operation as blocked or starved time.
+         */
+        private void put(BlockingQueue<Object> queue, Object item) throws InterruptedException {
+            long start = System.nanoTime();
+            queue.put(item);
+            blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        private Object take(BlockingQueue<Object> queue) throws InterruptedException {
+            long start = System.nanoTime();
+            Object item = queue.take();
+            starvedNanos.addAndGet(System.nanoTime() - start);
+            return item;
+        }
+    }
+
+    /**
+     * Sums of one algorithm over every workload.
+     */
+    public static class Totals {
+        private long workloads;
+        private long processes;
+        private long waitingTime;
+        private long turnaroundTime;
+        private long responseTime;
+        private long elapsedTime;
+        // elapsed time times CPUs, for the utilization
+        private long cpuTime;
+        private long idleTime;
+
+        public long getWorkloads() {
+            return workloads;
+        }
+
+        public long getProcesses() {
+            return processes;
+        }
+
+        public long getWaitingTime() {
+            return waitingTime;
+        }
+
+        public long getTurnaroundTime() {
+            return turnaroundTime;
+        }
+
+        public long getResponseTime() {
+            return responseTime;
+        }
+
+        /**
+         * Get the elapsed time of all the workloads, summed.
+         * @return - long.
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        public long getIdleTime() {
+            return idleTime;
+        }
+
+        public double getAverageWait() {
+            return processes == 0 ? 0 : 1.0 * waitingTime / processes;
+        }
+
+        public double getAverageTurnaround() {
+            return processes == 0 ? 0 : 1.0 * turnaroundTime / processes;
+        }
+
+        public double getAverageResponse() {
+            return processes == 0 ? 0 : 1.0 * responseTime / processes;
+        }
+
+        /**
+         * Get the fraction of CPU time that was not idle over all workloads, from 0 to 1.
+         * @return - double.
+         */
+        public double getCPUUtilization() {
+            return cpuTime == 0 ? 0 : 1.0 * (cpuTime - idleTime) / cpuTime;
+        }
+
+        /**
+         * Add another set of sums to this one.
+         */
+        private void add(Totals other) {
+            workloads += other.workloads;
+            processes += other.processes;
+            waitingTime += other.waitingTime;
+            turnaroundTime += other.turnaroundTime;
+            responseTime += other.responseTime;
+            elapsedTime += other.elapsedTime;
+            cpuTime += other.cpuTime;
+            idleTime += other.idleTime;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param traces - paths of the text traces to run.
+     */
+    public TracePipeline(List<Path> traces) {
+        this.traces = List.copyOf(traces);
+    }
+
+    /**
+     * Get the paths of the traces in a directory, in name order.
+     * @param directory - directory to list.
+     * @param suffix - ending of the trace file names, e.g. ".trace".
+     * @return - List of Paths.
+     * @throws IOException - if the directory can't be listed.
+     */
+    public static List<Path> listTraces(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix) && Files.isRegularFile(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Add an algorithm to run on every workload.
+     * @param name - name of the algorithm.
+     * @param factory - builds the algorithm for a list of processes.
+     * @return - this pipeline.
+     */
+    public TracePipeline add(String name, Function<List<Process>, ScheduleInterface> factory) {
+        algorithms.put(name, factory);
+        return this;
+    }
+
+    /**
+     * Set the number of threads reading traces, 1 by default.
+     * @param threads - at least 1.
+     * @return - this pipeline.
+     */
+    public TracePipeline setParserThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Need at least one parser thread: " + threads);
+        parserThreads = threads;
+        return this;
+    }
+
+    /**
+     * Set the number of threads running the algorithms, one less than the number of processors by default.
+     * @param threads - at least 1.
+     * @return - this pipeline.
+     */
+    public TracePipeline setSimulatorThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Need at least one simulator thread: " + threads);
+        simulatorThreads = threads;
+        return this;
+    }
+
+    /**
+     * Set the capacity of each queue between stages, 64 by default.
+     * @param capacity - at least 1.
+     * @return - this pipeline.
+     */
+    public TracePipeline setQueueCapacity(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Queue capacity must be at least 1: " + capacity);
+        queueCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * Run every algorithm on every trace.
+     * @return - Totals of each algorithm, in the order they were added.
+     * @throws IllegalStateException - if a trace can't be read or parsed, or an algorithm fails.
+     */
+    public Map<String, Totals> run() {
+        if (algorithms.isEmpty()) throw new IllegalStateException("No algorithms to run");
+        List<String> names = new ArrayList<>(algorithms.keySet());
+        List<Function<List<Process>, ScheduleInterface>> factories = new ArrayList<>(algorithms.values());
+        totals.clear();
+        for (String name : names) totals.put(name, new Totals());
+        stages.clear();
+        Stage parse = new Stage("parse", parserThreads);
+        Stage simulate = new Stage("simulate", simulatorThreads);
+        Stage aggregate = new Stage("aggregate", 1);
+        stages.add(parse);
+        stages.add(simulate);
+        stages.add(aggregate);
+
+        BlockingQueue<Object> workloads = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Object> results = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger nextTrace = new AtomicInteger();
+        AtomicInteger parsersLeft = new AtomicInteger(parserThreads);
+        AtomicInteger simulatorsLeft = new AtomicInteger(simulatorThreads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        // parsers: read the next trace until there are none left, then the last one tells every simulator
+        Runnable parser = stageTask(parse, failure, threads, () -> {
+            for (int i = nextTrace.getAndIncrement(); i < traces.size(); i = nextTrace.getAndIncrement()) {
+                long start = System.nanoTime();
+                WorkloadSpec workload;
+                try {
+                    workload = WorkloadSpec.read(traces.get(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Can't read " + traces.get(i), e);
+                }
+                parse.busyNanos.addAndGet(System.nanoTime() - start);
+                parse.items.incrementAndGet();
+                parse.put(workloads, workload);
+            }
+            if (parsersLeft.decrementAndGet() == 0) {
+                for (int i = 0; i < simulatorThreads; i++) parse.put(workloads, END);
+            }
+        });
+        // simulators: run every algorithm on a workload, then the last one tells the aggregator
+        Runnable simulator = stageTask(simulate, failure, threads, () -> {
+            for (Object item = simulate.take(workloads); item != END; item = simulate.take(workloads)) {
+                long start = System.nanoTime();
+                WorkloadSpec workload = (WorkloadSpec) item;
+                Totals[] result = new Totals[factories.size()];
+                for (int a = 0; a < result.length; a++) result[a] = simulate(factories.get(a), workload);
+                simulate.busyNanos.addAndGet(System.nanoTime() - start);
+                simulate.items.incrementAndGet();
+                simulate.put(results, result);
+            }
+            if (simulatorsLeft.decrementAndGet() == 0) simulate.put(results, END);
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < parserThreads; i++) threads.add(new Thread(parser, "pipeline-parse-" + i));
+        for (int i = 0; i < simulatorThreads; i++) threads.add(new Thread(simulator, "pipeline-simulate-" + i));
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+        try {
+            // aggregator, on this thread; polls so it notices when another stage fails
+            while (failure.get() == null) {
+                long waitStart = System.nanoTime();
+                Object item = results.poll(10, TimeUnit.MILLISECONDS);
+                aggregate.starvedNanos.addAndGet(System.nanoTime() - waitStart);
+                if (item == END) break;
+                if (item == null) continue;
+                long addStart = System.nanoTime();
+                Totals[] result = (Totals[]) item;
+                for (int a = 0; a < result.length; a++) totals.get(names.get(a)).add(result[a]);
+                aggregate.busyNanos.addAndGet(System.nanoTime() - addStart);
+                aggregate.items.incrementAndGet();
+            }
+            for (Thread thread : threads) thread.join();
+        } catch (InterruptedException e) {
+            for (Thread thread : threads) thread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted running the pipeline", e);
+        }
+        elapsedNanos = System.nanoTime() - start;
+        if (failure.get() != null) throw new IllegalStateException("A stage of the pipeline failed", failure.get());
+        return getTotals();
+    }
+
+    /**
+     * Interface for the body of a stage thread.
+     */
+    private interface StageBody {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Wrap the body of a stage thread so that a failure stops every thread of the pipeline.
+     */
+    private static Runnable stageTask(Stage stage, AtomicReference<Throwable> failure, List<Thread> threads,
+                                      StageBody body) {
+        return () -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                // stopped because another thread failed
+            } catch (Throwable e) {
+                if (failure.compareAndSet(null, e)) {
+                    // the others may be blocked on a queue this thread would never have served
+                    for (Thread thread : threads) {
+                        if (thread != Thread.currentThread()) thread.interrupt();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Run one algorithm on a fresh copy of a workload.
+     * @param factory - builds the algorithm.
+     * @param workload - WorkloadSpec.
+     * @return - Totals of the one workload.
+     */
+    private static Totals simulate(Function<List<Process>, ScheduleInterface> factory, WorkloadSpec workload) {
+        ScheduleInterface algorithm = factory.apply(workload.instantiate());
+        List<Process> finished = algorithm.process();
+        Totals result = new Totals();
+        result.workloads = 1;
+        result.processes = finished.size();
+        for (Process proc : finished) {
+            result.waitingTime += proc.getWaitingTime();
+            result.turnaroundTime += proc.getTurnaroundTime();
+            result.responseTime += proc.getResponseTime();
+        }
+        result.elapsedTime = algorithm.getTotalElapsedTime();
+        result.cpuTime = (long) algorithm.getTotalElapsedTime() * algorithm.getCPUCount();
+        result.idleTime = algorithm.getTotalIdleCPUTime();
+        return result;
+    }
+
+    /**
+     * Get the totals of the last run.
+     * @return - unmodifiable Map from algorithm name to Totals, in the order the algorithms were added.
+     */
+    public Map<String, Totals> getTotals() {
+        return Collections.unmodifiableMap(totals);
+    }
+
+    /**
+     * Get the counters of the stages of the last run: parse, simulate and aggregate.
+     * @return - unmodifiable List of Stages.
+     */
+    public List<Stage> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Get the length of the last run.
+     * @return - long, nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the stage that was busy the largest part of the last run.
+     * @return - Stage, or null before the first run.
+     */
+    public Stage getBottleneck() {
+        Stage bottleneck = null;
+        for (Stage stage : stages) {
+            if (bottleneck == null || stage.getUtilization(elapsedNanos) > bottleneck.getUtilization(elapsedNanos)) {
+                bottleneck = stage;
+            }
+        }
+        return bottleneck;
+    }
+
+    /**
+     * Format the totals of the last run as a table, one row per algorithm.
+     * @return - String.
+     */
+    public String toTable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s%12s%14s%12s%12s%12s%12s%n", "Algorithm", "Workloads", "Processes", "Tw (avg)",
+                "TTr (avg)", "Tr (avg)", "CPU Util"));
+        for (Map.Entry<String, Totals> entry : totals.entrySet()) {
+            Totals total = entry.getValue();
+            sb.append(String.format("%-10s%12d%14d%12.2f%12.2f%12.2f%11.2f%%%n", entry.getKey(), total.getWorkloads(),
+                    total.getProcesses(), total.getAverageWait(), total.getAverageTurnaround(),
+                    total.getAverageResponse(), total.getCPUUtilization() * 100));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Format the stage counters of the last run as a table, with the bottleneck.
+     * @return - String.
+     */
+    public String stageTable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s%8s%12s%12s%10s%10s%10s%n", "Stage", "Threads", "Items", "Items/s", "Busy",
+                "Blocked", "Starved"));
+        double seconds = elapsedNanos / 1e9;
+        for (Stage stage : stages) {
+            double threadNanos = (double) elapsedNanos * stage.getThreads();
+            sb.append(String.format("%-10s%8d%12d%12.1f%9.1f%%%9.1f%%%9.1f%%%n", stage.getName(), stage.getThreads(),
+                    stage.getItems(), seconds == 0 ? 0 : stage.getItems() / seconds,
+                    stage.getUtilization(elapsedNanos) * 100,
+                    threadNanos == 0 ? 0 : 100 * stage.getBlockedNanos() / threadNanos,
+                    threadNanos == 0 ? 0 : 100 * stage.getStarvedNanos() / threadNanos));
+        }
+        Stage bottleneck = getBottleneck();
+        if (bottleneck != null) sb.append("Bottleneck: ").append(bottleneck.getName()).append('\n');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,42 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * TickKernel that updates as many rows at a time as the CPU's vector registers hold, using the Vector API.
+ * Only loaded when the jdk.incubator.vector module is available, see TickKernel.create().
+ *
+ * The lanes to update are picked out arithmetically from the state ordinals rather than with VectorMasks, because
+ * JDK 17 doesn't compile every mask operation to vector instructions and falls back to allocating them.
+ *
+ * @author agent
+ */
+class VectorTickKernel implements TickKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void tickRange(ProcessTable table, int[] state, int[] waitingTime, int[] totalTime, int[] currentTick,
+                          int from, int to, int time) {
+        // RUNNING = 0, WAITING = 1, IO = 2, FINISHED = 3: waiting is the only one with just the low bit set, and
+        // running or in IO are the ones without it
+        int lanes = SPECIES.length();
+        int bound = from + SPECIES.loopBound(to - from);
+        int id = from;
+        for (; id < bound; id += lanes) {
+            IntVector states = IntVector.fromArray(SPECIES, state, id);
+            IntVector lowBit = states.and(1);
+            IntVector waiting = lowBit.and(states.lanewise(VectorOperators.LSHR, 1).not());
+            IntVector waitingTicks = waiting.mul(time);
+            IntVector.fromArray(SPECIES, waitingTime, id).add(waitingTicks).intoArray(waitingTime, id);
+            IntVector.fromArray(SPECIES, totalTime, id).add(waitingTicks).intoArray(totalTime, id);
+            if (lowBit.reduceLanes(VectorOperators.ADD) != lanes) {
+                // running or in IO, their bursts aren't in columns
+                for (int row = id; row < id + lanes; row++) {
+                    if ((state[row] & 1) == 0) table.tickBusy(row, time);
+                }
+            }
+            IntVector.fromArray(SPECIES, currentTick, id).add(time).intoArray(currentTick, id);
+        }
+        ScalarTickKernel.tickRows(table, state, waitingTime, totalTime, currentTick, id, to, time);
+    }
+}
@@ -0,0 +1,345 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Seeded generator of synthetic workloads of any size.  Processes are made one at a time, in arrival order, as they
+ * are asked for, so a workload of millions of processes never has to exist as a whole: stream() it, hand it to
+ * SchedulerEngine.addArrivals() to create each process when it arrives, or instantiate() it straight into one
+ * ProcessTable for a scheduler.  The same seed and settings always give the same processes.
+ *
+ * Each process has a number of CPU bursts with IO bursts between them, starting and ending with a CPU burst.  Burst
+ * lengths come from a Distribution (exponential, lognormal, Pareto or a bimodal mix), rounded and clamped to
+ * [1, maxBurst]; arrival times from an Arrivals process (all at once, Poisson or bursty); priorities from a weighted
+ * mix.
+ *
+ * Usage:
+ * <pre>
+ *     RR rr = new RR(5);
+ *     rr.addArrivals(new WorkloadGenerator(42, 1_000_000)
+ *             .setCPUBursts(WorkloadGenerator.Distribution.lognormal(1.5, 1.0))
+ *             .setIOBursts(WorkloadGenerator.Distribution.pareto(10, 1.5))
+ *             .setArrivals(WorkloadGenerator.Arrivals.poisson(0.05)));
+ *     rr.process();
+ * </pre>
+ *
+ * @author agent
+ */
+public class WorkloadGenerator implements Iterator<ProcessSpec> {
+    private final SplittableRandom random;
+    private final long count;
+    private Distribution cpuBursts = Distribution.exponential(8);
+    private Distribution ioBursts = Distribution.exponential(40);
+    private int minCPUBursts = 5;
+    private int maxCPUBursts = 9;
+    private int maxBurst = 100_000;
+    private Arrivals arrivals = Arrivals.ALL_AT_ONCE;
+    // cumulative weights of priorities 1, 2, ...
+    private double[] priorityWeights = {1, 2, 3, 4, 5, 6, 7, 8};
+    // state of the stream
+    private long generated;
+    private double arrivalTime;
+
+    /**
+     * Distribution of burst lengths, in ticks before rounding.
+     */
+    public interface Distribution {
+        /**
+         * Draw a value.
+         * @param random - SplittableRandom to draw from.
+         * @return - double.
+         */
+        public double sample(SplittableRandom random);
+
+        /**
+         * Exponential distribution.
+         * @param mean - mean, greater than 0.
+         * @return - Distribution.
+         */
+        public static Distribution exponential(double mean) {
+            if (!(mean > 0)) throw new IllegalArgumentException("Mean must be positive: " + mean);
+            return random -> mean * random.nextExponential();
+        }
+
+        /**
+         * Lognormal distribution: e to the power of a normal variable.  Its median is e^mu and its mean
+         * e^(mu + sigma^2 / 2).
+         * @param mu - mean of the normal variable.
+         * @param sigma - standard deviation of the normal variable, at least 0.
+         * @return - Distribution.
+         */
+        public static Distribution lognormal(double mu, double sigma) {
+            if (!(sigma >= 0)) throw new IllegalArgumentException("Sigma must not be negative: " + sigma);
+            return random -> Math.exp(mu + sigma * random.nextGaussian());
+        }
+
+        /**
+         * Pareto distribution, the heavy tail of a few very long bursts.  Its values are at least scale and its median
+         * is scale * 2^(1 / shape); the mean is infinite for shapes up to 1.
+         * @param scale - smallest value, greater than 0.
+         * @param shape - tail index, greater than 0; the smaller, the heavier the tail.
+         * @return - Distribution.
+         */
+        public static Distribution pareto(double scale, double shape) {
+            if (!(scale > 0) || !(shape > 0)) {
+                throw new IllegalArgumentException("Scale and shape must be positive: " + scale + ", " + shape);
+            }
+            // inverse of the CDF; 1 - nextDouble() is in (0, 1]
+            return random -> scale / Math.pow(1 - random.nextDouble(), 1 / shape);
+        }
+
+        /**
+         * Mix of two distributions, e.g. short interactive and long batch bursts.
+         * @param first - Distribution drawn from most of the time.
+         * @param second - Distribution drawn from with the given probability.
+         * @param secondProbability - from 0 to 1.
+         * @return - Distribution.
+         */
+        public static Distribution bimodal(Distribution first, Distribution second, double secondProbability) {
+            if (!(secondProbability >= 0 && secondProbability <= 1)) {
+                throw new IllegalArgumentException("Probability must be from 0 to 1: " + secondProbability);
+            }
+            return random -> random.nextDouble() < secondProbability ? second.sample(random) : first.sample(random);
+        }
+    }
+
+    /**
+     * Process of arrivals: the gaps between the arrival times of consecutive processes.  Implementations may keep
+     * state, e.g. the phase of a bursty process, so give each generator its own.
+     */
+    public interface Arrivals {
+        /**
+         * Draw the time from the previous arrival to the next.
+         * @param random - SplittableRandom to draw from.
+         * @return - double, at least 0.
+         */
+        public double nextGap(SplittableRandom random);
+
+        /**
+         * Every process arrives at time 0, as in TestUtil.
+         */
+        public static final Arrivals ALL_AT_ONCE = random -> 0;
+
+        /**
+         * Poisson arrivals: exponential gaps.
+         * @param rate - mean arrivals per tick, greater than 0.
+         * @return - Arrivals.
+         */
+        public static Arrivals poisson(double rate) {
+            if (!(rate > 0)) throw new IllegalArgumentException("Rate must be positive: " + rate);
+            return random -> random.nextExponential() / rate;
+        }
+
+        /**
+         * Bursty arrivals: a Poisson process that switches between a quiet and a busy rate, staying in each phase for
+         * an exponential time (a two-state Markov-modulated Poisson process).  Starts quiet.
+         * @param quietRate - mean arrivals per tick in the quiet phase, greater than 0.
+         * @param busyRate - mean arrivals per tick in the busy phase, greater than 0.
+         * @param meanPhase - mean length of a phase in ticks, greater than 0.
+         * @return - Arrivals.
+         */
+        public static Arrivals bursty(double quietRate, double busyRate, double meanPhase) {
+            if (!(quietRate > 0) || !(busyRate > 0) || !(meanPhase > 0)) {
+                throw new IllegalArgumentException("Rates and phase length must be positive: " + quietRate + ", "
+                        + busyRate + ", " + meanPhase);
+            }
+            return new Arrivals() {
+                private boolean busy;
+
+                @Override
+                public double nextGap(SplittableRandom random) {
+                    double gap = 0;
+                    while (true) {
+                        // the next arrival and the end of the phase race; exponentials have no memory
+                        double arrival = random.nextExponential() / (busy ? busyRate : quietRate);
+                        double phaseEnd = random.nextExponential() * meanPhase;
+                        if (arrival <= phaseEnd) return gap + arrival;
+                        gap += phaseEnd;
+                        busy = !busy;
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param seed - seed of the random stream.
+     * @param count - number of processes to generate.
+     */
+    public WorkloadGenerator(long seed, long count) {
+        if (count < 0) throw new IllegalArgumentException("Count must not be negative: " + count);
+        this.random = new SplittableRandom(seed);
+        this.count = count;
+    }
+
+    /**
+     * Set the distribution of CPU burst lengths, exponential with mean 8 by default.
+     * @param distribution - Distribution.
+     * @return - this generator.
+     */
+    public WorkloadGenerator setCPUBursts(Distribution distribution) {
+        checkNotStarted();
+        cpuBursts = distribution;
+        return this;
+    }
+
+    /**
+     * Set the distribution of IO burst lengths, exponential with mean 40 by default.
+     * @param distribution - Distribution.
+     * @return - this generator.
+     */
+    public WorkloadGenerator setIOBursts(Distribution distribution) {
+        checkNotStarted();
+        ioBursts = distribution;
+        return this;
+    }
+
+    /**
+     * Set the range of the number of CPU bursts per process, 5 to 9 by default.  Each process has one IO burst less.
+     * @param min - at least 1.
+     * @param max - at least min.
+     * @return - this generator.
+     */
+    public WorkloadGenerator setCPUBurstCount(int min, int max) {
+        checkNotStarted();
+        if (min < 1 || max < min) throw new IllegalArgumentException("Bad CPU burst count range: " + min + "-" + max);
+        minCPUBursts = min;
+        maxCPUBursts = max;
+        return this;
+    }
+
+    /**
+     * Set the longest burst, 100,000 ticks by default; longer draws are cut to it.
+     * @param maxBurst - at least 1.
+     * @return - this generator.
+     */
+    public WorkloadGenerator setMaxBurst(int maxBurst) {
+        checkNotStarted();
+        if (maxBurst < 1) throw new IllegalArgumentException("Longest burst must be at least 1: " + maxBurst);
+        this.maxBurst = maxBurst;
+        return this;
+    }
+
+    /**
+     * Set the arrival process, everything at time 0 by default.
+     * @param arrivals - Arrivals, not shared with another generator.
+     * @return - this generator.
+     */
+    public WorkloadGenerator setArrivals(Arrivals arrivals) {
+        checkNotStarted();
+        this.arrivals = arrivals;
+        return this;
+    }
+
+    /**
+     * Set the mix of priorities: weights[i] is the relative frequency of priority i + 1.  Equal weights for
+     * priorities 1 to 8 by default.
+     * @param weights - at least one, none negative and not all 0.
+     * @return - this generator.
+     */
+    public WorkloadGenerator setPriorityMix(double... weights) {
+        checkNotStarted();
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (!(weights[i] >= 0)) throw new IllegalArgumentException("Negative priority weight: " + weights[i]);
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        if (!(total > 0)) throw new IllegalArgumentException("Priority weights must not all be 0");
+        priorityWeights = cumulative;
+        return this;
+    }
+
+    private void checkNotStarted() {
+        if (generated > 0) throw new IllegalStateException("Can't change the settings of a started generator");
+    }
+
+    @Override
+    public boolean hasNext() {
+        return generated < count;
+    }
+
+    /**
+     * Generate the next process.  Processes are named P1, P2, ... in arrival order.
+     * @return - ProcessSpec.
+     */
+    @Override
+    public ProcessSpec next() {
+        if (!hasNext()) throw new NoSuchElementException("All " + count + " processes generated");
+        generated++;
+        arrivalTime += arrivals.nextGap(random);
+        int cpuBurstCount = random.nextInt(minCPUBursts, maxCPUBursts + 1);
+        int[] bursts = new int[2 * cpuBurstCount - 1];
+        for (int b = 0; b < bursts.length; b++) bursts[b] = burst(b % 2 == 0 ? cpuBursts : ioBursts);
+        return new ProcessSpec("P" + generated, priority(), (int) Math.min(arrivalTime, Integer.MAX_VALUE), bursts);
+    }
+
+    /**
+     * Draw a burst length, rounded and clamped to [1, maxBurst].
+     */
+    private int burst(Distribution distribution) {
+        double value = Math.rint(distribution.sample(random));
+        return value >= maxBurst ? maxBurst : Math.max(1, (int) value);
+    }
+
+    /**
+     * Draw a priority from the mix.
+     */
+    private int priority() {
+        double draw = random.nextDouble() * priorityWeights[priorityWeights.length - 1];
+        int index = 0;
+        // skips priorities of weight 0, whose cumulative weight equals the one before
+        while (index < priorityWeights.length - 1 && draw >= priorityWeights[index]) index++;
+        return index + 1;
+    }
+
+    /**
+     * Get the rest of the processes as a sequential stream, generated as it is consumed.
+     * @return - Stream of ProcessSpecs.
+     */
+    public Stream<ProcessSpec> stream() {
+        // not SIZED, so that terminal operations such as count() really consume the generator
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Create the rest of the processes, all in one new ProcessTable, for any scheduler constructor.  Each spec is
+     * dropped as soon as its process is in the table, so nothing but the table grows with the workload.
+     * @return - List of Processes, in arrival order.
+     */
+    public List<Process> instantiate() {
+        long remaining = count - generated;
+        if (remaining > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many processes: " + remaining);
+        ProcessTable table = new ProcessTable((int) remaining);
+        List<Process> processes = new ArrayList<>((int) remaining);
+        while (hasNext()) processes.add(next().instantiate(table));
+        return processes;
+    }
+
+    /**
+     * Create the rest of the processes, as an array.
+     * @return - Process[], in arrival order.
+     */
+    public Process[] instantiateArray() {
+        return instantiate().toArray(new Process[0]);
+    }
+
+    /**
+     * Collect the rest of the processes into an immutable spec, to run the same workload many times.
+     * @return - WorkloadSpec.
+     */
+    public WorkloadSpec toWorkload() {
+        List<ProcessSpec> specs = new ArrayList<>();
+        while (hasNext()) specs.add(next());
+        return new WorkloadSpec(specs);
+    }
+}
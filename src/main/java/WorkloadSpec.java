@@ -0,0 +1,154 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable set of process definitions that one or more simulations run.  Build it once and call instantiate() for
+ * every simulation: each call returns fresh processes in their own ProcessTable, so simulations of the same workload
+ * can run at the same time on different threads without regenerating or copying anything else.
+ *
+ * Workloads can be read from and written to text traces, one process per line:
+ * <pre>
+ *     # name priority arrival [CPU|IO] bursts...
+ *     P1 3 0 5 27 3 31 5
+ *     P2 1 4 IO 10 6 12
+ * </pre>
+ * The bursts alternate from the given type, CPU if it is left out.  Blank lines and lines starting with # are skipped.
+ *
+ * @author agent
+ */
+public final class WorkloadSpec {
+    private final List<ProcessSpec> processes;
+
+    /**
+     * Constructor.
+     * @param processes - the process definitions, in the order their processes are added to a scheduler.
+     */
+    public WorkloadSpec(List<ProcessSpec> processes) {
+        this.processes = List.copyOf(processes);
+    }
+
+    /**
+     * Get the spec of processes that haven't run yet, e.g. the processes made by TestUtil.
+     * @param processes - Processes.
+     * @return - WorkloadSpec.
+     */
+    public static WorkloadSpec of(Process... processes) {
+        List<ProcessSpec> specs = new ArrayList<>(processes.length);
+        for (Process proc : processes) specs.add(ProcessSpec.of(proc));
+        return new WorkloadSpec(specs);
+    }
+
+    /**
+     * Get the process definitions.
+     * @return - unmodifiable List of ProcessSpecs.
+     */
+    public List<ProcessSpec> getProcesses() {
+        return processes;
+    }
+
+    /**
+     * Get the number of processes.
+     * @return - int.
+     */
+    public int size() {
+        return processes.size();
+    }
+
+    /**
+     * Create fresh processes for one simulation, all in one new ProcessTable.
+     * @return - List of Processes, in the order of the specs.
+     */
+    public List<Process> instantiate() {
+        return instantiate(new ProcessTable(processes.size()));
+    }
+
+    /**
+     * Create fresh processes for one simulation in the given table.
+     * @param table - ProcessTable to add the processes to, e.g. an OffHeapProcessTable.
+     * @return - List of Processes, in the order of the specs.
+     */
+    public List<Process> instantiate(ProcessTable table) {
+        List<Process> instances = new ArrayList<>(processes.size());
+        for (ProcessSpec spec : processes) instances.add(spec.instantiate(table));
+        return instances;
+    }
+
+    /**
+     * Create fresh processes for one simulation, as an array.
+     * @return - Process[], in the order of the specs.
+     */
+    public Process[] instantiateArray() {
+        return instantiate().toArray(new Process[0]);
+    }
+
+    /**
+     * Read a workload from a trace, either text or a BinaryTrace.
+     * @param path - trace file.
+     * @return - WorkloadSpec.
+     * @throws IOException - if the file can't be read.
+     */
+    public static WorkloadSpec read(Path path) throws IOException {
+        if (BinaryTrace.isBinaryTrace(path)) return BinaryTrace.open(path).toWorkload();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader, path.toString());
+        }
+    }
+
+    /**
+     * Read a workload from a text trace.
+     * @param reader - the trace, read to the end but not closed.
+     * @param source - name of the trace, for error messages.
+     * @return - WorkloadSpec.
+     * @throws IOException - if the trace can't be read.
+     */
+    public static WorkloadSpec read(BufferedReader reader, String source) throws IOException {
+        List<ProcessSpec> specs = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] fields = line.split("\\s+");
+            try {
+                if (fields.length < 3) throw new IllegalArgumentException("need a name, priority and arrival time");
+                int next = 3;
+                Process.BurstType first = Process.BurstType.CPU;
+                if (fields.length > 3 && (fields[3].equals("CPU") || fields[3].equals("IO"))) {
+                    first = Process.BurstType.valueOf(fields[next++]);
+                }
+                int[] bursts = new int[fields.length - next];
+                for (int b = 0; b < bursts.length; b++) {
+                    bursts[b] = Integer.parseInt(fields[next + b]);
+                    if (bursts[b] < 0) throw new IllegalArgumentException("negative burst " + bursts[b]);
+                }
+                specs.add(new ProcessSpec(fields[0], Integer.parseInt(fields[1]), Integer.parseInt(fields[2]), first,
+                        bursts));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return new WorkloadSpec(specs);
+    }
+
+    /**
+     * Write this workload as a text trace that read() reads back.
+     * @param writer - Writer, not closed.
+     * @throws IOException - if writing fails.
+     */
+    public void write(Writer writer) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (ProcessSpec spec : processes) {
+            sb.setLength(0);
+            sb.append(spec.getName()).append(' ').append(spec.getPriority()).append(' ').append(spec.getArrivalTime());
+            if (spec.getBurstCount() > 0 && spec.getBurstType(0) == Process.BurstType.IO) sb.append(" IO");
+            for (int b = 0; b < spec.getBurstCount(); b++) sb.append(' ').append(spec.getBurst(b));
+            writer.write(sb.append('\n').toString());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    private static Process process(String name, int priority, int arrivalTime, int... bursts) {
+        return new Process(new ProcessTable(), new ProcessSpec(name, priority, arrivalTime, bursts));
+    }
+
+    private static List<String> names(List<Process> processes) {
+        return processes.stream().map(Process::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testDropWhenFull() {
+        AdmissionController controller = new AdmissionController(new FCFS(new ArrayList<>()), 2,
+                AdmissionPolicy.DROP);
+        controller.addProcess(process("P1", 0, 0, 10));
+        controller.addProcess(process("P2", 0, 0, 10));
+        controller.addProcess(process("P3", 0, 0, 10));
+        controller.addProcess(process("P4", 0, 25, 10));
+        assertEquals(List.of("P1", "P2", "P4"), names(controller.process()));
+        assertEquals(List.of("P3"), names(controller.getRejectedProcesses()));
+        assertEquals(3, controller.getAdmittedCount());
+        assertEquals(35, controller.getTotalElapsedTime());
+        assertEquals(1.0 / 35, controller.getRejectedThroughput(), 1e-9);
+        assertEquals(0, controller.getMaxAdmissionWait());
+    }
+
+    @Test
+    void testDelayHoldsUntilASlotIsFree() {
+        AdmissionController controller = new AdmissionController(new FCFS(new ArrayList<>()), 1,
+                AdmissionPolicy.delay(10));
+        Process first = process("P1", 0, 0, 4, 20, 4);
+        Process second = process("P2", 0, 2, 5);
+        controller.addProcess(first);
+        controller.addProcess(second);
+        assertEquals(List.of(first, second), controller.process());
+        // P2 can't use the CPU while P1 does IO, it is held until P1 finishes at 28
+        assertEquals(26, controller.getMaxAdmissionWait());
+        assertEquals(13, controller.getAverageAdmissionWait(), 1e-9);
+        assertEquals(26, second.getWaitingTime());
+        assertEquals(26, second.getResponseTime());
+        assertEquals(31, second.getTurnaroundTime());
+        assertEquals(33, controller.getTotalElapsedTime());
+        assertEquals(20, controller.getTotalIdleCPUTime());
+    }
+
+    @Test
+    void testDelayQueueCapacity() {
+        AdmissionController controller = new AdmissionController(new RR(3), 1, AdmissionPolicy.delay(1));
+        for (int i = 1; i <= 3; i++) controller.addProcess(process("P" + i, 0, 0, 5));
+        assertEquals(List.of("P1", "P2"), names(controller.process()));
+        assertEquals(List.of("P3"), names(controller.getRejectedProcesses()));
+    }
+
+    @Test
+    void testShedByPriority() {
+        AdmissionController controller = new AdmissionController(new FCFS(new ArrayList<>()), 1,
+                AdmissionPolicy.shedByPriority(1));
+        controller.addProcess(process("P1", 1, 0, 10));
+        controller.addProcess(process("P2", 5, 1, 10));
+        // more important than the held P2, which makes room for it
+        controller.addProcess(process("P3", 2, 2, 10));
+        // less important than anything held, so it is rejected itself
+        controller.addProcess(process("P4", 9, 3, 10));
+        assertEquals(List.of("P1", "P3"), names(controller.process()));
+        assertEquals(List.of("P2", "P4"), names(controller.getRejectedProcesses()));
+    }
+
+    @Test
+    void testNoLimitMatchesScheduler() {
+        WorkloadSpec workload = new WorkloadGenerator(6, 400)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.03)).toWorkload();
+        MLFQ plain = new MLFQ(workload.instantiate(), 5, 10);
+        List<Process> expected = plain.process();
+        AdmissionController controller = new AdmissionController(new MLFQ(new ArrayList<>(), 5, 10),
+                Integer.MAX_VALUE, AdmissionPolicy.DROP);
+        for (Process proc : workload.instantiate()) controller.addProcess(proc);
+        List<Process> finished = controller.process();
+        assertEquals(TestFixtures.summary(expected), TestFixtures.summary(finished));
+        assertEquals(plain.getTotalElapsedTime(), controller.getTotalElapsedTime());
+        assertEquals(0, controller.getRejectedCount());
+    }
+
+    @Test
+    void testOverload() {
+        // far more work arrives than the CPU can do
+        WorkloadSpec workload = new WorkloadGenerator(2, 2_000)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.1)).toWorkload();
+        AdmissionController controller = new AdmissionController(new RR(5), 10, AdmissionPolicy.delay(20));
+        for (Process proc : workload.instantiate()) controller.addProcess(proc);
+        List<Process> finished = controller.process();
+        assertEquals(2_000, finished.size() + controller.getRejectedCount());
+        assertEquals(finished.size(), controller.getAdmittedCount());
+        assertTrue(controller.getRejectedCount() > 1_000);
+        // the CPU stays busy, and the throughput is what it can do, not the arrival rate
+        assertTrue(controller.getTotalIdleCPUTime() < controller.getTotalElapsedTime() / 20);
+        assertTrue(controller.getThroughput() < 0.03);
+        assertTrue(controller.getAverageAdmissionWait() > 0);
+        for (Process proc : finished) assertTrue(proc.getResponseTime() <= proc.getWaitingTime());
+    }
+}
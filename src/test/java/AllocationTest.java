@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AllocationTest {
+    // bytes a whole run may allocate once warmed up, for the result list and the like
+    private static final long ALLOWED_BYTES = 16 * 1024;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * A long workload: 32 processes with 301 bursts each.
+     */
+    private List<Process> workload(long seed) {
+        Random random = new Random(seed);
+        TestUtil testUtil = new TestUtil();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            int[] bursts = new int[301];
+            for (int b = 0; b < bursts.length; b++) bursts[b] = 1 + random.nextInt(b % 2 == 0 ? 20 : 60);
+            processes.add(testUtil.createProcess("P" + i, i, 0, bursts));
+        }
+        return processes;
+    }
+
+    /**
+     * Run the scheduler a few times to warm it up, then check the bytes allocated by one more run.
+     */
+    private void assertRunDoesNotAllocate(String name, Function<List<Process>, ScheduleInterface> scheduler) {
+        for (int i = 0; i < 5; i++) scheduler.apply(workload(i)).process();
+        ScheduleInterface measured = scheduler.apply(workload(99));
+        long thread = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(thread);
+        measured.process();
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated < ALLOWED_BYTES, name + " allocated " + allocated + " bytes in "
+                + measured.getTotalElapsedTime() + " ticks");
+    }
+
+    @Test
+    void runLoopsDoNotAllocate() {
+        assertRunDoesNotAllocate("FCFS", FCFS::new);
+        assertRunDoesNotAllocate("SJF", list -> new SJF(list.toArray(new Process[0])));
+        assertRunDoesNotAllocate("Priority", Priority::new);
+        assertRunDoesNotAllocate("RR", list -> new RR(4, list));
+        assertRunDoesNotAllocate("MLFQ", list -> new MLFQ(list, 5, 10));
+        assertRunDoesNotAllocate("MLQ", list -> new MLQ(list.subList(0, 16), list.subList(16, 32), 4));
+    }
+}
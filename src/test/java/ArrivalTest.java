@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrivalTest {
+    private final TestUtil testUtil = new TestUtil();
+
+    private Process[] processes(int[] arrivalTimes, int[]... bursts) {
+        String[] names = new String[bursts.length];
+        HashMap<String, int[]> burstMap = new HashMap<>();
+        for (int i = 0; i < bursts.length; i++) {
+            names[i] = "P" + (i + 1);
+            burstMap.put(names[i], bursts[i]);
+        }
+        return testUtil.createMultipleProcess(names, new int[bursts.length], arrivalTimes, burstMap);
+    }
+
+    @Test
+    void testWaitsForArrival() {
+        Process[] procs = processes(new int[]{0, 3}, new int[]{10}, new int[]{4});
+        FCFS fcfs = new FCFS(Arrays.asList(procs));
+        fcfs.process();
+        // P2 is ready from time 3 and runs once P1 is done at 10
+        assertEquals(7, procs[1].getWaitingTime());
+        assertEquals(7, procs[1].getResponseTime());
+        assertEquals(11, procs[1].getTurnaroundTime());
+        assertEquals(14, fcfs.getTotalElapsedTime());
+        assertEquals(0, fcfs.getTotalIdleCPUTime());
+    }
+
+    @Test
+    void testSkipsIdleGaps() {
+        Process[] procs = processes(new int[]{0, 100_000}, new int[]{5, 10, 5}, new int[]{5});
+        RR rr = new RR(2, Arrays.asList(procs));
+        List<Process> finished = rr.process();
+        assertEquals(List.of(procs[0], procs[1]), finished);
+        assertEquals(100_005, rr.getTotalElapsedTime());
+        assertEquals(100_005 - 15, rr.getTotalIdleCPUTime());
+        assertEquals(0, procs[1].getWaitingTime());
+        assertEquals(0, procs[1].getResponseTime());
+        assertEquals(5, procs[1].getTurnaroundTime());
+    }
+
+    @Test
+    void testAddedOutOfOrder() {
+        Process[] procs = processes(new int[]{20, 5, 5}, new int[]{3}, new int[]{4}, new int[]{2});
+        SchedulerEngine fcfs = new FCFS(Arrays.asList(procs));
+        List<Process> finished = fcfs.process();
+        // arriving together, P2 and P3 keep the order they were added in
+        assertEquals(List.of(procs[1], procs[2], procs[0]), finished);
+        assertEquals(4, procs[2].getResponseTime());
+        assertEquals(0, procs[0].getResponseTime());
+        assertEquals(23, fcfs.getTotalElapsedTime());
+        assertEquals(3.0 / 23, fcfs.getThroughput(), 1e-9);
+    }
+
+    @Test
+    void testResponseTimesInEveryScheduler() {
+        WorkloadSpec workload = new WorkloadGenerator(3, 200)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.02))
+                .toWorkload();
+        for (ScheduleInterface scheduler : TestFixtures.everyScheduler(workload, 5)) {
+            List<Process> finished = scheduler.process();
+            assertEquals(200, finished.size());
+            for (Process proc : finished) {
+                assertTrue(proc.getResponseTime() >= 0, proc.getName() + " ran before it arrived");
+                assertTrue(proc.getResponseTime() <= proc.getWaitingTime());
+            }
+            // the last arrival is long after time 0, and every process ran after arriving
+            int lastArrival = workload.getProcesses().get(199).getArrivalTime();
+            assertTrue(scheduler.getTotalElapsedTime() > lastArrival);
+        }
+    }
+
+    @Test
+    void testStreamedArrivals() {
+        List<Process> listed = new RR(4, new WorkloadGenerator(8, 500)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.01)).instantiate()).process();
+        RR streamed = new RR(4);
+        streamed.addArrivals(new WorkloadGenerator(8, 500)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.01)));
+        assertTrue(streamed.hasPendingArrivals());
+        assertEquals(TestFixtures.summary(listed), TestFixtures.summary(streamed.process()));
+        assertFalse(streamed.hasPendingArrivals());
+    }
+
+    @Test
+    void testStreamedArrivalsInOrder() {
+        RR rr = new RR(4);
+        rr.addArrivals(List.of(new ProcessSpec("P1", 0, 10, 5), new ProcessSpec("P2", 0, 3, 5)).iterator());
+        assertThrows(IllegalArgumentException.class, rr::process);
+    }
+
+    @Test
+    void testBatchSimulatorHonorsArrivals() {
+        List<WorkloadSpec> workloads = new ArrayList<>();
+        for (int seed = 0; seed < 20; seed++) {
+            workloads.add(new WorkloadGenerator(seed, 12).setCPUBurstCount(1, 4)
+                    .setArrivals(WorkloadGenerator.Arrivals.bursty(0.02, 0.5, 50)).toWorkload());
+        }
+        List<BatchSimulator.Result> results = new BatchSimulator(workloads).runRR(3);
+        for (int i = 0; i < workloads.size(); i++) {
+            List<Process> processes = workloads.get(i).instantiate();
+            RR rr = new RR(3, processes);
+            rr.process();
+            for (int p = 0; p < processes.size(); p++) {
+                assertEquals(processes.get(p).getWaitingTime(), results.get(i).getWaitingTime(p));
+                assertEquals(processes.get(p).getResponseTime(), results.get(i).getResponseTime(p));
+            }
+            assertEquals(rr.getTotalElapsedTime(), results.get(i).getTotalTime());
+            assertEquals(rr.getTotalIdleCPUTime(), results.get(i).getIdleTime());
+        }
+    }
+
+    @Test
+    void testLongOpenRun() {
+        // long enough for the engine to stop ticking finished processes many times over
+        WorkloadSpec workload = new WorkloadGenerator(4, 600)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.01)).toWorkload();
+        BatchSimulator.Result expected = new BatchSimulator(List.of(workload)).runRR(5).get(0);
+        List<Process> processes = workload.instantiate();
+        RR rr = new RR(5, processes);
+        assertEquals(600, rr.process().size());
+        for (int p = 0; p < processes.size(); p++) {
+            assertEquals(expected.getWaitingTime(p), processes.get(p).getWaitingTime());
+            assertEquals(expected.getTurnaroundTime(p), processes.get(p).getTurnaroundTime());
+            assertEquals(expected.getResponseTime(p), processes.get(p).getResponseTime());
+        }
+        assertEquals(expected.getTotalTime(), rr.getTotalElapsedTime());
+        assertEquals(expected.getIdleTime(), rr.getTotalIdleCPUTime());
+    }
+
+    @Test
+    void testDropsFinishedProcesses() {
+        List<Process> expected = new MLFQ(new WorkloadGenerator(6, 3_000)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.01)).instantiate(), 5, 10).process();
+        MLFQ mlfq = new MLFQ(new ArrayList<>(), 5, 10);
+        mlfq.setRetainFinished(false);
+        mlfq.addArrivals(new WorkloadGenerator(6, 3_000).setArrivals(WorkloadGenerator.Arrivals.poisson(0.01)));
+        int most = 0;
+        while (mlfq.getUnfinishedProcessCount() > 0 || mlfq.hasPendingArrivals()) {
+            mlfq.runUntil(mlfq.getTotalElapsedTime() + 500);
+            most = Math.max(most, Math.max(mlfq.allProcesses.size(), mlfq.activeProcesses.size()));
+        }
+        // the processes in the system, and the finished ones waiting to be dropped
+        assertTrue(most < 300, "kept " + most);
+        assertTrue(mlfq.getFinishedProcesses().isEmpty());
+        assertEquals(3_000, mlfq.getFinishedCount());
+        assertEquals(expected.stream().mapToLong(Process::getWaitingTime).sum(), mlfq.getTotalWaitingTime());
+        assertEquals(expected.stream().mapToLong(Process::getTurnaroundTime).sum(), mlfq.getTotalTurnaroundTime());
+        assertEquals(expected.stream().mapToLong(Process::getResponseTime).sum(), mlfq.getTotalResponseTime());
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSimulatorTest {
+
+    /**
+     * Workloads of different sizes, with short bursts so processes often finish or return from IO on the same tick.
+     */
+    private static List<WorkloadSpec> workloads() {
+        SplittableRandom random = new SplittableRandom(9);
+        List<WorkloadSpec> workloads = new ArrayList<>();
+        workloads.add(new TestUtil().getDefaultWorkload());
+        for (int i = 0; i < 300; i++) {
+            List<ProcessSpec> processes = new ArrayList<>();
+            int count = random.nextInt(1, 10);
+            for (int p = 0; p < count; p++) {
+                int[] bursts = new int[1 + random.nextInt(8)];
+                for (int b = 0; b < bursts.length; b++) bursts[b] = random.nextInt(1, b % 2 == 0 ? 8 : 15);
+                processes.add(new ProcessSpec("P" + p, 0, random.nextInt(3), bursts));
+            }
+            workloads.add(new WorkloadSpec(processes));
+        }
+        workloads.add(MonteCarloRunner.randomWorkload(random));
+        return workloads;
+    }
+
+    private static void assertMatches(WorkloadSpec workload, Function<List<Process>, SchedulerEngine> algorithm,
+                                      BatchSimulator.Result result) {
+        List<Process> processes = workload.instantiate();
+        SchedulerEngine engine = algorithm.apply(processes);
+        engine.process();
+        assertEquals(processes.size(), result.getProcessCount());
+        for (int p = 0; p < processes.size(); p++) {
+            Process proc = processes.get(p);
+            assertEquals(proc.getWaitingTime(), result.getWaitingTime(p), workload.getProcesses().get(p).toString());
+            assertEquals(proc.getTurnaroundTime(), result.getTurnaroundTime(p));
+            assertEquals(proc.getResponseTime(), result.getResponseTime(p));
+        }
+        assertEquals(engine.getTotalElapsedTime(), result.getTotalTime());
+        assertEquals(engine.getTotalIdleCPUTime(), result.getIdleTime());
+    }
+
+    @Test
+    void testMatchesScalarAlgorithms() {
+        List<WorkloadSpec> workloads = workloads();
+        BatchSimulator batch = new BatchSimulator(workloads);
+        batch.setBatchSize(64);
+        List<BatchSimulator.Result> fcfs = batch.runFCFS();
+        List<BatchSimulator.Result> rr = batch.runRR(3);
+        List<BatchSimulator.Result> sjf = batch.runSJF();
+        assertEquals(workloads.size(), fcfs.size());
+        for (int i = 0; i < workloads.size(); i++) {
+            assertMatches(workloads.get(i), FCFS::new, fcfs.get(i));
+            assertMatches(workloads.get(i), processes -> new RR(3, processes), rr.get(i));
+            assertMatches(workloads.get(i), processes -> new SJF(processes.toArray(new Process[0])), sjf.get(i));
+        }
+    }
+
+    @Test
+    void testParallelBatches() {
+        List<WorkloadSpec> workloads = workloads();
+        BatchSimulator batch = new BatchSimulator(workloads);
+        batch.setBatchSize(16);
+        List<BatchSimulator.Result> sequential = batch.runRR(5);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            List<BatchSimulator.Result> parallel = batch.runRR(5, pool);
+            for (int i = 0; i < workloads.size(); i++) {
+                assertEquals(sequential.get(i).getAverageTurnaround(), parallel.get(i).getAverageTurnaround());
+                assertEquals(sequential.get(i).getTotalTime(), parallel.get(i).getTotalTime());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testRejectsProcessesStartingWithIO() {
+        WorkloadSpec workload = new WorkloadSpec(List.of(new ProcessSpec("P1", 0, 0, Process.BurstType.IO, 5, 3)));
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(List.of(workload)));
+    }
+}
@@ -0,0 +1,120 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTraceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        List<ProcessSpec> specs = List.of(new ProcessSpec("P1", 3, 0, 5, 27, 3),
+                new ProcessSpec("P12", -2, 40, Process.BurstType.IO, 10, 4),
+                new ProcessSpec("shell", 0, 35, 1_000_000),
+                new ProcessSpec("P07", 1, 2_000_000_000),
+                new ProcessSpec("P2", Integer.MAX_VALUE, 0, 7, 7, 7, 7));
+        Path path = directory.resolve("w.trace");
+        assertEquals(5, BinaryTrace.write(path, specs.iterator(), 2));
+        BinaryTrace trace = BinaryTrace.open(path);
+        assertEquals(5, trace.size());
+        assertEquals(3, trace.getBlockCount());
+        assertEquals(35, trace.getBlockArrivalTime(1));
+        assertEquals(specs, trace.toWorkload().getProcesses());
+        assertEquals(specs, WorkloadSpec.read(path).getProcesses());
+    }
+
+    @Test
+    void testSmallerThanText() throws IOException {
+        WorkloadSpec workload = new WorkloadGenerator(1, 5_000)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.01)).toWorkload();
+        Path path = directory.resolve("w.trace");
+        BinaryTrace.write(path, workload.getProcesses().iterator());
+        StringWriter text = new StringWriter();
+        workload.write(text);
+        assertTrue(Files.size(path) * 2 < text.toString().length());
+        assertEquals(workload.getProcesses(), BinaryTrace.open(path).toWorkload().getProcesses());
+    }
+
+    @Test
+    void testRandomAccess() throws IOException {
+        List<ProcessSpec> specs = new ArrayList<>();
+        new WorkloadGenerator(2, 1_000).forEachRemaining(specs::add);
+        Path path = directory.resolve("w.trace");
+        BinaryTrace.write(path, specs.iterator(), 64);
+        BinaryTrace trace = BinaryTrace.open(path);
+        for (int i : new int[] {0, 1, 63, 64, 65, 500, 999}) assertEquals(specs.get(i), trace.get(i));
+        Iterator<ProcessSpec> it = trace.iterator(990);
+        assertEquals(specs.subList(990, 1_000), toList(it));
+        assertFalse(trace.iterator(1_000).hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> trace.iterator(1_001));
+    }
+
+    @Test
+    void testIteratorsAreIndependent() throws IOException {
+        Path path = directory.resolve("w.trace");
+        BinaryTrace.write(path, new WorkloadGenerator(3, 300));
+        BinaryTrace trace = BinaryTrace.open(path);
+        Iterator<ProcessSpec> first = trace.iterator();
+        Iterator<ProcessSpec> second = trace.iterator();
+        first.next();
+        first.next();
+        assertEquals(trace.get(0), second.next());
+        assertEquals(trace.get(2), first.next());
+        assertEquals(300, trace.stream().count());
+    }
+
+    @Test
+    void testStreamsIntoScheduler() throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(8, 500)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.01));
+        Path path = directory.resolve("w.trace");
+        BinaryTrace.write(path, generator);
+        List<Process> listed = new MLFQ(new WorkloadGenerator(8, 500)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.01)).instantiate(), 5, 10).process();
+        MLFQ streamed = new MLFQ(new ArrayList<>(), 5, 10);
+        streamed.addArrivals(BinaryTrace.open(path).iterator());
+        assertEquals(TestFixtures.summary(listed), TestFixtures.summary(streamed.process()));
+        List<Process> instantiated = BinaryTrace.open(path).instantiate();
+        assertEquals(TestFixtures.summary(listed), TestFixtures.summary(new MLFQ(instantiated, 5, 10).process()));
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path text = directory.resolve("w.txt");
+        Files.writeString(text, "P1 0 0 5 10 5\n");
+        assertFalse(BinaryTrace.isBinaryTrace(text));
+        assertThrows(IOException.class, () -> BinaryTrace.open(text));
+
+        Path path = directory.resolve("w.trace");
+        BinaryTrace.write(path, List.of(new ProcessSpec("P1", 0, 0, 5)).iterator());
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putShort(4, (short) 99);
+        Files.write(path, bytes);
+        assertTrue(BinaryTrace.isBinaryTrace(path));
+        IOException e = assertThrows(IOException.class, () -> BinaryTrace.open(path));
+        assertTrue(e.getMessage().contains("version 99"));
+
+        Path truncated = directory.resolve("t.trace");
+        BinaryTrace.write(truncated, new WorkloadGenerator(4, 10));
+        bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> BinaryTrace.open(truncated));
+    }
+
+    private static List<ProcessSpec> toList(Iterator<ProcessSpec> it) {
+        List<ProcessSpec> list = new ArrayList<>();
+        it.forEachRemaining(list::add);
+        return list;
+    }
+}
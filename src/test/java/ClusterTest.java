@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterTest {
+    private final TestUtil testUtil = new TestUtil();
+
+    @Test
+    void testOneNodeMatchesItsScheduler() {
+        List<Process> expected = new RR(5, Arrays.asList(testUtil.getDefaultTestData())).process();
+        Cluster cluster = new Cluster(1, () -> new RR(5, new ArrayList<>()));
+        for (Process proc : testUtil.getDefaultTestData()) cluster.addProcess(proc);
+        List<Process> finished = cluster.process();
+        assertEquals(TestFixtures.summary(expected), TestFixtures.summary(finished));
+        assertEquals(cluster.getNode(0).getTotalElapsedTime(), cluster.getTotalElapsedTime());
+    }
+
+    @Test
+    void testArrivalTimes() {
+        Cluster cluster = new Cluster(2, () -> new FCFS(new ArrayList<>()));
+        cluster.addProcess(new Process(new ProcessTable(), new ProcessSpec("late", 0, 100, 10, 5, 10)));
+        cluster.addProcess(new Process(new ProcessTable(), new ProcessSpec("early", 0, 0, 20)));
+        List<Process> finished = cluster.process();
+        assertEquals("early", finished.get(0).getName());
+        Process late = finished.get(1);
+        // nothing else to wait for on an idle node, so it runs as soon as it arrives
+        assertEquals(0, late.getWaitingTime());
+        assertEquals(0, late.getResponseTime());
+        assertEquals(25, late.getTurnaroundTime());
+        assertEquals(125, cluster.getTotalElapsedTime());
+        // early went first, to node 0, and late to node 1
+        assertEquals(1, cluster.getNode(1).getFinishedProcesses().size());
+        assertEquals(1.0 * (20 + 20) / (2 * 125), cluster.getUtilization(), 1e-9);
+    }
+
+    @Test
+    void testDispatchers() {
+        List<DispatchPolicy> dispatchers = List.of(DispatchPolicy.roundRobin(), DispatchPolicy.LEAST_LOADED,
+                DispatchPolicy.JOIN_SHORTEST_QUEUE, DispatchPolicy.powerOfTwo(7));
+        for (DispatchPolicy dispatcher : dispatchers) {
+            Cluster cluster = new Cluster(4, () -> new FCFS(new ArrayList<>()));
+            cluster.setDispatchPolicy(dispatcher);
+            for (int i = 0; i < 8; i++) {
+                cluster.addProcess(new Process(new ProcessTable(), new ProcessSpec("P" + i, 0, 0, 10)));
+            }
+            assertEquals(8, cluster.process().size());
+            // all arrive at once: spread evenly, except by power of two, which only sees two nodes at a time
+            if (dispatcher == dispatchers.get(3)) continue;
+            for (int node = 0; node < 4; node++) {
+                assertEquals(2, cluster.getNode(node).getFinishedProcesses().size());
+            }
+        }
+    }
+
+    @Test
+    void testPowerOfTwoIsRepeatable() {
+        List<String> first = null;
+        for (int run = 0; run < 2; run++) {
+            Cluster cluster = new Cluster(5, () -> new SJF(new Process[0]));
+            cluster.setDispatchPolicy(DispatchPolicy.powerOfTwo(11));
+            for (Process proc : MonteCarloRunner.randomWorkload(new SplittableRandom(3)).instantiate()) {
+                cluster.addProcess(proc);
+            }
+            List<String> result = TestFixtures.summary(cluster.process());
+            if (first == null) first = result;
+            assertEquals(first, result);
+        }
+    }
+
+    @Test
+    void testMigration() {
+        // a dispatcher that puts everything on node 0 leaves the others nothing to do without migration
+        DispatchPolicy allOnFirst = (proc, cluster) -> 0;
+        int[] cpuTime = new int[2];
+        int[] migrations = new int[2];
+        int[] elapsed = new int[2];
+        for (int run = 0; run < 2; run++) {
+            Cluster cluster = new Cluster(3, () -> new FCFS(new ArrayList<>()));
+            cluster.setDispatchPolicy(allOnFirst);
+            cluster.setMigration(run, 4);
+            cluster.setRebalanceInterval(1 + run);
+            for (int i = 0; i < 12; i++) {
+                cluster.addProcess(new Process(new ProcessTable(), new ProcessSpec("P" + i, 0, 0, 10, 3, 10)));
+            }
+            List<Process> finished = cluster.process();
+            assertEquals(12, finished.size());
+            for (Process proc : finished) cpuTime[run] += proc.getCpuTime();
+            migrations[run] = cluster.getMigrations();
+            elapsed[run] = cluster.getTotalElapsedTime();
+            assertEquals(cluster.getWaitingTimePercentile(100), finished.stream()
+                    .mapToInt(Process::getWaitingTime).max().getAsInt());
+        }
+        assertEquals(0, migrations[0]);
+        assertTrue(migrations[1] > 0);
+        assertEquals(cpuTime[0], cpuTime[1]);
+        assertTrue(elapsed[1] < elapsed[0]);
+        assertThrows(IllegalArgumentException.class, () -> new Cluster(1, () -> new FCFS(new ArrayList<>()))
+                .setMigration(1, -1));
+    }
+
+    @Test
+    void testMLQNodes() {
+        Cluster cluster = new Cluster(2, () -> new MLQ(4, MLQ.byPriority(1)));
+        cluster.setDispatchPolicy((proc, c) -> 0);
+        Process background = new Process(new ProcessTable(), new ProcessSpec("B", 5, 0, 20));
+        Process first = new Process(new ProcessTable(), new ProcessSpec("F1", 1, 2, 10));
+        Process second = new Process(new ProcessTable(), new ProcessSpec("F2", 1, 2, 10));
+        cluster.addProcess(background);
+        cluster.addProcess(first);
+        cluster.addProcess(second);
+        assertEquals(List.of(first, second, background), cluster.process());
+        // the foreground processes preempt B as they arrive and take turns in time slices of 4
+        assertEquals(0, first.getResponseTime());
+        assertEquals(4, second.getResponseTime());
+        assertEquals(18, first.getTurnaroundTime());
+        assertEquals(20, second.getTurnaroundTime());
+        assertEquals(20, background.getWaitingTime());
+        assertEquals(40, cluster.getTotalElapsedTime());
+    }
+}
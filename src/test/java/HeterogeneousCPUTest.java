@@ -0,0 +1,53 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeterogeneousCPUTest {
+    private final TestUtil testUtil = new TestUtil();
+
+    @Test
+    void testFastCPUFinishesBurstsSooner() {
+        FCFS fcfs = new FCFS(List.of(testUtil.createProcess("P1", 1, 0, new int[] {9, 4, 6})));
+        fcfs.setCPUSpeeds(3);
+        Process proc = fcfs.process().get(0);
+        // 9 and 6 units of CPU burst at 3 per tick take 3 and 2 ticks
+        assertEquals(9, fcfs.getTotalElapsedTime());
+        assertEquals(5, proc.getCpuTime());
+        assertEquals(9, proc.getTurnaroundTime());
+    }
+
+    @Test
+    void testLongBurstsPlacedOnFastCPU() {
+        Process longBurst = testUtil.createProcess("P1", 1, 0, new int[] {2, 5, 40});
+        Process shortBurst = testUtil.createProcess("P2", 1, 0, new int[] {2, 5, 2});
+        FCFS fcfs = new FCFS(Arrays.asList(longBurst, shortBurst));
+        // P1 starts on the slow CPU and P2 on the fast one
+        fcfs.setCPUSpeeds(1, 2);
+        fcfs.setPlacementPolicy(PlacementPolicy.bySpeed(10));
+        fcfs.process();
+        assertEquals(2, longBurst.getSpeed());
+        assertEquals(1, shortBurst.getSpeed());
+    }
+
+    @Test
+    void testEveryCPUTickIsIdleOrBusy() {
+        Process[] testData = testUtil.getDefaultTestData();
+        RR rr = new RR(Arrays.asList(testData));
+        rr.setCPUSpeeds(2, 2, 1, 1);
+        rr.setPlacementPolicy(PlacementPolicy.bySpeed(10));
+        List<Process> result = rr.process();
+        assertEquals(8, result.size());
+        int cpuTime = 0;
+        for (Process proc : result) cpuTime += proc.getCpuTime();
+        assertEquals(4 * rr.getTotalElapsedTime(), rr.getTotalIdleCPUTime() + cpuTime);
+    }
+
+    @Test
+    void testInvalidSpeed() {
+        FCFS fcfs = new FCFS(Arrays.asList(testUtil.getDefaultTestData()));
+        assertThrows(IllegalArgumentException.class, () -> fcfs.setCPUSpeeds(2, 0));
+    }
+}
@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloRunnerTest {
+
+    private static MonteCarloRunner runner() {
+        return new MonteCarloRunner(7)
+                .add("RR", processes -> new RR(5, processes))
+                .add("MLFQ", processes -> new MLFQ(processes, 5, 10));
+    }
+
+    private static int run(MonteCarloRunner runner, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return runner.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testStopsAtTargetWidth() {
+        MonteCarloRunner runner = runner().setTargetWidth(20).setBatchSize(4);
+        int replications = run(runner, 4);
+        assertTrue(runner.isPreciseEnough());
+        assertTrue(replications >= 10);
+        for (String name : new String[] {"RR", "MLFQ"}) {
+            assertTrue(runner.getStatistic(name, MonteCarloRunner.Metric.WAIT).getWidth() <= 20);
+            assertTrue(runner.getStatistic(name, MonteCarloRunner.Metric.TURNAROUND).getWidth() <= 20);
+        }
+        // one batch fewer wouldn't have been precise enough, unless that was below the minimum
+        MonteCarloRunner shorter = runner().setTargetWidth(20).setBatchSize(4)
+                .setReplicationLimits(2, replications - 4);
+        run(shorter, 1);
+        assertTrue(replications - 4 < 10 || !shorter.isPreciseEnough());
+    }
+
+    @Test
+    void testReproducibleOnAnyNumberOfThreads() {
+        MonteCarloRunner single = runner().setReplicationLimits(40, 40);
+        MonteCarloRunner parallel = runner().setReplicationLimits(40, 40);
+        assertEquals(40, run(single, 1));
+        assertEquals(40, run(parallel, 4));
+        for (MonteCarloRunner.Metric metric : MonteCarloRunner.Metric.values()) {
+            assertEquals(single.getStatistic("MLFQ", metric).getMean(),
+                    parallel.getStatistic("MLFQ", metric).getMean());
+            assertEquals(single.getStatistic("RR", metric).getHalfWidth(),
+                    parallel.getStatistic("RR", metric).getHalfWidth());
+        }
+    }
+
+    @Test
+    void testPairedDifference() {
+        MonteCarloRunner runner = runner().setReplicationLimits(20, 20);
+        run(runner, 2);
+        MonteCarloRunner.Statistic same = runner.getDifference("RR", "RR", MonteCarloRunner.Metric.WAIT);
+        assertEquals(0, same.getMean());
+        assertEquals(0, same.getHalfWidth());
+        MonteCarloRunner.Statistic difference = runner.getDifference("RR", "MLFQ", MonteCarloRunner.Metric.WAIT);
+        assertEquals(runner.getStatistic("RR", MonteCarloRunner.Metric.WAIT).getMean()
+                - runner.getStatistic("MLFQ", MonteCarloRunner.Metric.WAIT).getMean(), difference.getMean(), 1e-9);
+        assertThrows(IllegalArgumentException.class,
+                () -> runner.getDifference("RR", "SJF", MonteCarloRunner.Metric.WAIT));
+    }
+}
@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffHeapProcessTableTest {
+
+    @Test
+    void runsTheSameAsOnHeap() {
+        TestUtil testUtil = new TestUtil();
+        List<Process> expected = new RR(3, Arrays.asList(testUtil.getDefaultTestData())).process();
+
+        try (OffHeapProcessTable table = new OffHeapProcessTable()) {
+            Process[] data = testUtil.getDefaultTestData();
+            for (Process p : data) p.moveTo(table);
+            List<Process> actual = new RR(3, Arrays.asList(data)).process();
+
+            assertSame(table, data[0].getTable());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getName(), actual.get(i).getName());
+                assertEquals(expected.get(i).getWaitingTime(), actual.get(i).getWaitingTime());
+                assertEquals(expected.get(i).getTurnaroundTime(), actual.get(i).getTurnaroundTime());
+                assertEquals(expected.get(i).getResponseTime(), actual.get(i).getResponseTime());
+            }
+        }
+    }
+
+    @Test
+    void longRunStaysOffHeap() {
+        // enough arrivals over time that finished processes are retired from the table along the way
+        List<ProcessSpec> specs = new WorkloadGenerator(5, 500)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.01)).toWorkload().getProcesses();
+        List<Process> onHeap = new ArrayList<>();
+        for (ProcessSpec spec : specs) onHeap.add(spec.instantiate(new ProcessTable()));
+        List<Process> expected = new FCFS(onHeap).process();
+
+        try (OffHeapProcessTable table = new OffHeapProcessTable()) {
+            List<Process> offHeap = new ArrayList<>();
+            for (ProcessSpec spec : specs) offHeap.add(spec.instantiate(table));
+            List<Process> actual = new FCFS(offHeap).process();
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertTrue(actual.get(i).getTable() instanceof OffHeapProcessTable, actual.get(i).getName());
+                assertEquals(expected.get(i).getName(), actual.get(i).getName());
+                assertEquals(expected.get(i).getWaitingTime(), actual.get(i).getWaitingTime());
+                assertEquals(expected.get(i).getTurnaroundTime(), actual.get(i).getTurnaroundTime());
+            }
+        }
+    }
+
+    @Test
+    void burstsBiggerThanAChunk() {
+        // 16 MB chunks hold 4M bursts
+        int[] bursts = new int[5_000_001];
+        for (int i = 0; i < bursts.length; i++) bursts[i] = i % 97 + 1;
+        ProcessSpec spec = new ProcessSpec("P1", 1, 0, bursts);
+        try (OffHeapProcessTable table = new OffHeapProcessTable()) {
+            new Process(table, "P0", 1, 0);
+            assertEquals(spec, ProcessSpec.of(spec.instantiate(table)));
+        }
+    }
+
+    @Test
+    void closedTableCantBeUsed() {
+        OffHeapProcessTable table = new OffHeapProcessTable();
+        Process p = new Process(table, "P1", 1, 0);
+        table.close();
+        assertThrows(IllegalStateException.class, p::getWaitingTime);
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParameterSweepTest {
+
+    private static List<Process> workload() {
+        return Arrays.asList(new TestUtil().getDefaultTestData());
+    }
+
+    @Test
+    void testMatchesSingleRuns() {
+        ParameterSweep sweep = new ParameterSweep(ParameterSweepTest::workload)
+                .addRR(1, 5, 20)
+                .addMLFQ(new int[] {2, 5}, new int[] {10, 20});
+        assertEquals(7, sweep.size());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<ParameterSweep.Result> results;
+        try {
+            results = sweep.run(pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(7, results.size());
+
+        // results come back in the order the configurations were added
+        assertEquals("quantum=5", results.get(1).getParameters());
+        assertEquals("high=5 med=20", results.get(6).getParameters());
+
+        RR rr = new RR(5, workload());
+        double turnaround = 0;
+        for (Process proc : rr.process()) turnaround += proc.getTurnaroundTime();
+        assertEquals(turnaround / 8, results.get(1).getAverageTurnaround(), 1e-9);
+        assertEquals(rr.getCPUUtilization(), results.get(1).getCPUUtilization(), 1e-9);
+
+        MLFQ mlfq = new MLFQ(workload(), 5, 20);
+        double wait = 0;
+        for (Process proc : mlfq.process()) wait += proc.getWaitingTime();
+        assertEquals(wait / 8, results.get(6).getAverageWait(), 1e-9);
+    }
+
+    @Test
+    void testTable() {
+        List<ParameterSweep.Result> results = new ParameterSweep(ParameterSweepTest::workload)
+                .add("FCFS", "", FCFS::new)
+                .run();
+        String[] lines = ParameterSweep.toTable(results).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("FCFS"));
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SMPTest {
+    private final TestUtil testUtil = new TestUtil();
+
+    // each algorithm, built from a fresh copy of the default test data
+    private final List<Function<Process[], SchedulerEngine>> algorithms = List.of(
+            data -> new FCFS(Arrays.asList(data)),
+            data -> new SJF(data),
+            data -> new RR(Arrays.asList(data)),
+            data -> new Priority(Arrays.asList(data)),
+            data -> new MLQ(Arrays.asList(data).subList(0, 4), Arrays.asList(data).subList(4, 8), 4),
+            data -> new MLFQ(Arrays.asList(data), 5, 10));
+
+    @Test
+    void testOneCPUUnchanged() {
+        for (Function<Process[], SchedulerEngine> algorithm : algorithms) {
+            SchedulerEngine single = algorithm.apply(testUtil.getDefaultTestData());
+            SchedulerEngine explicit = algorithm.apply(testUtil.getDefaultTestData());
+            explicit.setCPUCount(1);
+            assertEquals(names(single.process()), names(explicit.process()));
+            assertEquals(single.getTotalElapsedTime(), explicit.getTotalElapsedTime());
+            assertEquals(single.getTotalIdleCPUTime(), explicit.getTotalIdleCPUTime());
+            assertEquals(explicit.getTotalIdleCPUTime(), explicit.getIdleCPUTime(0));
+        }
+    }
+
+    @Test
+    void testFourCPUs() {
+        for (Function<Process[], SchedulerEngine> algorithm : algorithms) {
+            SchedulerEngine single = algorithm.apply(testUtil.getDefaultTestData());
+            single.process();
+            SchedulerEngine smp = algorithm.apply(testUtil.getDefaultTestData());
+            smp.setCPUCount(4);
+            List<Process> result = smp.process();
+
+            assertEquals(8, result.size());
+            int cpuTime = 0;
+            for (Process proc : result) cpuTime += proc.getCpuTime();
+            int idle = 0;
+            for (int cpu = 0; cpu < smp.getCPUCount(); cpu++) idle += smp.getIdleCPUTime(cpu);
+            assertEquals(smp.getTotalIdleCPUTime(), idle);
+            // every tick of every CPU is either idle or running a process
+            assertEquals(4 * smp.getTotalElapsedTime(), idle + cpuTime);
+            assertTrue(smp.getTotalElapsedTime() <= single.getTotalElapsedTime());
+        }
+    }
+
+    @Test
+    void testCPUCount() {
+        FCFS fcfs = new FCFS(Arrays.asList(testUtil.getDefaultTestData()));
+        assertThrows(IllegalArgumentException.class, () -> fcfs.setCPUCount(0));
+        fcfs.process();
+        assertThrows(IllegalStateException.class, () -> fcfs.setCPUCount(2));
+    }
+
+    private static List<String> names(List<Process> processes) {
+        List<String> names = new ArrayList<>();
+        for (Process proc : processes) names.add(proc.getName());
+        return names;
+    }
+}
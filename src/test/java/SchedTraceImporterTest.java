@@ -0,0 +1,193 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedTraceImporterTest {
+
+    private static List<ProcessSpec> importAll(String trace) {
+        return new SchedTraceImporter(new StringReader(trace), "test").toWorkload().getProcesses();
+    }
+
+    private static String switchLine(double time, String prevComm, int prevPid, int prevPrio, String prevState,
+                                     String nextComm, int nextPid, int nextPrio) {
+        return String.format("%16s-%-5d [000] d..2 %.6f: sched_switch: prev_comm=%s prev_pid=%d prev_prio=%d "
+                        + "prev_state=%s ==> next_comm=%s next_pid=%d next_prio=%d%n", prevComm, prevPid, time,
+                prevComm, prevPid, prevPrio, prevState, nextComm, nextPid, nextPrio);
+    }
+
+    private static String wakeupLine(double time, String event, String comm, int pid, int prio) {
+        return String.format("%16s-%-5d [000] dNh3 %.6f: %s: comm=%s pid=%d prio=%d target_cpu=000%n", "<idle>", 0,
+                time, event, comm, pid, prio);
+    }
+
+    @Test
+    void testFtrace() {
+        String trace = "# tracer: nop\n#\n"
+                + switchLine(100.000, "swapper/0", 0, 120, "R", "bash", 10, 120)
+                + switchLine(100.005, "bash", 10, 120, "S", "swapper/0", 0, 120)
+                + wakeupLine(100.025, "sched_wakeup", "bash", 10, 120)
+                + switchLine(100.025, "swapper/0", 0, 120, "R", "bash", 10, 120)
+                // preempted, so the CPU burst goes on when it runs again
+                + switchLine(100.028, "bash", 10, 120, "R+", "Web Content", 20, 110)
+                + switchLine(100.030, "Web Content", 20, 110, "D", "bash", 10, 120)
+                + "            bash-10    [000] d..2 100.031000: sched_process_exit: comm=bash pid=10 prio=120\n"
+                + switchLine(100.031, "bash", 10, 120, "X", "swapper/0", 0, 120);
+        assertEquals(List.of(new ProcessSpec("bash-10", 0, 0, 5, 20, 4),
+                new ProcessSpec("Web_Content-20", -10, 28, 2)), importAll(trace));
+    }
+
+    @Test
+    void testPerfSchedScript() {
+        String trace = "            perf  1000 [001]    50.000000: sched:sched_wakeup_new: kworker/u16:2:77 [100] "
+                + "CPU:001\n"
+                + "         swapper     0 [001]    50.001000: sched:sched_switch: swapper/1:0 [120] R ==> "
+                + "kworker/u16:2:77 [100]\n"
+                + "   kworker/u16:2    77 [001]    50.011400: sched:sched_switch: kworker/u16:2:77 [100] S ==> "
+                + "swapper/1:0 [120]\n"
+                + "            perf  1000 [001]    50.013000: sched:sched_wakeup: comm=kworker/u16:2 pid=77 "
+                + "prio=100 target_cpu=001\n"
+                + "            perf  1000 [001]    50.013000: sched:sched_switch: prev_comm=perf prev_pid=1000 "
+                + "prev_prio=120 prev_state=S ==> next_comm=kworker/u16:2 next_pid=77 next_prio=100\n"
+                + "   kworker/u16:2    77 [001]    50.014000: sched:sched_switch: kworker/u16:2:77 [100] X ==> "
+                + "swapper/1:0 [120]\n";
+        // perf was running when the trace started, and blocked at the end
+        assertEquals(List.of(new ProcessSpec("kworker/u16:2-77", -20, 0, 10, 2, 1),
+                new ProcessSpec("perf-1000", 0, 0, 13)), importAll(trace));
+    }
+
+    @Test
+    void testTickLength() {
+        String trace = switchLine(1.0, "swapper/0", 0, 120, "R", "a", 5, 125)
+                + switchLine(1.0004, "a", 5, 125, "S", "swapper/0", 0, 120);
+        List<ProcessSpec> specs = new SchedTraceImporter(new StringReader(trace), "test").setTickMicros(100)
+                .toWorkload().getProcesses();
+        assertEquals(List.of(new ProcessSpec("a-5", 5, 0, 4)), specs);
+        // shorter than a tick, it still takes one
+        assertEquals(List.of(new ProcessSpec("a-5", 5, 0, 1)), importAll(trace));
+    }
+
+    @Test
+    void testZeroLengthRun() {
+        String trace = switchLine(1.000, "swapper/0", 0, 120, "R", "t", 7, 120)
+                + switchLine(1.005, "t", 7, 120, "S", "swapper/0", 0, 120)
+                + wakeupLine(1.010, "sched_wakeup", "t", 7, 120)
+                // switched in and blocked again at the same time, so it ran for less than the timestamps show
+                + switchLine(1.010, "swapper/0", 0, 120, "R", "t", 7, 120)
+                + switchLine(1.010, "t", 7, 120, "S", "swapper/0", 0, 120)
+                + wakeupLine(1.030, "sched_wakeup", "t", 7, 120)
+                + switchLine(1.030, "swapper/0", 0, 120, "R", "t", 7, 120)
+                + switchLine(1.033, "t", 7, 120, "X", "swapper/0", 0, 120);
+        assertEquals(List.of(new ProcessSpec("t-7", 0, 0, 5, 5, 1, 20, 3)), importAll(trace));
+    }
+
+    @Test
+    void testLongTaskIsSplit() {
+        StringBuilder trace = new StringBuilder();
+        double time = 0;
+        for (int i = 0; i < 5; i++) {
+            trace.append(wakeupLine(time, "sched_wakeup", "loop", 7, 120));
+            trace.append(switchLine(time, "swapper/0", 0, 120, "R", "loop", 7, 120));
+            time += 0.002;
+            trace.append(switchLine(time, "loop", 7, 120, "S", "swapper/0", 0, 120));
+            time += 0.010;
+        }
+        List<ProcessSpec> specs = new SchedTraceImporter(new StringReader(trace.toString()), "test").setMaxBursts(3)
+                .toWorkload().getProcesses();
+        assertEquals(List.of(new ProcessSpec("loop-7", 0, 0, 2, 10, 2), new ProcessSpec("loop-7.2", 0, 24, 2, 10, 2),
+                new ProcessSpec("loop-7.3", 0, 48, 2)), specs);
+    }
+
+    /**
+     * Synthetic trace: a daemon that blocks at the start and only wakes at the end, and many short tasks, each
+     * running, blocking and running again.
+     */
+    private static String syntheticTrace(int tasks, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder trace = new StringBuilder();
+        double time = 10;
+        trace.append(switchLine(time, "swapper/0", 0, 120, "R", "daemon", 2, 120));
+        time += 0.003;
+        trace.append(switchLine(time, "daemon", 2, 120, "S", "swapper/0", 0, 120));
+        for (int i = 0; i < tasks; i++) {
+            int pid = 100 + i;
+            int prio = 100 + random.nextInt(40);
+            time += random.nextInt(1, 20) / 1000.0;
+            trace.append(wakeupLine(time, "sched_wakeup_new", "job", pid, prio));
+            trace.append(switchLine(time, "swapper/0", 0, 120, "R", "job", pid, prio));
+            time += random.nextInt(1, 10) / 1000.0;
+            trace.append(switchLine(time, "job", pid, prio, "S", "swapper/0", 0, 120));
+            time += random.nextInt(1, 30) / 1000.0;
+            trace.append(wakeupLine(time, "sched_wakeup", "job", pid, prio));
+            trace.append(switchLine(time, "swapper/0", 0, 120, "R", "job", pid, prio));
+            time += random.nextInt(1, 10) / 1000.0;
+            trace.append(switchLine(time, "job", pid, prio, "X", "swapper/0", 0, 120));
+        }
+        trace.append(wakeupLine(time, "sched_wakeup", "daemon", 2, 120));
+        trace.append(switchLine(time, "swapper/0", 0, 120, "R", "daemon", 2, 120));
+        trace.append(switchLine(time + 0.001, "daemon", 2, 120, "S", "swapper/0", 0, 120));
+        return trace.toString();
+    }
+
+    @Test
+    void testArrivalOrderWithBoundedMemory() {
+        SchedTraceImporter importer = new SchedTraceImporter(new StringReader(syntheticTrace(5_000, 1)), "test")
+                .setMaxPending(100);
+        int count = 0, lastArrival = 0, daemonProcesses = 0;
+        while (importer.hasNext()) {
+            // the limit, and the processes split off to get under it
+            assertTrue(importer.getPendingCount() <= 102, "pending " + importer.getPendingCount());
+            assertTrue(importer.getTaskCount() <= 3, "tasks " + importer.getTaskCount());
+            ProcessSpec spec = importer.next();
+            assertTrue(spec.getArrivalTime() >= lastArrival, spec + " after " + lastArrival);
+            lastArrival = spec.getArrivalTime();
+            if (spec.getName().startsWith("daemon")) {
+                daemonProcesses++;
+            } else {
+                assertEquals(3, spec.getBurstCount(), spec.toString());
+                assertEquals(Process.BurstType.CPU, spec.getBurstType(0));
+            }
+            count++;
+        }
+        // the daemon held back everything after it, so it was split to let the others out
+        assertEquals(5_002, count);
+        assertEquals(2, daemonProcesses);
+    }
+
+    @Test
+    void testStreamsLikeListed() {
+        String trace = syntheticTrace(300, 2);
+        WorkloadSpec workload = new WorkloadSpec(importAll(trace));
+        assertEquals(301, workload.size());
+        List<Process> listed = new RR(5, workload.instantiate()).process();
+        RR streamed = new RR(5);
+        streamed.addArrivals(new SchedTraceImporter(new StringReader(trace), "test"));
+        assertEquals(TestFixtures.summary(listed), TestFixtures.summary(streamed.process()));
+    }
+
+    @Test
+    void testBadLine() {
+        String trace = switchLine(1.0, "swapper/0", 0, 120, "R", "a", 5, 120)
+                + "  a-5 [000] d..2 1.002000: sched_switch: prev_comm=a prev_pid=5 ==> next_comm=b\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> importAll(trace));
+        assertTrue(e.getMessage().startsWith("test:2: "), e.getMessage());
+        SchedTraceImporter importer = new SchedTraceImporter(new StringReader(switchLine(1.0, "swapper/0", 0, 120,
+                "R", "a", 5, 120)), "test");
+        importer.hasNext();
+        assertThrows(IllegalStateException.class, () -> importer.setMaxBursts(10));
+    }
+
+    @Test
+    void testTraceTooLongForTick() {
+        // 2^31 microsecond ticks is under 36 minutes
+        String trace = switchLine(1.0, "swapper/0", 0, 120, "R", "a", 5, 120)
+                + switchLine(2_200.0, "a", 5, 120, "S", "swapper/0", 0, 120);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                new SchedTraceImporter(new StringReader(trace), "test").setTickMicros(1).toWorkload());
+        assertTrue(e.getMessage().startsWith("test:2: trace runs for 2199.000 s"), e.getMessage());
+        assertEquals(1, new SchedTraceImporter(new StringReader(trace), "test").toWorkload().size());
+    }
+}
@@ -0,0 +1,47 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedSimulationTest {
+
+    /**
+     * A workload big enough that every shard has processes in every state.
+     */
+    private static WorkloadSpec workload() {
+        return new WorkloadGenerator(3, 1000).setCPUBursts(WorkloadGenerator.Distribution.exponential(5))
+                .setIOBursts(WorkloadGenerator.Distribution.exponential(20)).setCPUBurstCount(1, 4).setMaxBurst(40)
+                .toWorkload();
+    }
+
+    @Test
+    void testShardedRunMatchesSequential() {
+        WorkloadSpec workload = workload();
+        List<Function<List<Process>, SchedulerEngine>> algorithms = List.of(
+                FCFS::new,
+                processes -> new SJF(processes.toArray(new Process[0])),
+                processes -> new RR(4, processes),
+                processes -> new MLFQ(processes, 3, 8));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Function<List<Process>, SchedulerEngine> algorithm : algorithms) {
+                for (int cpus = 1; cpus <= 3; cpus += 2) {
+                    SchedulerEngine sequential = algorithm.apply(workload.instantiate());
+                    sequential.setCPUCount(cpus);
+                    List<String> expected = TestFixtures.summary(sequential);
+                    for (int shards : new int[] {2, 7}) {
+                        SchedulerEngine sharded = algorithm.apply(workload.instantiate());
+                        sharded.setCPUCount(cpus);
+                        sharded.setParallelism(pool, shards);
+                        assertEquals(expected, TestFixtures.summary(sharded));
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
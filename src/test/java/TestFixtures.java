@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers shared by the tests.
+ */
+final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Describe finished processes by name and metrics, so two runs can be compared with assertEquals.
+     * @param processes - finished processes.
+     * @return - one line per process: name, waiting, turnaround and response time.
+     */
+    static List<String> summary(List<Process> processes) {
+        List<String> summary = new ArrayList<>();
+        for (Process proc : processes) {
+            summary.add(proc.getName() + " " + proc.getWaitingTime() + " " + proc.getTurnaroundTime() + " "
+                    + proc.getResponseTime());
+        }
+        return summary;
+    }
+
+    /**
+     * Run a scheduler and describe its processes as summary(List) does, followed by its elapsed and idle time.
+     * @param engine - scheduler that hasn't run yet.
+     * @return - List of lines.
+     */
+    static List<String> summary(SchedulerEngine engine) {
+        List<String> summary = summary(engine.process());
+        summary.add("time " + engine.getTotalElapsedTime() + " idle " + engine.getTotalIdleCPUTime());
+        return summary;
+    }
+
+    /**
+     * Create one scheduler of each kind, each with its own copy of a workload.  MLQ gets the first half of the
+     * processes in its foreground queue.
+     * @param workload - WorkloadSpec.
+     * @param quantum - time quantum of RR, of the MLQ foreground queue and of the MLFQ top queue.
+     * @return - FCFS, SJF, Priority, RR, MLQ and MLFQ, none of them run yet.
+     */
+    static List<ScheduleInterface> everyScheduler(WorkloadSpec workload, int quantum) {
+        List<Process> mlq = workload.instantiate();
+        int half = mlq.size() / 2;
+        return List.of(new FCFS(workload.instantiate()), new SJF(workload.instantiateArray()),
+                new Priority(workload.instantiate()), new RR(quantum, workload.instantiate()),
+                new MLQ(mlq.subList(0, half), mlq.subList(half, mlq.size()), quantum),
+                new MLFQ(workload.instantiate(), quantum, 2 * quantum));
+    }
+}
@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TickKernelTest {
+
+    /**
+     * Build a table of processes in random states, with bursts long enough that none changes state.
+     */
+    private ProcessTable randomTable(long seed) {
+        Random random = new Random(seed);
+        ProcessTable table = new ProcessTable();
+        Process.State[] states = Process.State.values();
+        for (int i = 0; i < 101; i++) {
+            Process p = new Process(table, "P" + i, i, 0);
+            try {
+                p.addBurst(Process.BurstType.CPU, 1000 + random.nextInt(100));
+                p.addBurst(Process.BurstType.IO, 1000 + random.nextInt(100));
+            } catch (Process.InvalidBurstTypeException e) {
+                throw new IllegalStateException(e);
+            }
+            Process.State state = states[random.nextInt(states.length)];
+            if (state == Process.State.IO) p.runOnCPU(p.getCurrentDuration());
+            p.setCurrentState(state);
+        }
+        return table;
+    }
+
+    /**
+     * Tick a table one row at a time, and another two with a kernel, and check they end up the same.
+     */
+    private void assertKernelAgrees(TickKernel kernel) {
+        ProcessTable expected = randomTable(7);
+        ProcessTable actual = randomTable(7);
+        for (int time = 1; time < 20; time++) {
+            for (int id = 0; id < expected.size(); id++) expected.tick(id, time);
+            actual.tickRange(kernel, 0, actual.size(), time);
+        }
+        for (int id = 0; id < expected.size(); id++) {
+            for (int column = 0; column < ProcessTable.COLUMNS; column++) {
+                assertEquals(expected.get(column, id), actual.get(column, id));
+            }
+            assertEquals(expected.getBurst(id, 0), actual.getBurst(id, 0));
+            assertEquals(expected.getBurst(id, 1), actual.getBurst(id, 1));
+        }
+    }
+
+    @Test
+    void scalarKernelAgrees() {
+        assertKernelAgrees(new ScalarTickKernel());
+    }
+
+    @Test
+    void vectorKernelAgrees() {
+        assertKernelAgrees(new VectorTickKernel());
+    }
+
+    @Test
+    void vectorKernelIsSelected() {
+        // the tests are run with --add-modules jdk.incubator.vector, so the vectorized kernel has to be the one used
+        assertTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+        boolean vector = Boolean.parseBoolean(System.getProperty("scheduler.vector", "true"));
+        assertEquals(vector, TickKernel.create() instanceof VectorTickKernel);
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeWarpTest {
+
+    /**
+     * Many short processes arriving close together, so nodes fill up and migrate often.
+     */
+    private static WorkloadSpec workload() {
+        return new WorkloadGenerator(5, 3000).setArrivals(WorkloadGenerator.Arrivals.poisson(0.6))
+                .setCPUBursts(WorkloadGenerator.Distribution.exponential(7))
+                .setIOBursts(WorkloadGenerator.Distribution.exponential(20)).setCPUBurstCount(1, 3).setMaxBurst(40)
+                .toWorkload();
+    }
+
+    @Test
+    void testTimeWarpMatchesSequential() {
+        ClusterNodeModel model = new ClusterNodeModel(workload(), 8, 2, 3);
+        TimeWarpSimulator<ClusterNodeModel.Node> simulator = model.createSimulator();
+        String expected = simulator.runSequential().toString();
+        long events = simulator.getProcessedEvents();
+        int finished = 0, migrated = 0;
+        for (ClusterNodeModel.Node node : simulator.runSequential()) {
+            finished += node.getFinished();
+            migrated += node.getMigratedOut();
+        }
+        assertEquals(3000, finished);
+        assertTrue(migrated > 0);
+
+        for (int threads : new int[] {1, 2, 3, 8}) {
+            simulator.setEventsPerRound(threads == 3 ? 7 : 1024);
+            assertEquals(expected, simulator.run(threads).toString(), threads + " threads");
+            assertEquals(events, simulator.getCommittedEvents(), threads + " threads");
+            assertTrue(simulator.getGVTRounds() > 0);
+        }
+    }
+
+    @Test
+    void testOptimismWindowAndEndTime() {
+        ClusterNodeModel model = new ClusterNodeModel(workload(), 4, 3, 1);
+        TimeWarpSimulator<ClusterNodeModel.Node> simulator = model.createSimulator();
+        simulator.setEndTime(2500);
+        String expected = simulator.runSequential().toString();
+        simulator.setOptimismWindow(10);
+        assertEquals(expected, simulator.run(4).toString());
+        for (ClusterNodeModel.Node node : simulator.run(2)) assertTrue(node.getLastFinishTime() <= 2500);
+    }
+
+    @Test
+    void testEventsMustBeSentToTheFuture() {
+        TimeWarpSimulator<int[]> simulator = new TimeWarpSimulator<>(new TimeWarpSimulator.Model<int[]>() {
+            @Override
+            public int[] initialState(int lp) {
+                return new int[1];
+            }
+
+            @Override
+            public int[] copy(int[] state) {
+                return state.clone();
+            }
+
+            @Override
+            public void handle(int lp, int[] state, long time, Object payload, TimeWarpSimulator.Sender sender) {
+                sender.send(1 - lp, time, payload);
+            }
+        }, 2);
+        simulator.schedule(0, 1, "ping");
+        assertThrows(IllegalArgumentException.class, simulator::runSequential);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> simulator.run(2));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracePipelineTest {
+    @TempDir
+    Path directory;
+
+    private List<WorkloadSpec> writeTraces(int count) throws IOException {
+        SplittableRandom random = new SplittableRandom(5);
+        List<WorkloadSpec> workloads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            WorkloadSpec workload = MonteCarloRunner.randomWorkload(random.split());
+            workloads.add(workload);
+            try (Writer writer = Files.newBufferedWriter(directory.resolve("w" + i + ".trace"),
+                    StandardCharsets.UTF_8)) {
+                workload.write(writer);
+            }
+        }
+        return workloads;
+    }
+
+    @Test
+    void testMatchesRunningEachTrace() throws IOException {
+        List<WorkloadSpec> workloads = writeTraces(40);
+        long wait = 0, turnaround = 0, response = 0, elapsed = 0, idle = 0;
+        for (WorkloadSpec workload : workloads) {
+            RR rr = new RR(4, workload.instantiate());
+            for (Process proc : rr.process()) {
+                wait += proc.getWaitingTime();
+                turnaround += proc.getTurnaroundTime();
+                response += proc.getResponseTime();
+            }
+            elapsed += rr.getTotalElapsedTime();
+            idle += rr.getTotalIdleCPUTime();
+        }
+        // a queue of one keeps every stage waiting on the next
+        for (int threads = 1; threads <= 3; threads++) {
+            TracePipeline pipeline = new TracePipeline(TracePipeline.listTraces(directory, ".trace"))
+                    .add("FCFS", FCFS::new)
+                    .add("RR", processes -> new RR(4, processes))
+                    .setParserThreads(threads)
+                    .setSimulatorThreads(threads)
+                    .setQueueCapacity(1);
+            Map<String, TracePipeline.Totals> totals = pipeline.run();
+            assertEquals(List.of("FCFS", "RR"), new ArrayList<>(totals.keySet()));
+            TracePipeline.Totals rr = totals.get("RR");
+            assertEquals(40, rr.getWorkloads());
+            assertEquals(40 * 8, rr.getProcesses());
+            assertEquals(wait, rr.getWaitingTime());
+            assertEquals(turnaround, rr.getTurnaroundTime());
+            assertEquals(response, rr.getResponseTime());
+            assertEquals(elapsed, rr.getElapsedTime());
+            assertEquals(idle, rr.getIdleTime());
+            for (TracePipeline.Stage stage : pipeline.getStages()) assertEquals(40, stage.getItems());
+            assertNotNull(pipeline.getBottleneck());
+        }
+    }
+
+    @Test
+    void testBadTraceStopsThePipeline() throws IOException {
+        writeTraces(20);
+        Files.writeString(directory.resolve("w5.trace"), "P1 1 0 5 x 5\n");
+        TracePipeline pipeline = new TracePipeline(TracePipeline.listTraces(directory, ".trace"))
+                .add("FCFS", FCFS::new)
+                .setSimulatorThreads(2)
+                .setQueueCapacity(1);
+        IllegalStateException e = assertThrows(IllegalStateException.class, pipeline::run);
+        assertTrue(e.getCause().getMessage().contains("w5.trace:1"), e.getCause().getMessage());
+        assertThrows(IllegalStateException.class, () -> new TracePipeline(List.of()).run());
+    }
+}
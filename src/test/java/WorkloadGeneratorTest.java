@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadGeneratorTest {
+
+    @Test
+    void testSameSeedSameWorkload() {
+        WorkloadSpec first = new WorkloadGenerator(7, 500).toWorkload();
+        WorkloadSpec second = new WorkloadGenerator(7, 500).toWorkload();
+        assertEquals(first.getProcesses(), second.getProcesses());
+        assertNotEquals(first.getProcesses(), new WorkloadGenerator(8, 500).toWorkload().getProcesses());
+    }
+
+    @Test
+    void testShapeOfProcesses() {
+        List<ProcessSpec> specs = new WorkloadGenerator(3, 2_000)
+                .setCPUBursts(WorkloadGenerator.Distribution.pareto(5, 0.8))
+                .setCPUBurstCount(2, 4)
+                .setMaxBurst(500)
+                .setPriorityMix(0, 1, 0, 3)
+                .stream().collect(Collectors.toList());
+        assertEquals(2_000, specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            ProcessSpec spec = specs.get(i);
+            assertEquals("P" + (i + 1), spec.getName());
+            assertEquals(0, spec.getArrivalTime());
+            // CPU, IO, CPU, ... ending with a CPU burst
+            assertTrue(spec.getBurstCount() >= 3 && spec.getBurstCount() <= 7 && spec.getBurstCount() % 2 == 1);
+            assertEquals(Process.BurstType.CPU, spec.getBurstType(0));
+            for (int b = 0; b < spec.getBurstCount(); b++) {
+                assertTrue(spec.getBurst(b) >= 1 && spec.getBurst(b) <= 500);
+            }
+            // priorities of weight 0 never come up
+            assertTrue(spec.getPriority() == 2 || spec.getPriority() == 4);
+        }
+        long fours = specs.stream().filter(spec -> spec.getPriority() == 4).count();
+        assertTrue(fours > 1_350 && fours < 1_650, "priority 4 drawn " + fours + " times");
+    }
+
+    @Test
+    void testPoissonArrivals() {
+        WorkloadGenerator generator = new WorkloadGenerator(11, 20_000)
+                .setArrivals(WorkloadGenerator.Arrivals.poisson(0.1));
+        int previous = 0;
+        ProcessSpec last = null;
+        while (generator.hasNext()) {
+            last = generator.next();
+            assertTrue(last.getArrivalTime() >= previous);
+            previous = last.getArrivalTime();
+        }
+        // 20,000 gaps of mean 10
+        assertEquals(200_000, last.getArrivalTime(), 6_000);
+    }
+
+    @Test
+    void testBurstyArrivalsAreBurstier() {
+        SplittableRandom random = new SplittableRandom(1);
+        WorkloadGenerator.Arrivals bursty = WorkloadGenerator.Arrivals.bursty(0.01, 1, 500);
+        double sum = 0, sumOfSquares = 0;
+        int n = 50_000;
+        for (int i = 0; i < n; i++) {
+            double gap = bursty.nextGap(random);
+            assertTrue(gap >= 0);
+            sum += gap;
+            sumOfSquares += gap * gap;
+        }
+        double mean = sum / n;
+        double cv = Math.sqrt(sumOfSquares / n - mean * mean) / mean;
+        // exponential gaps have a coefficient of variation of 1
+        assertTrue(cv > 1.5, "coefficient of variation " + cv);
+    }
+
+    @Test
+    void testDistributionMeans() {
+        SplittableRandom random = new SplittableRandom(2);
+        assertEquals(8, mean(WorkloadGenerator.Distribution.exponential(8), random), 0.2);
+        assertEquals(Math.exp(1 + 0.5 * 0.5 / 2), mean(WorkloadGenerator.Distribution.lognormal(1, 0.5), random),
+                0.1);
+        // mean of a Pareto distribution is scale * shape / (shape - 1)
+        assertEquals(15, mean(WorkloadGenerator.Distribution.pareto(10, 3), random), 0.3);
+        WorkloadGenerator.Distribution bimodal = WorkloadGenerator.Distribution.bimodal(
+                random1 -> 1, random1 -> 100, 0.25);
+        assertEquals(0.75 + 25, mean(bimodal, random), 1);
+    }
+
+    private static double mean(WorkloadGenerator.Distribution distribution, SplittableRandom random) {
+        double sum = 0;
+        for (int i = 0; i < 100_000; i++) sum += distribution.sample(random);
+        return sum / 100_000;
+    }
+
+    @Test
+    void testInstantiateMatchesWorkload() {
+        WorkloadSpec workload = new WorkloadGenerator(5, 60).toWorkload();
+        // generating the processes directly gives the same ones as collecting the workload first
+        List<Process> streamed = new RR(4, new WorkloadGenerator(5, 60).instantiate()).process();
+        List<Process> collected = new RR(4, workload.instantiate()).process();
+        assertEquals(TestFixtures.summary(collected), TestFixtures.summary(streamed));
+    }
+
+    @Test
+    void testSettingsAreChecked() {
+        WorkloadGenerator generator = new WorkloadGenerator(1, 10);
+        assertThrows(IllegalArgumentException.class, () -> generator.setCPUBurstCount(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> generator.setPriorityMix(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadGenerator.Distribution.pareto(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadGenerator.Arrivals.poisson(-1));
+        generator.next();
+        assertThrows(IllegalStateException.class, () -> generator.setMaxBurst(10));
+        assertEquals(9, generator.stream().count());
+        assertFalse(generator.hasNext());
+        assertThrows(java.util.NoSuchElementException.class, generator::next);
+    }
+}
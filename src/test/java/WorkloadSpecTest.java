@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadSpecTest {
+    private final TestUtil testUtil = new TestUtil();
+
+    @Test
+    void testInstancesRunLikeTestData() {
+        WorkloadSpec workload = testUtil.getDefaultWorkload();
+        List<Process> fromSpec = new RR(workload.instantiate()).process();
+        List<Process> fromTestData = new RR(Arrays.asList(testUtil.getDefaultTestData())).process();
+        assertEquals(TestFixtures.summary(fromTestData), TestFixtures.summary(fromSpec));
+        // running didn't consume the spec
+        assertEquals(WorkloadSpec.of(testUtil.getDefaultTestData()).getProcesses(), workload.getProcesses());
+    }
+
+    @Test
+    void testSharedBetweenThreads() throws Exception {
+        WorkloadSpec workload = testUtil.getDefaultWorkload();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> runs = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                runs.add(executor.submit(() -> TestFixtures.summary(new MLFQ(workload.instantiate(), 5, 10).process())));
+            }
+            List<String> expected = TestFixtures.summary(new MLFQ(Arrays.asList(testUtil.getDefaultTestData()), 5, 10).process());
+            for (Future<List<String>> run : runs) assertEquals(expected, run.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSpecIsImmutable() {
+        int[] bursts = {3, 4, 5};
+        ProcessSpec spec = new ProcessSpec("P1", 2, 0, bursts);
+        bursts[0] = 99;
+        assertEquals(3, spec.getBurst(0));
+        assertEquals(Process.BurstType.IO, spec.getBurstType(1));
+
+        Process proc = spec.instantiate(new ProcessTable());
+        proc.runOnCPU(3);
+        assertEquals(Process.BurstType.IO, proc.getCurrentBurstType());
+        assertEquals(3, spec.getBurst(0));
+        // the spec of a process that has run holds the bursts it has left
+        assertEquals(new ProcessSpec("P1", 2, 0, Process.BurstType.IO, 4, 5), ProcessSpec.of(proc));
+        assertThrows(UnsupportedOperationException.class,
+                () -> new WorkloadSpec(List.of(spec)).getProcesses().add(spec));
+    }
+
+    @Test
+    void testTextTraces() throws IOException {
+        WorkloadSpec workload = new WorkloadSpec(List.of(new ProcessSpec("P1", 3, 0, 5, 27, 3),
+                new ProcessSpec("P2", 1, 4, Process.BurstType.IO, 10, 6), new ProcessSpec("P3", 2, 9)));
+        StringWriter writer = new StringWriter();
+        workload.write(writer);
+        assertEquals("P1 3 0 5 27 3\nP2 1 4 IO 10 6\nP3 2 9\n", writer.toString());
+        String trace = "# name priority arrival bursts\n\n" + writer + "  \n";
+        assertEquals(workload.getProcesses(),
+                WorkloadSpec.read(new BufferedReader(new StringReader(trace)), "test").getProcesses());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WorkloadSpec.read(new BufferedReader(new StringReader("P1 1 0 4\nP2 1\n")), "test"));
+        assertTrue(e.getMessage().startsWith("test:2: "), e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> WorkloadSpec.read(new BufferedReader(new StringReader("P1 1 0 4 -2\n")), "test"));
+    }
+}